@@ -55,11 +55,19 @@ create table if not exists question_submit
     status     int      default 0                 not null comment '判题状态（0 - 待判题、1 - 判题中、2 - 成功、3 - 失败）',
     questionId bigint                             not null comment '题目 id',
     userId     bigint                             not null comment '创建用户 id',
+    priority   int      default 1                 not null comment '判题优先级（0 - 比赛、1 - 练习、2 - 重判）',
+    queueTime  datetime default CURRENT_TIMESTAMP not null comment '进入判题队列时间',
+    leaseOwner varchar(128)                       null comment '领取判题的节点',
+    leaseExpireTime datetime                      null comment '判题租约到期时间，到期未完成的重新排队',
+    attempts   int      default 0                 not null comment '领取次数',
     createTime datetime default CURRENT_TIMESTAMP not null comment '创建时间',
     updateTime datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
     isDelete   tinyint  default 0                 not null comment '是否删除',
     index idx_questionId (questionId),
-    index idx_userId (userId)
+    index idx_userId (userId),
+    index idx_status_priority (status, priority, id),
+    index idx_status_queueTime (status, queueTime),
+    index idx_status_leaseExpireTime (status, leaseExpireTime)
 ) comment '题目提交';
 
 
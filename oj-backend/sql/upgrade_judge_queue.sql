@@ -0,0 +1,14 @@
+# 判题队列：已有数据库升级
+use OJ;
+
+alter table question_submit
+    add column priority   int      default 1                 not null comment '判题优先级（0 - 比赛、1 - 练习、2 - 重判）' after userId,
+    add column queueTime  datetime default CURRENT_TIMESTAMP not null comment '进入判题队列时间' after priority,
+    add column leaseOwner varchar(128)                       null comment '领取判题的节点' after queueTime,
+    add column leaseExpireTime datetime                      null comment '判题租约到期时间，到期未完成的重新排队' after leaseOwner,
+    add column attempts   int      default 0                 not null comment '领取次数' after leaseExpireTime,
+    add index idx_status_priority (status, priority, id),
+    add index idx_status_queueTime (status, queueTime),
+    add index idx_status_leaseExpireTime (status, leaseExpireTime);
+
+# 升级前停在判题中的提交没有租约，由判题队列按租约已到期处理
@@ -0,0 +1,57 @@
+package com.group38.oj.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 判题调度配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "judge.dispatcher")
+@Data
+public class JudgeDispatcherConfig {
+
+    /**
+     * 判题线程数，即同时判题的提交数
+     */
+    private int threads = 4;
+
+    /**
+     * 各优先级待判题提交数的上限（所有节点共享），key 为优先级（contest / practice / rejudge），未配置的按默认容量
+     */
+    private Map<String, Integer> laneCapacity = new HashMap<>();
+
+    /**
+     * 未配置容量的队列的默认容量
+     */
+    private int defaultCapacity = 500;
+
+    /**
+     * 老化时间(ms)：低优先级的提交等待超过该时间后不再让给高优先级，避免一直得不到判题
+     */
+    private long agingThreshold = 30000L;
+
+    /**
+     * 判题租约时长(ms)：判题期间定时续租，节点宕机后租约到期，提交重新排队
+     */
+    private long leaseTime = 60000L;
+
+    /**
+     * 队列为空时判题线程重新领取的间隔(ms)，本节点有新提交时立即领取
+     */
+    private long pollInterval = 1000L;
+
+    /**
+     * 收回到期租约的间隔(ms)
+     */
+    private long reclaimInterval = 10000L;
+
+    /**
+     * 最多领取次数，达到后仍未完成的判为失败，避免一直导致节点出错的提交反复重试
+     */
+    private int maxAttempts = 3;
+}
@@ -0,0 +1,40 @@
+package com.group38.oj.config;
+
+import com.group38.oj.judge.sandbox.SandboxDecorator;
+import com.group38.oj.judge.sandbox.SandboxProxy;
+import com.group38.oj.judge.sandbox.SandboxResilienceManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+/**
+ * 沙箱装饰器配置
+ * <p>
+ * 装饰器按 @Order 从小到大由内向外包装沙箱，新增缓存、限流等装饰器时注册为 SandboxDecorator Bean 即可
+ */
+@Configuration
+public class SandboxConfig {
+
+    /**
+     * 重试、对冲和调用统计，放在内层，每次重试和对冲都单独调用沙箱
+     *
+     * @param sandboxResilienceManager
+     * @return
+     */
+    @Bean
+    @Order(100)
+    public SandboxDecorator sandboxResilienceDecorator(SandboxResilienceManager sandboxResilienceManager) {
+        return sandboxResilienceManager::wrap;
+    }
+
+    /**
+     * 请求和响应日志，放在最外层，每次判题只记录一次
+     *
+     * @return
+     */
+    @Bean
+    @Order(1000)
+    public SandboxDecorator sandboxLogDecorator() {
+        return (type, sandbox) -> new SandboxProxy(sandbox);
+    }
+}
@@ -0,0 +1,67 @@
+package com.group38.oj.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 远程沙箱配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.remote")
+@Data
+public class SandboxRemoteConfig {
+
+    /**
+     * 没有配置节点列表时使用的沙箱地址
+     */
+    private String url = "http://localhost:8090";
+
+    /**
+     * 沙箱节点地址列表，通过心跳注册的节点会自动加入
+     */
+    private List<String> nodes = new ArrayList<>();
+
+    /**
+     * 鉴权请求头，与沙箱一致
+     */
+    private String authHeader = "auth";
+
+    /**
+     * 鉴权密钥，与沙箱一致
+     */
+    private String authSecret = "secretKey";
+
+    /**
+     * 建立连接的超时时间(ms)
+     */
+    private long connectTimeout = 3000L;
+
+    /**
+     * 单次执行代码请求的超时时间(ms)，包括沙箱排队、编译和运行全部用例
+     */
+    private long requestTimeout = 60000L;
+
+    /**
+     * 是否优先使用 HTTP/2，沙箱不支持时自动回退到 HTTP/1.1
+     */
+    private boolean http2 = true;
+
+    /**
+     * 健康检查的间隔(ms)
+     */
+    private long healthCheckInterval = 5000L;
+
+    /**
+     * 健康检查的超时时间(ms)
+     */
+    private long healthCheckTimeout = 2000L;
+
+    /**
+     * 停止时等待发出的请求结束的最长时间(ms)
+     */
+    private long drainTimeout = 30000L;
+}
@@ -0,0 +1,75 @@
+package com.group38.oj.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 沙箱调用容错配置：熔断、重试和对冲请求
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.resilience")
+@Data
+public class SandboxResilienceConfig {
+
+    private static final Policy DEFAULT_POLICY = new Policy();
+
+    /**
+     * 各沙箱类型的容错策略，key 为 sandbox.type，未配置的类型使用默认策略
+     */
+    private Map<String, Policy> policy = new HashMap<>();
+
+    public Policy getPolicy(String type) {
+        return policy.getOrDefault(type, DEFAULT_POLICY);
+    }
+
+    /**
+     * 容错策略
+     */
+    @Data
+    public static class Policy {
+
+        /**
+         * 最多调用次数（含第一次），只重试连接失败、超时、沙箱繁忙等与代码无关的错误
+         */
+        private int maxAttempts = 2;
+
+        /**
+         * 重试间隔(ms)，第 n 次重试等待 n 倍
+         */
+        private long retryBackoff = 200L;
+
+        /**
+         * 是否发送对冲请求：调用超过近期耗时的分位数仍未返回时向另一个节点再发一次，取先返回的结果
+         */
+        private boolean hedge = false;
+
+        /**
+         * 对冲的耗时分位数
+         */
+        private int hedgePercentile = 95;
+
+        /**
+         * 对冲等待时间的下限(ms)，避免耗时都很短时频繁对冲
+         */
+        private long hedgeMinDelay = 500L;
+
+        /**
+         * 近期成功调用少于该数量时分位数不可靠，不对冲
+         */
+        private int hedgeMinSamples = 20;
+
+        /**
+         * 熔断阈值：节点连续失败达到该次数后熔断，不再分配请求
+         */
+        private int failureThreshold = 3;
+
+        /**
+         * 熔断时长(ms)，到期后放一个试探请求（或健康检查），成功则恢复
+         */
+        private long openDuration = 30000L;
+    }
+}
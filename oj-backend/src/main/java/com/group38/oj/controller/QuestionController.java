@@ -14,10 +14,12 @@ import com.group38.oj.model.dto.question.*;
 import com.group38.oj.model.dto.user.UserQueryRequest;
 import com.group38.oj.model.entity.Question;
 import com.group38.oj.model.entity.User;
+import com.group38.oj.model.enums.QuestionInputModeEnum;
 import com.group38.oj.model.vo.QuestionVO;
 import com.group38.oj.service.QuestionService;
 import com.group38.oj.service.UserService;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.BeanUtils;
 import org.springframework.web.bind.annotation.*;
 
@@ -65,6 +67,10 @@ public class QuestionController {
         }
         JudgeConfig judgeConfig = questionAddRequest.getJudgeConfig();
         if (judgeConfig != null) {
+            // 新题目默认通过标准输入读取用例
+            if (StringUtils.isBlank(judgeConfig.getInputMode())) {
+                judgeConfig.setInputMode(QuestionInputModeEnum.STDIN.getValue());
+            }
             question.setJudgeConfig(JSONUtil.toJsonStr(judgeConfig));
         }
         questionService.validQuestion(question, true);
@@ -1,12 +1,17 @@
 package com.group38.oj.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.group38.oj.annotation.AuthCheck;
 import com.group38.oj.common.BaseResponse;
 import com.group38.oj.common.ErrorCode;
 import com.group38.oj.common.ResultUtils;
+import com.group38.oj.constant.UserConstant;
 import com.group38.oj.exception.BusinessException;
+import com.group38.oj.judge.JudgeDispatcher;
+import com.group38.oj.judge.JudgeDispatcherStats;
 import com.group38.oj.model.dto.questionsubmit.QuestionSubmitAddRequest;
 import com.group38.oj.model.dto.questionsubmit.QuestionSubmitQueryRequest;
+import com.group38.oj.model.dto.questionsubmit.QuestionSubmitRejudgeRequest;
 import com.group38.oj.model.entity.QuestionSubmit;
 import com.group38.oj.model.entity.User;
 import com.group38.oj.model.vo.QuestionSubmitVO;
@@ -15,6 +20,7 @@ import com.group38.oj.service.QuestionSubmitService;
 import com.group38.oj.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -39,6 +45,9 @@ public class QuestionSubmitController {
     @Autowired
     private QuestionService questionService;
 
+    @Resource
+    private JudgeDispatcher judgeDispatcher;
+
     /**
      * 提交题目
      *
@@ -78,4 +87,31 @@ public class QuestionSubmitController {
         return ResultUtils.success(questionSubmitService.getQuestionSubmitVOPage(questionSubmitPage, loginUser));
     }
 
+    /**
+     * 重判（仅管理员）
+     *
+     * @param questionSubmitRejudgeRequest
+     * @return
+     */
+    @PostMapping("/rejudge")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<Boolean> rejudge(@RequestBody QuestionSubmitRejudgeRequest questionSubmitRejudgeRequest) {
+        if (questionSubmitRejudgeRequest == null || questionSubmitRejudgeRequest.getId() == null
+                || questionSubmitRejudgeRequest.getId() <= 0) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        return ResultUtils.success(questionSubmitService.rejudge(questionSubmitRejudgeRequest.getId()));
+    }
+
+    /**
+     * 判题调度统计（仅管理员）
+     *
+     * @return
+     */
+    @GetMapping("/judge/stats")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<JudgeDispatcherStats> getJudgeStats() {
+        return ResultUtils.success(judgeDispatcher.getStats());
+    }
+
 }
@@ -0,0 +1,85 @@
+package com.group38.oj.controller;
+
+import com.group38.oj.annotation.AuthCheck;
+import com.group38.oj.common.BaseResponse;
+import com.group38.oj.common.ErrorCode;
+import com.group38.oj.common.ResultUtils;
+import com.group38.oj.constant.UserConstant;
+import com.group38.oj.exception.BusinessException;
+import com.group38.oj.judge.sandbox.SandboxNodeRegistry;
+import com.group38.oj.judge.sandbox.SandboxResilienceManager;
+import com.group38.oj.judge.sandbox.model.SandboxNodeStatus;
+import com.group38.oj.judge.sandbox.model.SandboxStats;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+
+/**
+ * 沙箱节点接口
+ */
+@RestController
+@RequestMapping("/sandbox")
+@Slf4j
+public class SandboxController {
+
+    // 沙箱心跳的鉴权请求头
+    private static final String AUTH_REQUEST_HEADER = "auth";
+
+    @Value("${sandbox.heartbeat.secret:secretKey}")
+    private String heartbeatSecret;
+
+    @Value("${sandbox.type:example}")
+    private String type;
+
+    @Resource
+    private SandboxNodeRegistry sandboxNodeRegistry;
+
+    @Resource
+    private SandboxResilienceManager sandboxResilienceManager;
+
+    /**
+     * 沙箱节点心跳
+     *
+     * @param sandboxNodeStatus
+     * @param request
+     * @return
+     */
+    @PostMapping("/heartbeat")
+    public BaseResponse<Boolean> heartbeat(@RequestBody SandboxNodeStatus sandboxNodeStatus, HttpServletRequest request) {
+        if (!heartbeatSecret.equals(request.getHeader(AUTH_REQUEST_HEADER))) {
+            throw new BusinessException(ErrorCode.NO_AUTH_ERROR);
+        }
+        if (sandboxNodeStatus == null || StringUtils.isAnyBlank(sandboxNodeStatus.getNodeId(), sandboxNodeStatus.getUrl())) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR);
+        }
+        sandboxNodeRegistry.heartbeat(sandboxNodeStatus);
+        return ResultUtils.success(true);
+    }
+
+    /**
+     * 在线的沙箱节点（仅管理员）
+     *
+     * @return
+     */
+    @GetMapping("/list")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<List<SandboxNodeStatus>> listSandboxNode() {
+        return ResultUtils.success(sandboxNodeRegistry.listNodes());
+    }
+
+    /**
+     * 沙箱调用统计：调用、重试、对冲次数，耗时分位数和各节点的熔断状态（仅管理员）
+     *
+     * @return
+     */
+    @GetMapping("/stats")
+    @AuthCheck(mustRole = UserConstant.ADMIN_ROLE)
+    public BaseResponse<SandboxStats> getSandboxStats() {
+        return ResultUtils.success(sandboxResilienceManager.getStats(type));
+    }
+}
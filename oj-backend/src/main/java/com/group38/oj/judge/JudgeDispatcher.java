@@ -0,0 +1,236 @@
+package com.group38.oj.judge;
+
+import com.group38.oj.common.ErrorCode;
+import com.group38.oj.config.JudgeDispatcherConfig;
+import com.group38.oj.exception.BusinessException;
+import com.group38.oj.model.entity.QuestionSubmit;
+import com.group38.oj.model.enums.JudgePriorityEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 判题调度器
+ * <p>
+ * 提交按优先级（比赛 > 练习 > 重判）进入持久化的判题队列，各优先级待判题的提交数有上限，超出时直接拒绝；
+ * 每个节点由固定数量的判题线程从队列领取提交判题，不占用公共线程池，增加节点即可增加判题能力；
+ * 判题期间定时续租，并定时收回其他节点宕机后留下的到期租约
+ */
+@Component
+@Slf4j
+public class JudgeDispatcher {
+
+    @Resource
+    private JudgeDispatcherConfig judgeDispatcherConfig;
+
+    @Resource
+    private JudgeQueue judgeQueue;
+
+    @Resource
+    @Lazy
+    private JudgeService judgeService;
+
+    // 本节点有新提交时唤醒空闲的判题线程，否则按间隔重新领取
+    private final Semaphore wakeUp = new Semaphore(0);
+
+    // 正在判题的租约，定时续租
+    private final Map<Long, JudgeLease> leases = new ConcurrentHashMap<>();
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong submitted = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final AtomicLong completed = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong reclaimed = new AtomicLong();
+
+    private final AtomicLong totalWaitTime = new AtomicLong();
+
+    private final AtomicLong maxWaitTime = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < judgeDispatcherConfig.getThreads(); i++) {
+            Thread worker = new Thread(this::work, "judge-worker-" + (i + 1));
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "judge-lease-keeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long renewInterval = Math.max(1, judgeDispatcherConfig.getLeaseTime() / 3);
+        scheduler.scheduleWithFixedDelay(this::renewLeases, renewInterval, renewInterval, TimeUnit.MILLISECONDS);
+        long reclaimInterval = judgeDispatcherConfig.getReclaimInterval();
+        scheduler.scheduleWithFixedDelay(this::reclaimExpired, 0, reclaimInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 新提交判题：先检查队列容量，再以待判题状态插入，插入后即可被领取
+     *
+     * @param questionSubmit 未保存的提交，插入后带上 id
+     * @param priority
+     * @throws BusinessException 该优先级待判题的提交已满
+     */
+    public void submit(QuestionSubmit questionSubmit, JudgePriorityEnum priority) {
+        checkCapacity(priority, 0);
+        if (!judgeQueue.insert(questionSubmit, priority)) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "题目提交失败");
+        }
+        submitted.incrementAndGet();
+        wakeUp.release();
+    }
+
+    /**
+     * 已有的提交重新判题
+     *
+     * @param questionSubmitId
+     * @param priority
+     * @throws BusinessException 该优先级待判题的提交已满，或提交正在判题
+     */
+    public void dispatch(long questionSubmitId, JudgePriorityEnum priority) {
+        checkCapacity(priority, questionSubmitId);
+        if (!judgeQueue.enqueue(questionSubmitId, priority)) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "正在判题中，请勿重复判题");
+        }
+        submitted.incrementAndGet();
+        wakeUp.release();
+    }
+
+    private void checkCapacity(JudgePriorityEnum priority, long excludeId) {
+        if (judgeQueue.countWaiting(priority, excludeId) >= capacity(priority)) {
+            rejected.incrementAndGet();
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "判题繁忙，请稍后重试");
+        }
+    }
+
+    public JudgeDispatcherStats getStats() {
+        JudgeDispatcherStats stats = new JudgeDispatcherStats();
+        stats.setNodeId(judgeQueue.getNodeId());
+        stats.setThreads(workers.size());
+        stats.setInFlight(inFlight.get());
+        Map<String, Integer> laneDepth = judgeQueue.getLaneDepth();
+        stats.setLaneDepth(laneDepth);
+        stats.setQueueDepth(laneDepth.values().stream().mapToInt(Integer::intValue).sum());
+        stats.setOldestWaitTime(judgeQueue.getOldestWaitTime());
+        stats.setSubmittedCount(submitted.get());
+        stats.setRejectedCount(rejected.get());
+        long completedCount = completed.get();
+        stats.setCompletedCount(completedCount);
+        stats.setFailedCount(failed.get());
+        stats.setReclaimedCount(reclaimed.get());
+        long startedCount = completedCount + inFlight.get();
+        stats.setAvgWaitTime(startedCount == 0 ? 0 : totalWaitTime.get() / startedCount);
+        stats.setMaxWaitTime(maxWaitTime.get());
+        return stats;
+    }
+
+    private int capacity(JudgePriorityEnum priority) {
+        return judgeDispatcherConfig.getLaneCapacity()
+                .getOrDefault(priority.getValue(), judgeDispatcherConfig.getDefaultCapacity());
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            JudgeLease judgeLease;
+            try {
+                judgeLease = judgeQueue.lease();
+            } catch (Exception e) {
+                log.error("lease judge task error", e);
+                judgeLease = null;
+            }
+            if (judgeLease == null) {
+                try {
+                    wakeUp.tryAcquire(judgeDispatcherConfig.getPollInterval(), TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                continue;
+            }
+            judge(judgeLease);
+        }
+    }
+
+    private void judge(JudgeLease judgeLease) {
+        long questionSubmitId = judgeLease.getQuestionSubmitId();
+        totalWaitTime.addAndGet(judgeLease.getWaitTime());
+        maxWaitTime.accumulateAndGet(judgeLease.getWaitTime(), Math::max);
+        leases.put(questionSubmitId, judgeLease);
+        inFlight.incrementAndGet();
+        try {
+            judgeService.judge(judgeLease);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.error("judge error, questionSubmitId = {}", questionSubmitId, e);
+            release(judgeLease);
+        } finally {
+            leases.remove(questionSubmitId);
+            inFlight.decrementAndGet();
+            completed.incrementAndGet();
+        }
+    }
+
+    // 归还失败时等租约到期后收回
+    private void release(JudgeLease judgeLease) {
+        try {
+            judgeQueue.release(judgeLease);
+        } catch (Exception e) {
+            log.error("release judge lease error, questionSubmitId = {}", judgeLease.getQuestionSubmitId(), e);
+        }
+    }
+
+    private void renewLeases() {
+        for (JudgeLease judgeLease : leases.values()) {
+            try {
+                if (!judgeQueue.renew(judgeLease)) {
+                    log.warn("judge lease lost, questionSubmitId = {}", judgeLease.getQuestionSubmitId());
+                }
+            } catch (Exception e) {
+                log.error("renew judge lease error, questionSubmitId = {}", judgeLease.getQuestionSubmitId(), e);
+            }
+        }
+    }
+
+    private void reclaimExpired() {
+        try {
+            int count = judgeQueue.reclaimExpired();
+            if (count > 0) {
+                reclaimed.addAndGet(count);
+                log.info("reclaimed {} expired judge leases", count);
+                wakeUp.release(count);
+            }
+        } catch (Exception e) {
+            log.error("reclaim expired judge leases error", e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+        workers.forEach(Thread::interrupt);
+    }
+}
@@ -0,0 +1,50 @@
+package com.group38.oj.judge;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 判题调度统计
+ */
+@Data
+public class JudgeDispatcherStats {
+
+    // 本节点标识
+    private String nodeId;
+
+    // 本节点判题线程数
+    private Integer threads;
+
+    // 本节点正在判题的提交数
+    private Integer inFlight;
+
+    // 排队的提交总数（所有节点共享的队列）
+    private Integer queueDepth;
+
+    // 各优先级排队的提交数
+    private Map<String, Integer> laneDepth;
+
+    // 最早排队的提交已等待的时间(ms)
+    private Long oldestWaitTime;
+
+    // 以下为本节点的统计
+    private Long submittedCount;
+
+    // 队列已满被拒绝的提交数
+    private Long rejectedCount;
+
+    private Long completedCount;
+
+    // 判题过程中抛出异常的提交数
+    private Long failedCount;
+
+    // 租约到期后收回的提交数
+    private Long reclaimedCount;
+
+    // 平均排队时间(ms)
+    private Long avgWaitTime;
+
+    // 最长排队时间(ms)
+    private Long maxWaitTime;
+}
@@ -0,0 +1,19 @@
+package com.group38.oj.judge;
+
+import lombok.Data;
+
+/**
+ * 判题租约
+ */
+@Data
+public class JudgeLease {
+
+    // 提交 id
+    private final long questionSubmitId;
+
+    // 租约标识，完成判题和续租时校验，租约被收回后不再生效
+    private final String leaseOwner;
+
+    // 排队时间(ms)
+    private final long waitTime;
+}
@@ -0,0 +1,189 @@
+package com.group38.oj.judge;
+
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.group38.oj.config.JudgeDispatcherConfig;
+import com.group38.oj.judge.sandbox.model.JudgeInfo;
+import com.group38.oj.mapper.QuestionSubmitMapper;
+import com.group38.oj.model.entity.QuestionSubmit;
+import com.group38.oj.model.enums.JudgeInfoMessageEnum;
+import com.group38.oj.model.enums.JudgePriorityEnum;
+import com.group38.oj.model.enums.QuestionSubmitStatusEnum;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.Resource;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 持久化的判题队列
+ * <p>
+ * 队列就是提交表中待判题的提交，各节点用 select ... for update skip locked 领取并加上有期限的租约，
+ * 互不等待；判题期间定时续租，节点宕机后租约到期，提交自动重新排队
+ */
+@Component
+public class JudgeQueue {
+
+    // 租约标识的前缀：进程号@主机名
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final AtomicLong leaseSequence = new AtomicLong();
+
+    @Resource
+    private QuestionSubmitMapper questionSubmitMapper;
+
+    @Resource
+    private JudgeDispatcherConfig judgeDispatcherConfig;
+
+    /**
+     * 新提交直接以待判题状态写入队列，插入时已带上优先级，进入队列时间取数据库默认值
+     * <p>
+     * 不能先插入再 enqueue：插入后其他节点可能已经领取，enqueue 会把判题中的提交改回待判题
+     *
+     * @param questionSubmit
+     * @param priority
+     * @return 是否插入成功
+     */
+    public boolean insert(QuestionSubmit questionSubmit, JudgePriorityEnum priority) {
+        questionSubmit.setStatus(QuestionSubmitStatusEnum.WAITING.getValue());
+        questionSubmit.setPriority(priority.getLevel());
+        questionSubmit.setAttempts(0);
+        return questionSubmitMapper.insert(questionSubmit) > 0;
+    }
+
+    /**
+     * 已有的提交重新进入队列，清空上一次的判题信息；判题中的提交不重新排队
+     *
+     * @param questionSubmitId
+     * @param priority
+     * @return 提交正在判题时为 false
+     */
+    public boolean enqueue(long questionSubmitId, JudgePriorityEnum priority) {
+        LambdaUpdateWrapper<QuestionSubmit> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.eq(QuestionSubmit::getId, questionSubmitId)
+                .ne(QuestionSubmit::getStatus, QuestionSubmitStatusEnum.RUNNING.getValue())
+                .set(QuestionSubmit::getStatus, QuestionSubmitStatusEnum.WAITING.getValue())
+                .set(QuestionSubmit::getJudgeInfo, "{}")
+                .set(QuestionSubmit::getPriority, priority.getLevel())
+                .set(QuestionSubmit::getLeaseOwner, null)
+                .set(QuestionSubmit::getLeaseExpireTime, null)
+                .set(QuestionSubmit::getAttempts, 0)
+                .setSql("queueTime = now()");
+        return questionSubmitMapper.update(null, updateWrapper) > 0;
+    }
+
+    /**
+     * 该优先级待判题的提交数
+     *
+     * @param priority
+     * @param excludeId 不计入的提交
+     * @return
+     */
+    public long countWaiting(JudgePriorityEnum priority, long excludeId) {
+        LambdaQueryWrapper<QuestionSubmit> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(QuestionSubmit::getStatus, QuestionSubmitStatusEnum.WAITING.getValue())
+                .eq(QuestionSubmit::getPriority, priority.getLevel())
+                .ne(QuestionSubmit::getId, excludeId);
+        return questionSubmitMapper.selectCount(queryWrapper);
+    }
+
+    /**
+     * 领取一条待判题的提交：先取等待超过老化时间的，否则按优先级取
+     *
+     * @return 没有待判题的提交时为 null
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public JudgeLease lease() {
+        QuestionSubmit questionSubmit = questionSubmitMapper.lockAgedWaiting(judgeDispatcherConfig.getAgingThreshold());
+        if (questionSubmit == null) {
+            questionSubmit = questionSubmitMapper.lockWaiting();
+        }
+        if (questionSubmit == null) {
+            return null;
+        }
+        String leaseOwner = nodeId + "#" + leaseSequence.incrementAndGet();
+        if (questionSubmitMapper.lease(questionSubmit.getId(), leaseOwner, judgeDispatcherConfig.getLeaseTime()) == 0) {
+            return null;
+        }
+        long waitTime = questionSubmit.getQueueTime() == null
+                ? 0
+                : Math.max(0, System.currentTimeMillis() - questionSubmit.getQueueTime().getTime());
+        return new JudgeLease(questionSubmit.getId(), leaseOwner, waitTime);
+    }
+
+    /**
+     * 续租
+     *
+     * @param judgeLease
+     * @return 租约已被收回时返回 false
+     */
+    public boolean renew(JudgeLease judgeLease) {
+        return questionSubmitMapper.renewLease(judgeLease.getQuestionSubmitId(), judgeLease.getLeaseOwner(),
+                judgeDispatcherConfig.getLeaseTime()) > 0;
+    }
+
+    /**
+     * 判题出错时归还租约，领取次数未达上限的重新排队
+     *
+     * @param judgeLease
+     */
+    public void release(JudgeLease judgeLease) {
+        questionSubmitMapper.releaseLease(judgeLease.getQuestionSubmitId(), judgeLease.getLeaseOwner(),
+                judgeDispatcherConfig.getMaxAttempts(), getFailedJudgeInfo());
+    }
+
+    /**
+     * 收回到期的租约
+     *
+     * @return 收回的提交数
+     */
+    public int reclaimExpired() {
+        return questionSubmitMapper.reclaimExpiredLeases(judgeDispatcherConfig.getMaxAttempts(), getFailedJudgeInfo());
+    }
+
+    /**
+     * 各优先级待判题的提交数（所有节点）
+     *
+     * @return
+     */
+    public Map<String, Integer> getLaneDepth() {
+        Map<String, Integer> laneDepth = new LinkedHashMap<>();
+        for (JudgePriorityEnum priority : JudgePriorityEnum.values()) {
+            laneDepth.put(priority.getValue(), 0);
+        }
+        List<Map<String, Object>> counts = questionSubmitMapper.countWaitingByPriority();
+        for (Map<String, Object> count : counts) {
+            JudgePriorityEnum priority = JudgePriorityEnum.getEnumByLevel(((Number) count.get("priority")).intValue());
+            if (priority != null) {
+                laneDepth.put(priority.getValue(), ((Number) count.get("total")).intValue());
+            }
+        }
+        return laneDepth;
+    }
+
+    /**
+     * 最早的待判题提交已等待的时间(ms)
+     *
+     * @return
+     */
+    public long getOldestWaitTime() {
+        Long oldestWaitTime = questionSubmitMapper.selectOldestWaitTime();
+        return oldestWaitTime == null ? 0 : oldestWaitTime;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // 多次领取仍未完成判题
+    private String getFailedJudgeInfo() {
+        JudgeInfo judgeInfo = new JudgeInfo();
+        judgeInfo.setMessage(JudgeInfoMessageEnum.SYSTEM_ERROR.getValue());
+        return JSONUtil.toJsonStr(judgeInfo);
+    }
+}
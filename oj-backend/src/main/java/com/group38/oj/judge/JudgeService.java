@@ -5,6 +5,6 @@ import com.group38.oj.model.entity.QuestionSubmit;
 // 判题服务
 public interface JudgeService {
 
-    // 判题
-    QuestionSubmit judge(long questionSubmitId);
+    // 按判题队列发放的租约判题，租约已被收回时不再判题
+    QuestionSubmit judge(JudgeLease judgeLease);
 }
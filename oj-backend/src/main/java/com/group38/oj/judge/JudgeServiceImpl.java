@@ -1,21 +1,26 @@
 package com.group38.oj.judge;
 
 import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.group38.oj.common.ErrorCode;
 import com.group38.oj.exception.BusinessException;
 import com.group38.oj.judge.sandbox.Sandbox;
 import com.group38.oj.judge.sandbox.SandboxFactory;
-import com.group38.oj.judge.sandbox.SandboxProxy;
 import com.group38.oj.judge.sandbox.model.ExecCodeRequest;
 import com.group38.oj.judge.sandbox.model.ExecCodeResponse;
 import com.group38.oj.judge.strategy.JudgeContext;
 import com.group38.oj.model.dto.question.JudgeCase;
+import com.group38.oj.model.dto.question.JudgeConfig;
 import com.group38.oj.judge.sandbox.model.JudgeInfo;
 import com.group38.oj.model.entity.Question;
 import com.group38.oj.model.entity.QuestionSubmit;
+import com.group38.oj.model.enums.JudgePriorityEnum;
+import com.group38.oj.model.enums.QuestionInputModeEnum;
 import com.group38.oj.model.enums.QuestionSubmitStatusEnum;
 import com.group38.oj.service.QuestionService;
 import com.group38.oj.service.QuestionSubmitService;
+import com.group38.oj.utils.OutputDigestUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -26,8 +31,17 @@ import java.util.stream.Collectors;
 @Service
 public class JudgeServiceImpl implements JudgeService {
 
-    @Value("${sandbox.type:example}")
-    private String type;
+    // 练习判题遇错即停，只需要第一个出错的用例；比赛和重判始终返回完整的逐个用例结果
+    @Value("${sandbox.stop-on-first-failure:false}")
+    private boolean stopOnFirstFailure;
+
+    // 沙箱内比对：沙箱边读取输出边比对，只返回逐个用例的判题结果，输出很大时不用传回后端
+    @Value("${sandbox.compare-output:false}")
+    private boolean compareOutput;
+
+    // 沙箱内比对时只发送期望输出的摘要，判题请求的大小与期望输出无关，但沙箱给不出差异片段
+    @Value("${sandbox.compare-by-digest:false}")
+    private boolean compareByDigest;
 
     @Resource
     private QuestionService questionService;
@@ -38,8 +52,12 @@ public class JudgeServiceImpl implements JudgeService {
     @Resource
     private JudgeManager judgeManager;
 
+    @Resource
+    private SandboxFactory sandboxFactory;
+
     @Override
-    public QuestionSubmit judge(long questionSubmitId) {
+    public QuestionSubmit judge(JudgeLease judgeLease) {
+        long questionSubmitId = judgeLease.getQuestionSubmitId();
         // 根据提交ID得到对应的提交信息和题目信息
         QuestionSubmit questionSubmit = questionSubmitService.getById(questionSubmitId);
         if (questionSubmit == null) {
@@ -51,29 +69,46 @@ public class JudgeServiceImpl implements JudgeService {
             throw new BusinessException(ErrorCode.NOT_FOUND_ERROR, "题目不存在");
         }
 
-        if (!questionSubmit.getStatus().equals(QuestionSubmitStatusEnum.WAITING.getValue())) {
-            throw new BusinessException(ErrorCode.OPERATION_ERROR, "正在判题中，请勿重复判题");
+        // 提交由判题队列领取后已经是判题中，且租约仍属于本次领取，完成时再校验一次租约没有被收回
+        if (!questionSubmit.getStatus().equals(QuestionSubmitStatusEnum.RUNNING.getValue())) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "提交未被判题队列领取");
         }
-        QuestionSubmit questionSubmitUpdate = new QuestionSubmit();
-        questionSubmitUpdate.setId(questionSubmitId);
-        questionSubmitUpdate.setStatus(QuestionSubmitStatusEnum.RUNNING.getValue());
-        boolean update = questionSubmitService.updateById(questionSubmitUpdate);
-        if (!update) {
-            throw new BusinessException(ErrorCode.OPERATION_ERROR, "题目状态更新失败");
+        String leaseOwner = judgeLease.getLeaseOwner();
+        if (!leaseOwner.equals(questionSubmit.getLeaseOwner())) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "判题租约已失效");
         }
 
         // 调用代码沙箱，获取输入用例和执行结果
-        Sandbox sandbox = SandboxFactory.newInstance(type);
-        sandbox = new SandboxProxy(sandbox);
+        // 沙箱在启动时按 sandbox.type 创建并套好装饰器，所有判题共用；调用失败时提交由判题队列重新排队
+        Sandbox sandbox = sandboxFactory.getSandbox();
         String judgeCaseStr = question.getJudgeCase();
         List<JudgeCase> list = JSONUtil.toList(judgeCaseStr, JudgeCase.class);
         String code = questionSubmit.getCode();
         String lang = questionSubmit.getLanguage();
         List<String> inputList = list.stream().map(JudgeCase::getInput).collect(Collectors.toList());
+        List<String> expectedOutputList = list.stream().map(JudgeCase::getOutput).collect(Collectors.toList());
+        // 题目未配置输入方式时按命令行参数传入（兼容旧题目）
+        JudgeConfig judgeConfig = JSONUtil.toBean(StringUtils.defaultIfBlank(question.getJudgeConfig(), "{}"), JudgeConfig.class);
+        String inputMode = StringUtils.isBlank(judgeConfig.getInputMode())
+                ? QuestionInputModeEnum.ARGS.getValue()
+                : judgeConfig.getInputMode();
+        boolean sendDigest = compareOutput && compareByDigest;
+        boolean stopOnFirstFailure = this.stopOnFirstFailure
+                && JudgePriorityEnum.getEnumByLevel(questionSubmit.getPriority()) == JudgePriorityEnum.PRACTICE;
+        List<String> expectedOutputDigestList = sendDigest
+                ? expectedOutputList.stream().map(OutputDigestUtils::digest).collect(Collectors.toList())
+                : null;
         ExecCodeRequest execCoderequest = ExecCodeRequest.builder()
                 .code(code)
                 .lang(lang)
                 .inputList(inputList)
+                .inputMode(inputMode)
+                .memoryLimit(judgeConfig.getMemoryLimit())
+                .timeLimit(judgeConfig.getTimeLimit())
+                .stopOnFirstFailure(stopOnFirstFailure)
+                .expectedOutputList(sendDigest ? null : expectedOutputList)
+                .compareOutput(compareOutput)
+                .expectedOutputDigestList(expectedOutputDigestList)
                 .build();
         ExecCodeResponse execCodeResponse = sandbox.execCode(execCoderequest);
         List<String> outputList = execCodeResponse.getOutputList();
@@ -83,20 +118,26 @@ public class JudgeServiceImpl implements JudgeService {
         judgeContext.setJudgeInfo(execCodeResponse.getJudgeInfo());
         judgeContext.setInputList(inputList);
         judgeContext.setOutputList(outputList);
+        judgeContext.setVerdictList(execCodeResponse.getVerdictList());
+        judgeContext.setDiff(execCodeResponse.getDiff());
         judgeContext.setQuestion(question);
         judgeContext.setJudgeCaseList(list);
         judgeContext.setQuestionSubmit(questionSubmit);
 
         JudgeInfo judgeInfo = judgeManager.exec(judgeContext);
 
-        // 更新题目状态
-        questionSubmitUpdate = new QuestionSubmit();
-        questionSubmitUpdate.setId(questionSubmitId);
-        questionSubmitUpdate.setStatus(QuestionSubmitStatusEnum.ACCEPTED.getValue());
-        questionSubmitUpdate.setJudgeInfo(JSONUtil.toJsonStr(judgeInfo));
-        update = questionSubmitService.updateById(questionSubmitUpdate);
+        // 更新题目状态，租约已被收回（如判题超过租约时长）时由重新领取的节点更新
+        LambdaUpdateWrapper<QuestionSubmit> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.eq(QuestionSubmit::getId, questionSubmitId)
+                .eq(QuestionSubmit::getStatus, QuestionSubmitStatusEnum.RUNNING.getValue())
+                .eq(QuestionSubmit::getLeaseOwner, leaseOwner)
+                .set(QuestionSubmit::getStatus, QuestionSubmitStatusEnum.ACCEPTED.getValue())
+                .set(QuestionSubmit::getJudgeInfo, JSONUtil.toJsonStr(judgeInfo))
+                .set(QuestionSubmit::getLeaseOwner, null)
+                .set(QuestionSubmit::getLeaseExpireTime, null);
+        boolean update = questionSubmitService.update(updateWrapper);
         if (!update) {
-            throw new BusinessException(ErrorCode.OPERATION_ERROR, "题目状态更新失败");
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "判题租约已失效");
         }
         return questionSubmitService.getById(questionId);
     }
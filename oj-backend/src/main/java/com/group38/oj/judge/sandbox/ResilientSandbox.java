@@ -0,0 +1,132 @@
+package com.group38.oj.judge.sandbox;
+
+import com.group38.oj.common.ErrorCode;
+import com.group38.oj.config.SandboxResilienceConfig;
+import com.group38.oj.exception.BusinessException;
+import com.group38.oj.judge.sandbox.model.ExecCodeRequest;
+import com.group38.oj.judge.sandbox.model.ExecCodeResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 容错沙箱：在沙箱外层加上有限次数的重试和对冲请求
+ * <p>
+ * 只重试 SandboxCallException（与代码无关的调用失败），执行代码没有副作用，重复调用是安全的；
+ * 开启对冲时，调用超过近期耗时的分位数仍未返回就再发一次，远程沙箱按未完成请求数选节点，对冲请求会落到另一个节点
+ */
+@Slf4j
+public class ResilientSandbox implements Sandbox {
+
+    private final Sandbox sandbox;
+
+    private final SandboxResilienceConfig.Policy policy;
+
+    private final SandboxCallMetrics metrics;
+
+    private final ExecutorService hedgeExecutor;
+
+    public ResilientSandbox(Sandbox sandbox, SandboxResilienceConfig.Policy policy, SandboxCallMetrics metrics,
+                            ExecutorService hedgeExecutor) {
+        this.sandbox = sandbox;
+        this.policy = policy;
+        this.metrics = metrics;
+        this.hedgeExecutor = hedgeExecutor;
+    }
+
+    @Override
+    public ExecCodeResponse execCode(ExecCodeRequest execCoderequest) {
+        metrics.getCalls().incrementAndGet();
+        int maxAttempts = Math.max(1, policy.getMaxAttempts());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                ExecCodeResponse execCodeResponse = policy.isHedge() ? execHedged(execCoderequest) : execTimed(execCoderequest);
+                metrics.getSuccesses().incrementAndGet();
+                return execCodeResponse;
+            } catch (SandboxCallException e) {
+                if (attempt >= maxAttempts) {
+                    metrics.getFailures().incrementAndGet();
+                    throw e;
+                }
+                log.warn("调用沙箱失败，第 {} 次重试：{}", attempt, e.getMessage());
+                metrics.getRetries().incrementAndGet();
+                sleep(policy.getRetryBackoff() * attempt);
+            } catch (RuntimeException e) {
+                metrics.getFailures().incrementAndGet();
+                throw e;
+            }
+        }
+    }
+
+    // 调用沙箱并记录成功调用的耗时
+    private ExecCodeResponse execTimed(ExecCodeRequest execCoderequest) {
+        long start = System.currentTimeMillis();
+        ExecCodeResponse execCodeResponse = sandbox.execCode(execCoderequest);
+        metrics.recordLatency(System.currentTimeMillis() - start);
+        return execCodeResponse;
+    }
+
+    // 先发一次，超过对冲等待时间仍未返回时再发一次，取先成功的结果，另一个取消
+    private ExecCodeResponse execHedged(ExecCodeRequest execCoderequest) {
+        Long hedgeDelay = hedgeDelay();
+        if (hedgeDelay == null) {
+            return execTimed(execCoderequest);
+        }
+        CompletionService<ExecCodeResponse> completionService = new ExecutorCompletionService<>(hedgeExecutor);
+        List<Future<ExecCodeResponse>> futures = new ArrayList<>(2);
+        futures.add(completionService.submit(() -> execTimed(execCoderequest)));
+        try {
+            Future<ExecCodeResponse> done = completionService.poll(hedgeDelay, TimeUnit.MILLISECONDS);
+            if (done == null) {
+                metrics.getHedges().incrementAndGet();
+                futures.add(completionService.submit(() -> execTimed(execCoderequest)));
+            }
+            RuntimeException failure = null;
+            for (int pending = futures.size(); pending > 0; pending--) {
+                if (done == null) {
+                    done = completionService.take();
+                }
+                try {
+                    ExecCodeResponse execCodeResponse = done.get();
+                    if (futures.indexOf(done) > 0) {
+                        metrics.getHedgeWins().incrementAndGet();
+                    }
+                    return execCodeResponse;
+                } catch (ExecutionException e) {
+                    failure = e.getCause() instanceof RuntimeException
+                            ? (RuntimeException) e.getCause()
+                            : new BusinessException(ErrorCode.SYSTEM_ERROR, "调用沙箱错误，" + e.getCause());
+                }
+                done = null;
+            }
+            throw failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "调用沙箱被中断");
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    // 对冲等待时间：近期耗时的分位数，不低于下限；样本不足时不对冲
+    private Long hedgeDelay() {
+        Long latency = metrics.percentile(policy.getHedgePercentile(), policy.getHedgeMinSamples());
+        return latency == null ? null : Math.max(latency, policy.getHedgeMinDelay());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "调用沙箱被中断");
+        }
+    }
+}
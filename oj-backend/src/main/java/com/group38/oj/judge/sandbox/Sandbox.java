@@ -13,4 +13,16 @@ public interface Sandbox {
      * @return
      */
     ExecCodeResponse execCode(ExecCodeRequest execCoderequest);
+
+    /**
+     * 启动：预热连接等，只对 sandbox.type 选中的沙箱调用
+     */
+    default void start() {
+    }
+
+    /**
+     * 停止：等待正在执行的请求结束后释放连接
+     */
+    default void stop() {
+    }
 }
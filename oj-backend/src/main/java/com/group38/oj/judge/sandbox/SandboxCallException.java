@@ -0,0 +1,14 @@
+package com.group38.oj.judge.sandbox;
+
+import com.group38.oj.common.ErrorCode;
+import com.group38.oj.exception.BusinessException;
+
+/**
+ * 调用沙箱失败：连接失败、连接超时、沙箱繁忙等与提交的代码无关的错误，可以换个节点重试；请求超时不属于此类
+ */
+public class SandboxCallException extends BusinessException {
+
+    public SandboxCallException(String message) {
+        super(ErrorCode.SYSTEM_ERROR, message);
+    }
+}
@@ -0,0 +1,65 @@
+package com.group38.oj.judge.sandbox;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一种沙箱的调用统计：调用、重试、对冲次数和近期成功调用的耗时
+ */
+@Getter
+public class SandboxCallMetrics {
+
+    // 保留最近的成功调用耗时个数
+    private static final int WINDOW_SIZE = 200;
+
+    private final AtomicLong calls = new AtomicLong();
+
+    private final AtomicLong successes = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    private final AtomicLong retries = new AtomicLong();
+
+    private final AtomicLong hedges = new AtomicLong();
+
+    private final AtomicLong hedgeWins = new AtomicLong();
+
+    private final long[] latencies = new long[WINDOW_SIZE];
+
+    private int latencyCount;
+
+    private int latencyIndex;
+
+    /**
+     * 记录一次成功调用的耗时
+     *
+     * @param latency
+     */
+    public synchronized void recordLatency(long latency) {
+        latencies[latencyIndex] = latency;
+        latencyIndex = (latencyIndex + 1) % WINDOW_SIZE;
+        latencyCount = Math.min(latencyCount + 1, WINDOW_SIZE);
+    }
+
+    /**
+     * 近期成功调用耗时的分位数(ms)，样本少于 minSamples 时返回 null
+     *
+     * @param percentile
+     * @param minSamples
+     * @return
+     */
+    public Long percentile(int percentile, int minSamples) {
+        long[] sorted;
+        synchronized (this) {
+            if (latencyCount == 0 || latencyCount < minSamples) {
+                return null;
+            }
+            sorted = Arrays.copyOf(latencies, latencyCount);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,15 @@
+package com.group38.oj.judge.sandbox;
+
+// 沙箱装饰器（日志、容错、缓存、限流等），注册为 Bean 后由沙箱工厂在启动时按 @Order 顺序套在沙箱外层
+@FunctionalInterface
+public interface SandboxDecorator {
+
+    /**
+     * 包装沙箱
+     *
+     * @param type    沙箱类型
+     * @param sandbox 内层沙箱
+     * @return
+     */
+    Sandbox decorate(String type, Sandbox sandbox);
+}
@@ -1,28 +1,64 @@
 package com.group38.oj.judge.sandbox;
 
-import com.group38.oj.judge.sandbox.impl.ExampleSandbox;
-import com.group38.oj.judge.sandbox.impl.RemoteSandbox;
-import com.group38.oj.judge.sandbox.impl.ThirdPartySandbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
-// 沙箱工厂（根据字符串参数创建对应的代码沙箱示例）
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.List;
+import java.util.Map;
+
+// 沙箱工厂（启动时按 sandbox.type 选择对应的沙箱 Bean，并按顺序套上装饰器，之后所有判题共用）
+@Component
+@Slf4j
 public class SandboxFactory {
 
+    // 未知类型时使用示例沙箱，与原来的工厂一致
+    private static final String DEFAULT_TYPE = "example";
+
+    @Value("${sandbox.type:example}")
+    private String type;
+
+    // 各沙箱实现，key 为 Bean 名称，即 sandbox.type 的取值
+    @Resource
+    private Map<String, Sandbox> sandboxMap;
+
+    // 按 @Order 从小到大由内向外包装
+    @Resource
+    private List<SandboxDecorator> sandboxDecoratorList;
+
+    private Sandbox target;
+
+    private Sandbox sandbox;
+
+    @PostConstruct
+    public void init() {
+        target = sandboxMap.get(type);
+        if (target == null) {
+            log.warn("未知的沙箱类型 {}，使用 {}", type, DEFAULT_TYPE);
+            target = sandboxMap.get(DEFAULT_TYPE);
+        }
+        target.start();
+        Sandbox decorated = target;
+        for (SandboxDecorator sandboxDecorator : sandboxDecoratorList) {
+            decorated = sandboxDecorator.decorate(type, decorated);
+        }
+        sandbox = decorated;
+    }
+
     /**
-     * 根据字符串参数创建对应的代码沙箱示例
+     * 当前使用的沙箱（已套上装饰器）
      *
-     * @param type
      * @return
      */
-    public static Sandbox newInstance(String type) {
-        switch (type) {
-            case "example":
-                return new ExampleSandbox();
-            case "remote":
-                return new RemoteSandbox();
-            case "third_party":
-                return new ThirdPartySandbox();
-            default:
-                return new ExampleSandbox();
-        }
+    public Sandbox getSandbox() {
+        return sandbox;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        target.stop();
     }
 }
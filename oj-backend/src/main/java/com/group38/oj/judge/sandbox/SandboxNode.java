@@ -0,0 +1,71 @@
+package com.group38.oj.judge.sandbox;
+
+import com.group38.oj.judge.sandbox.model.SandboxNodeStatus;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 远程沙箱节点：本节点发出的未完成请求数和熔断状态
+ */
+@Getter
+public class SandboxNode {
+
+    /**
+     * 熔断状态
+     */
+    public enum CircuitState {
+        // 正常分配请求
+        CLOSED,
+        // 熔断中，不分配请求
+        OPEN,
+        // 熔断到期，只放一个试探请求
+        HALF_OPEN
+    }
+
+    /**
+     * 节点地址
+     */
+    private final String url;
+
+    /**
+     * 本节点发往该沙箱、尚未完成的请求数
+     */
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    /**
+     * 连续失败次数（健康检查或请求出错）
+     */
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * 是否有试探请求尚未返回，期间不再分配其他请求
+     */
+    private final AtomicBoolean probing = new AtomicBoolean();
+
+    private volatile CircuitState circuitState = CircuitState.CLOSED;
+
+    /**
+     * 进入当前熔断状态的时间
+     */
+    private volatile long openedAt;
+
+    /**
+     * 最近一次心跳上报的状态，只在配置中的节点为 null
+     */
+    private volatile SandboxNodeStatus status;
+
+    public SandboxNode(String url) {
+        this.url = url;
+    }
+
+    void setStatus(SandboxNodeStatus status) {
+        this.status = status;
+    }
+
+    void setCircuitState(CircuitState circuitState) {
+        this.circuitState = circuitState;
+        this.openedAt = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,311 @@
+package com.group38.oj.judge.sandbox;
+
+import com.group38.oj.config.SandboxRemoteConfig;
+import com.group38.oj.config.SandboxResilienceConfig;
+import com.group38.oj.judge.sandbox.model.SandboxNodeStats;
+import com.group38.oj.judge.sandbox.model.SandboxNodeStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * 远程沙箱节点池
+ * <p>
+ * 所有远程沙箱请求共用一个 HTTP 客户端（复用长连接，沙箱支持时使用 HTTP/2）；
+ * 节点来自配置的节点列表和心跳注册的节点，按本节点未完成的请求数选择最空闲的可用节点，并定时检查各节点的健康状态；
+ * 每个节点单独熔断，连续失败的节点在熔断期间不再分配请求，到期后放一个试探请求或由健康检查确认恢复
+ */
+@Component
+@Slf4j
+public class SandboxNodePool {
+
+    // 未指定语言时按 java 处理，与沙箱一致
+    private static final String DEFAULT_LANGUAGE = "java";
+
+    // 沙箱的健康检查接口
+    private static final String HEALTH_PATH = "/health";
+
+    // 停止时检查请求是否结束的间隔(ms)
+    private static final long DRAIN_CHECK_INTERVAL = 100L;
+
+    // 熔断策略取远程沙箱类型的配置
+    private static final String REMOTE_TYPE = "remote";
+
+    @Resource
+    private SandboxRemoteConfig sandboxRemoteConfig;
+
+    @Resource
+    private SandboxResilienceConfig sandboxResilienceConfig;
+
+    @Resource
+    private SandboxNodeRegistry sandboxNodeRegistry;
+
+    private final Map<String, SandboxNode> nodes = new ConcurrentHashMap<>();
+
+    private HttpClient httpClient;
+
+    private ScheduledExecutorService healthChecker;
+
+    @PostConstruct
+    public void init() {
+        httpClient = HttpClient.newBuilder()
+                .version(sandboxRemoteConfig.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(sandboxRemoteConfig.getConnectTimeout()))
+                .build();
+    }
+
+    /**
+     * 开始健康检查：先检查一遍各节点并建立连接（预热），之后定时检查
+     */
+    public synchronized void start() {
+        if (healthChecker != null) {
+            return;
+        }
+        try {
+            checkHealth().get(sandboxRemoteConfig.getHealthCheckTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("沙箱节点预热未完成：{}", e.toString());
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sandbox-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = sandboxRemoteConfig.getHealthCheckInterval();
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 停止健康检查，等待发往各节点的请求结束，最多等待 drainTimeout
+     */
+    public synchronized void stop() {
+        destroy();
+        long deadline = System.currentTimeMillis() + sandboxRemoteConfig.getDrainTimeout();
+        while (outstanding() > 0 && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(DRAIN_CHECK_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        int outstanding = outstanding();
+        if (outstanding > 0) {
+            log.warn("停止时仍有 {} 个沙箱请求未完成", outstanding);
+        }
+    }
+
+    /**
+     * 共用的 HTTP 客户端
+     *
+     * @return
+     */
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * 选择支持该语言、未完成请求最少的可用节点并记上这次请求，请求结束后需要调用 release；
+     * 未完成请求数相同时优先选连续失败次数少的节点，重试会换到其他节点
+     *
+     * @param language
+     * @return
+     */
+    public synchronized SandboxNode acquire(String language) {
+        String lang = StringUtils.isBlank(language) ? DEFAULT_LANGUAGE : language;
+        long now = System.currentTimeMillis();
+        Optional<SandboxNode> selected = refreshNodes().stream()
+                .filter(node -> supports(node, lang))
+                .filter(node -> isAvailable(node, now))
+                .min(Comparator.comparingInt((SandboxNode node) -> node.getOutstanding().get())
+                        .thenComparingInt(node -> node.getFailures().get())
+                        .thenComparing(Comparator.comparingInt(SandboxNodePool::available).reversed()));
+        if (!selected.isPresent()) {
+            throw new SandboxCallException("没有可用的沙箱节点，lang = " + lang);
+        }
+        SandboxNode node = selected.get();
+        // 熔断到期的节点这次请求作为试探，结果返回前不再分配其他请求
+        if (node.getCircuitState() != SandboxNode.CircuitState.CLOSED) {
+            node.getProbing().set(true);
+            node.setCircuitState(SandboxNode.CircuitState.HALF_OPEN);
+        }
+        node.getOutstanding().incrementAndGet();
+        return node;
+    }
+
+    /**
+     * 请求结束
+     *
+     * @param node
+     */
+    public void release(SandboxNode node) {
+        node.getOutstanding().decrementAndGet();
+        // 试探请求没有得出成功或失败（如被中断）也要放开，熔断到期后可以再试探
+        node.getProbing().set(false);
+    }
+
+    /**
+     * 节点请求成功或健康检查通过
+     *
+     * @param node
+     */
+    public void markSuccess(SandboxNode node) {
+        node.getFailures().set(0);
+        node.getProbing().set(false);
+        if (node.getCircuitState() != SandboxNode.CircuitState.CLOSED) {
+            node.setCircuitState(SandboxNode.CircuitState.CLOSED);
+            log.info("沙箱节点恢复可用，url = {}", node.getUrl());
+        }
+    }
+
+    /**
+     * 节点请求出错或健康检查失败，连续失败达到阈值后熔断；熔断中或试探失败时重新计算熔断时长
+     *
+     * @param node
+     */
+    public void markFailure(SandboxNode node) {
+        int failures = node.getFailures().incrementAndGet();
+        node.getProbing().set(false);
+        if (node.getCircuitState() != SandboxNode.CircuitState.CLOSED) {
+            node.setCircuitState(SandboxNode.CircuitState.OPEN);
+        } else if (failures >= policy().getFailureThreshold()) {
+            node.setCircuitState(SandboxNode.CircuitState.OPEN);
+            log.warn("沙箱节点熔断，url = {}", node.getUrl());
+        }
+    }
+
+    /**
+     * 各节点的状态
+     *
+     * @return
+     */
+    public List<SandboxNodeStats> getNodeStats() {
+        return refreshNodes().stream().map(node -> {
+            SandboxNodeStats stats = new SandboxNodeStats();
+            stats.setUrl(node.getUrl());
+            stats.setCircuitState(node.getCircuitState().name());
+            stats.setOutstanding(node.getOutstanding().get());
+            stats.setFailures(node.getFailures().get());
+            stats.setHeartbeat(node.getStatus() != null);
+            return stats;
+        }).collect(Collectors.toList());
+    }
+
+    // 合并配置的节点和心跳注册的节点；都没有时使用配置的默认地址。已下线的心跳节点从池中移除
+    private List<SandboxNode> refreshNodes() {
+        Map<String, SandboxNodeStatus> current = new LinkedHashMap<>();
+        for (String url : sandboxRemoteConfig.getNodes()) {
+            current.put(normalize(url), null);
+        }
+        for (SandboxNodeStatus status : sandboxNodeRegistry.listNodes()) {
+            current.put(normalize(status.getUrl()), status);
+        }
+        if (current.isEmpty()) {
+            current.put(normalize(sandboxRemoteConfig.getUrl()), null);
+        }
+        nodes.keySet().retainAll(current.keySet());
+        List<SandboxNode> result = new ArrayList<>(current.size());
+        current.forEach((url, status) -> {
+            SandboxNode node = nodes.computeIfAbsent(url, SandboxNode::new);
+            node.setStatus(status);
+            result.add(node);
+        });
+        return result;
+    }
+
+    // 各节点的健康检查并行发出，互不阻塞；返回全部检查结束的 Future
+    private CompletableFuture<Void> checkHealth() {
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        try {
+            for (SandboxNode node : refreshNodes()) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(node.getUrl() + HEALTH_PATH))
+                        .timeout(Duration.ofMillis(sandboxRemoteConfig.getHealthCheckTimeout()))
+                        .GET()
+                        .build();
+                futures.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, e) -> {
+                            if (e != null || response.statusCode() != 200) {
+                                markFailure(node);
+                            } else if (node.getCircuitState() != SandboxNode.CircuitState.CLOSED
+                                    && isAvailable(node, System.currentTimeMillis())) {
+                                // 熔断中的节点到期后健康检查成功才恢复；未熔断的节点不清零请求失败次数，
+                                // 否则请求持续出错但健康检查正常的节点永远不会熔断
+                                markSuccess(node);
+                            }
+                        }));
+            }
+        } catch (Exception e) {
+            log.error("沙箱节点健康检查出错", e);
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    private int outstanding() {
+        return nodes.values().stream().mapToInt(node -> node.getOutstanding().get()).sum();
+    }
+
+    // 未熔断，或熔断（试探）已到期且没有试探请求未返回
+    private boolean isAvailable(SandboxNode node, long now) {
+        return node.getCircuitState() == SandboxNode.CircuitState.CLOSED
+                || !node.getProbing().get() && now - node.getOpenedAt() >= policy().getOpenDuration();
+    }
+
+    private SandboxResilienceConfig.Policy policy() {
+        return sandboxResilienceConfig.getPolicy(REMOTE_TYPE);
+    }
+
+    private static boolean supports(SandboxNode node, String lang) {
+        SandboxNodeStatus status = node.getStatus();
+        return status == null || status.getLanguages() == null || status.getLanguages().contains(lang);
+    }
+
+    // 心跳上报的余量：空闲的请求名额减去排队的请求数，配置中的节点没有心跳时为 0
+    private static int available(SandboxNode node) {
+        SandboxNodeStatus status = node.getStatus();
+        if (status == null) {
+            return 0;
+        }
+        return valueOf(status.getMaxInFlight()) - valueOf(status.getInFlight()) - valueOf(status.getQueueDepth());
+    }
+
+    private static int valueOf(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private static String normalize(String url) {
+        return StringUtils.removeEnd(StringUtils.trim(url), "/");
+    }
+
+    @PreDestroy
+    public synchronized void destroy() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+            healthChecker = null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.group38.oj.judge.sandbox;
+
+import com.group38.oj.judge.sandbox.model.SandboxNodeStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 沙箱节点注册表
+ * <p>
+ * 沙箱节点定时上报心跳，超过有效期没有心跳的节点视为下线；在线的节点加入远程沙箱节点池
+ */
+@Component
+public class SandboxNodeRegistry {
+
+    @Value("${sandbox.heartbeat.ttl:15000}")
+    private long ttl;
+
+    private final Map<String, SandboxNodeStatus> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * 记录节点心跳
+     *
+     * @param status
+     */
+    public void heartbeat(SandboxNodeStatus status) {
+        status.setLastHeartbeat(System.currentTimeMillis());
+        nodes.put(status.getNodeId(), status);
+    }
+
+    /**
+     * 在线的节点
+     *
+     * @return
+     */
+    public List<SandboxNodeStatus> listNodes() {
+        long expireBefore = System.currentTimeMillis() - ttl;
+        nodes.values().removeIf(node -> node.getLastHeartbeat() < expireBefore);
+        return new ArrayList<>(nodes.values());
+    }
+}
@@ -0,0 +1,84 @@
+package com.group38.oj.judge.sandbox;
+
+import com.group38.oj.config.SandboxResilienceConfig;
+import com.group38.oj.judge.sandbox.model.SandboxStats;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 沙箱调用容错：按 sandbox.type 的策略给沙箱加上重试和对冲，并汇总各类型的调用统计
+ */
+@Component
+public class SandboxResilienceManager {
+
+    @Resource
+    private SandboxResilienceConfig sandboxResilienceConfig;
+
+    @Resource
+    private SandboxNodePool sandboxNodePool;
+
+    private final Map<String, SandboxCallMetrics> metrics = new ConcurrentHashMap<>();
+
+    private final AtomicInteger hedgeThreadCount = new AtomicInteger();
+
+    // 开启对冲时两次调用都在该线程池中执行，线程数随同时判题的提交数伸缩
+    private final ExecutorService hedgeExecutor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "sandbox-hedge-" + hedgeThreadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 按该类型的容错策略包装沙箱
+     *
+     * @param type
+     * @param sandbox
+     * @return
+     */
+    public Sandbox wrap(String type, Sandbox sandbox) {
+        return new ResilientSandbox(sandbox, sandboxResilienceConfig.getPolicy(type), metricsOf(type), hedgeExecutor);
+    }
+
+    /**
+     * 该类型的调用统计和远程沙箱各节点的状态
+     *
+     * @param type
+     * @return
+     */
+    public SandboxStats getStats(String type) {
+        SandboxResilienceConfig.Policy policy = sandboxResilienceConfig.getPolicy(type);
+        SandboxCallMetrics callMetrics = metricsOf(type);
+        SandboxStats stats = new SandboxStats();
+        stats.setType(type);
+        stats.setCallCount(callMetrics.getCalls().get());
+        stats.setSuccessCount(callMetrics.getSuccesses().get());
+        stats.setFailureCount(callMetrics.getFailures().get());
+        stats.setRetryCount(callMetrics.getRetries().get());
+        stats.setHedgeCount(callMetrics.getHedges().get());
+        stats.setHedgeWinCount(callMetrics.getHedgeWins().get());
+        stats.setP50Latency(callMetrics.percentile(50, 1));
+        stats.setP95Latency(callMetrics.percentile(95, 1));
+        Long hedgeLatency = callMetrics.percentile(policy.getHedgePercentile(), policy.getHedgeMinSamples());
+        if (policy.isHedge() && hedgeLatency != null) {
+            stats.setHedgeDelay(Math.max(hedgeLatency, policy.getHedgeMinDelay()));
+        }
+        stats.setNodes(sandboxNodePool.getNodeStats());
+        return stats;
+    }
+
+    private SandboxCallMetrics metricsOf(String type) {
+        return metrics.computeIfAbsent(type, key -> new SandboxCallMetrics());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        hedgeExecutor.shutdownNow();
+    }
+}
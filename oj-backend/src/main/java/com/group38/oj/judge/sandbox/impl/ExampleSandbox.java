@@ -6,10 +6,12 @@ import com.group38.oj.judge.sandbox.model.ExecCodeResponse;
 import com.group38.oj.judge.sandbox.model.JudgeInfo;
 import com.group38.oj.model.enums.JudgeInfoMessageEnum;
 import com.group38.oj.model.enums.QuestionSubmitStatusEnum;
+import org.springframework.stereotype.Component;
 
 import java.util.List;
 
 // 示例沙箱
+@Component("example")
 public class ExampleSandbox implements Sandbox {
     @Override
     public ExecCodeResponse execCode(ExecCodeRequest execCoderequest) {
@@ -25,6 +27,6 @@ public class ExampleSandbox implements Sandbox {
         execCodeResponse.setJudgeInfo(judgeInfo);
         execCodeResponse.setOutputList(inputList);
 
-        return null;
+        return execCodeResponse;
     }
 }
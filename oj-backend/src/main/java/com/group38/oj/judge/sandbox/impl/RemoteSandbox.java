@@ -1,14 +1,99 @@
 package com.group38.oj.judge.sandbox.impl;
 
+import cn.hutool.json.JSONUtil;
+import com.group38.oj.common.ErrorCode;
+import com.group38.oj.config.SandboxRemoteConfig;
+import com.group38.oj.exception.BusinessException;
 import com.group38.oj.judge.sandbox.Sandbox;
+import com.group38.oj.judge.sandbox.SandboxCallException;
+import com.group38.oj.judge.sandbox.SandboxNode;
+import com.group38.oj.judge.sandbox.SandboxNodePool;
 import com.group38.oj.judge.sandbox.model.ExecCodeRequest;
 import com.group38.oj.judge.sandbox.model.ExecCodeResponse;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
 
 // 远程沙箱（调用开发的接口）
+@Component("remote")
 public class RemoteSandbox implements Sandbox {
+
+    private static final String EXEC_CODE_PATH = "/execuCode";
+
+    // 沙箱鉴权失败时的状态码
+    private static final int FORBIDDEN = 403;
+
+    // 沙箱排满时的状态码
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    @Resource
+    private SandboxNodePool sandboxNodePool;
+
+    @Resource
+    private SandboxRemoteConfig sandboxRemoteConfig;
+
+    // 启动时检查一遍各节点，同时建立到各节点的连接，之后定时检查
+    @Override
+    public void start() {
+        sandboxNodePool.start();
+    }
+
+    // 停止健康检查，等待发出的请求结束
+    @Override
+    public void stop() {
+        sandboxNodePool.stop();
+    }
+
     @Override
     public ExecCodeResponse execCode(ExecCodeRequest execCoderequest) {
-        System.out.println("远程沙箱");
-        return null;
+        // 按未完成的请求数选择节点，连接由节点池共用的客户端复用
+        SandboxNode node = sandboxNodePool.acquire(execCoderequest.getLang());
+        String url = node.getUrl() + EXEC_CODE_PATH;
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(sandboxRemoteConfig.getRequestTimeout()))
+                .header(sandboxRemoteConfig.getAuthHeader(), sandboxRemoteConfig.getAuthSecret())
+                .header("Content-Type", "application/json;charset=UTF-8")
+                .POST(HttpRequest.BodyPublishers.ofString(JSONUtil.toJsonStr(execCoderequest)))
+                .build();
+        HttpResponse<String> response;
+        try {
+            response = sandboxNodePool.getHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            // 连接失败或超时计入节点的连续失败次数
+            sandboxNodePool.markFailure(node);
+            // 请求超时时沙箱可能仍在执行，重试会再占满一次超时时间，不重试；连接超时时请求没有发出，可以换个节点重试
+            if (e instanceof HttpTimeoutException && !(e instanceof HttpConnectTimeoutException)) {
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "调用远程沙箱超时，url = " + url);
+            }
+            throw new SandboxCallException("调用远程沙箱错误，url = " + url + "，" + e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "调用远程沙箱被中断，url = " + url);
+        } finally {
+            sandboxNodePool.release(node);
+        }
+        if (response.statusCode() == FORBIDDEN) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "远程沙箱鉴权失败，url = " + url);
+        }
+        // 沙箱排满说明节点繁忙而不是故障，不计入失败次数，换个节点重试
+        if (response.statusCode() == SERVICE_UNAVAILABLE) {
+            throw new SandboxCallException("远程沙箱繁忙，url = " + url);
+        }
+        String responseStr = response.body();
+        if (response.statusCode() != 200 || StringUtils.isBlank(responseStr)) {
+            sandboxNodePool.markFailure(node);
+            throw new SandboxCallException("调用远程沙箱错误，url = " + url + "，status = " + response.statusCode());
+        }
+        sandboxNodePool.markSuccess(node);
+        return JSONUtil.toBean(responseStr, ExecCodeResponse.class);
     }
 }
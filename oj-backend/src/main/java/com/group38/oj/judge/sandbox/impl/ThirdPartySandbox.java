@@ -3,8 +3,10 @@ package com.group38.oj.judge.sandbox.impl;
 import com.group38.oj.judge.sandbox.Sandbox;
 import com.group38.oj.judge.sandbox.model.ExecCodeRequest;
 import com.group38.oj.judge.sandbox.model.ExecCodeResponse;
+import org.springframework.stereotype.Component;
 
 // 远程沙箱（调用第三方的接口）
+@Component("third_party")
 public class ThirdPartySandbox implements Sandbox {
     @Override
     public ExecCodeResponse execCode(ExecCodeRequest execCoderequest) {
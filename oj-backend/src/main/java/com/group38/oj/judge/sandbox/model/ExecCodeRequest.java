@@ -19,4 +19,18 @@ public class ExecCodeRequest {
 
     private List<String> inputList; // 输入列表 <String>
 
+    private String inputMode; // 输入方式 stdin / args，为空时按 args 处理（兼容旧题目）
+
+    private Long memoryLimit; // 内存限制(kb)，为空时不限制
+
+    private Long timeLimit; // CPU 时间限制(ms)，为空时不限制
+
+    private Boolean stopOnFirstFailure; // 遇错即停：第一个用例出错或输出与期望输出不一致后不再执行后面的用例
+
+    private List<String> expectedOutputList; // 期望输出列表 <String>，遇错即停或沙箱内比对时由沙箱逐个用例检查
+
+    private Boolean compareOutput; // 沙箱内比对：沙箱边读取输出边与期望输出比对，只返回逐个用例的判题结果，不返回输出
+
+    private List<String> expectedOutputDigestList; // 期望输出摘要列表 <String>，沙箱内比对时代替期望输出发送
+
 }
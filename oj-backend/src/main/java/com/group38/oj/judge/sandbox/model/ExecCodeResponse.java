@@ -20,7 +20,11 @@ public class ExecCodeResponse {
 
     private JudgeInfo judgeInfo; // 判题信息
 
-    private List<String> outputList; // 输出列表 <String>
+    private List<String> outputList; // 输出列表 <String>，沙箱内比对时为空
+
+    private List<String> verdictList; // 逐个用例的判题结果 <String>，只在沙箱内比对时返回
+
+    private String diff; // 第一个答案错误用例的差异片段，只在沙箱内比对时返回
 
 
 }
@@ -0,0 +1,30 @@
+package com.group38.oj.judge.sandbox.model;
+
+import lombok.Data;
+
+/*
+ * 远程沙箱节点的调用状态
+ */
+@Data
+public class SandboxNodeStats {
+    /*
+     * 节点地址
+     */
+    private String url;
+    /*
+     * 熔断状态 CLOSED / OPEN / HALF_OPEN
+     */
+    private String circuitState;
+    /*
+     * 本节点发往该沙箱、尚未完成的请求数
+     */
+    private Integer outstanding;
+    /*
+     * 连续失败次数
+     */
+    private Integer failures;
+    /*
+     * 是否通过心跳注册
+     */
+    private Boolean heartbeat;
+}
@@ -0,0 +1,72 @@
+package com.group38.oj.judge.sandbox.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/*
+ * 沙箱节点状态（由沙箱节点心跳上报）
+ */
+@Data
+public class SandboxNodeStatus {
+    /*
+     * 节点标识
+     */
+    private String nodeId;
+    /*
+     * 节点地址
+     */
+    private String url;
+    /*
+     * CPU 核数
+     */
+    private Integer cores;
+    /*
+     * 同时执行的用例数上限
+     */
+    private Integer cpuBudget;
+    /*
+     * 正在执行的用例数
+     */
+    private Integer runningCases;
+    /*
+     * 空闲的用例执行槽位数
+     */
+    private Integer freeSlots;
+    /*
+     * 同时执行的请求数上限
+     */
+    private Integer maxInFlight;
+    /*
+     * 正在执行的请求数
+     */
+    private Integer inFlight;
+    /*
+     * 排队等待的请求数
+     */
+    private Integer queueDepth;
+    /*
+     * 排队等待的请求数上限
+     */
+    private Integer queueCapacity;
+    /*
+     * 批量执行中尚未完成的提交数
+     */
+    private Integer batchPending;
+    /*
+     * 缓存的编译结果数
+     */
+    private Integer cachedArtifacts;
+    /*
+     * 支持的编程语言
+     */
+    private List<String> languages;
+    /*
+     * 节点生成状态的时间
+     */
+    private Long timestamp;
+    /*
+     * 后端收到心跳的时间
+     */
+    private Long lastHeartbeat;
+}
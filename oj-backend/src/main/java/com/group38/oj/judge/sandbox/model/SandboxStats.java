@@ -0,0 +1,50 @@
+package com.group38.oj.judge.sandbox.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/*
+ * 沙箱调用统计（本节点）
+ */
+@Data
+public class SandboxStats {
+    /*
+     * 沙箱类型
+     */
+    private String type;
+    /*
+     * 调用次数，重试和对冲不重复计数
+     */
+    private Long callCount;
+    private Long successCount;
+    /*
+     * 重试后仍然失败的调用数
+     */
+    private Long failureCount;
+    /*
+     * 重试次数
+     */
+    private Long retryCount;
+    /*
+     * 对冲请求数
+     */
+    private Long hedgeCount;
+    /*
+     * 对冲请求先返回的次数
+     */
+    private Long hedgeWinCount;
+    /*
+     * 近期成功调用耗时的中位数和 95 分位(ms)
+     */
+    private Long p50Latency;
+    private Long p95Latency;
+    /*
+     * 当前的对冲等待时间(ms)，未开启对冲或样本不足时为空
+     */
+    private Long hedgeDelay;
+    /*
+     * 远程沙箱节点
+     */
+    private List<SandboxNodeStats> nodes;
+}
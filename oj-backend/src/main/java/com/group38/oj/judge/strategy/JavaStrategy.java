@@ -6,6 +6,7 @@ import com.group38.oj.model.dto.question.JudgeConfig;
 import com.group38.oj.judge.sandbox.model.JudgeInfo;
 import com.group38.oj.model.entity.Question;
 import com.group38.oj.model.enums.JudgeInfoMessageEnum;
+import com.group38.oj.utils.OutputDigestUtils;
 
 import java.util.List;
 
@@ -20,6 +21,7 @@ public class JavaStrategy implements JudgeStrategy {
         Long time = judgeInfo.getTime();
         List<String> inputList = judgeContext.getInputList();
         List<String> outputList = judgeContext.getOutputList();
+        List<String> verdictList = judgeContext.getVerdictList();
         Question question = judgeContext.getQuestion();
         List<JudgeCase> list = judgeContext.getJudgeCaseList();
 
@@ -28,32 +30,38 @@ public class JavaStrategy implements JudgeStrategy {
 
         judgeInfoResponse.setMemory(memory);
         judgeInfoResponse.setTime(time);
+        judgeInfoResponse.setWallTime(judgeInfo.getWallTime());
 
-        if (outputList.size() != inputList.size()) {
-            judgeInfoMessageEnum = JudgeInfoMessageEnum.WRONG_ANSWER;
-            judgeInfoResponse.setMessage(judgeInfoMessageEnum.getValue());
+        // 沙箱已经给出的判题结果（如编译错误、输出超限）直接采用
+        JudgeInfoMessageEnum sandboxMessageEnum = JudgeInfoMessageEnum.getEnumByValue(judgeInfo.getMessage());
+        if (sandboxMessageEnum != null && sandboxMessageEnum != JudgeInfoMessageEnum.ACCEPTED) {
+            judgeInfoResponse.setMessage(sandboxMessageEnum.getValue());
             return judgeInfoResponse;
         }
 
-        for (int i = 0; i < list.size(); i++) {
-            if (list.get(i).getOutput().equals(outputList.get(i))) {
-                judgeInfoMessageEnum = JudgeInfoMessageEnum.WRONG_ANSWER;
-                judgeInfoResponse.setMessage(judgeInfoMessageEnum.getValue());
-                return judgeInfoResponse;
-            }
+        // 沙箱内已经比对过输出时只看逐个用例的判题结果，否则逐个比对输出
+        boolean outputAccepted = verdictList != null
+                ? verdictList.size() == inputList.size()
+                && verdictList.stream().allMatch(JudgeInfoMessageEnum.ACCEPTED.getValue()::equals)
+                : outputList.size() == inputList.size() && isOutputAccepted(list, outputList);
+        if (!outputAccepted) {
+            judgeInfoMessageEnum = JudgeInfoMessageEnum.WRONG_ANSWER;
+            judgeInfoResponse.setMessage(judgeInfoMessageEnum.getValue());
+            judgeInfoResponse.setDiff(judgeContext.getDiff());
+            return judgeInfoResponse;
         }
 
         String judgeConfigStr = question.getJudgeConfig();
         JudgeConfig judgeConfig = JSONUtil.toBean(judgeConfigStr, JudgeConfig.class);
 
-        // JAVA 语言判题
-        long JAVA_TIME_LIMIT = 1000L;
-        if (time - JAVA_TIME_LIMIT > judgeConfig.getTimeLimit()) {
+        // 沙箱已经按 java-cpu-overhead 放宽了时间限制，上报的 CPU 时间扣除了该开销，这里不再重复放宽
+        if (time != null && judgeConfig.getTimeLimit() != null && time > judgeConfig.getTimeLimit()) {
             judgeInfoMessageEnum = JudgeInfoMessageEnum.TIME_LIMIT_EXCEEDED;
             judgeInfoResponse.setMessage(judgeInfoMessageEnum.getValue());
             return judgeInfoResponse;
         }
-        if (memory > judgeConfig.getMemoryLimit()) {
+        // 沙箱上报的内存已经扣除 Java 虚拟机自身的开销（执行进程池只统计本次执行的堆内存），直接和限制比较
+        if (memory != null && judgeConfig.getMemoryLimit() != null && memory > judgeConfig.getMemoryLimit()) {
             judgeInfoMessageEnum = JudgeInfoMessageEnum.MEMORY_LIMIT_EXCEEDED;
             judgeInfoResponse.setMessage(judgeInfoMessageEnum.getValue());
             return judgeInfoResponse;
@@ -62,4 +70,17 @@ public class JavaStrategy implements JudgeStrategy {
         judgeInfoResponse.setMessage(judgeInfoMessageEnum.getValue());
         return judgeInfoResponse;
     }
+
+    // 逐个用例比对输出
+    private boolean isOutputAccepted(List<JudgeCase> list, List<String> outputList) {
+        for (int i = 0; i < list.size(); i++) {
+            // 两边按沙箱内比对的规则规范化，判题结果不因是否在沙箱内比对而不同
+            String output = outputList.get(i);
+            if (output == null
+                    || !OutputDigestUtils.normalize(list.get(i).getOutput()).equals(OutputDigestUtils.normalize(output))) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
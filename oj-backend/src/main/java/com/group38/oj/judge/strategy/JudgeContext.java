@@ -18,6 +18,12 @@ public class JudgeContext {
 
     private List<String> outputList;
 
+    // 沙箱内比对时逐个用例的判题结果，为空时按输出列表比对
+    private List<String> verdictList;
+
+    // 沙箱内比对时第一个答案错误用例的差异片段
+    private String diff;
+
     private Question question;
 
     private QuestionSubmit questionSubmit;
@@ -2,6 +2,10 @@ package com.group38.oj.mapper;
 
 import com.group38.oj.model.entity.QuestionSubmit;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+import java.util.Map;
 
 /**
  * @author 16646
@@ -11,6 +15,75 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
  */
 public interface QuestionSubmitMapper extends BaseMapper<QuestionSubmit> {
 
+    /**
+     * 锁定等待超过老化时间的最早一条待判题提交，已被其他节点锁定的跳过
+     *
+     * @param agingThreshold 老化时间(ms)
+     * @return 只有 id 和进入队列时间，没有时为 null
+     */
+    QuestionSubmit lockAgedWaiting(@Param("agingThreshold") long agingThreshold);
+
+    /**
+     * 按优先级锁定一条待判题提交，已被其他节点锁定的跳过
+     *
+     * @return 只有 id 和进入队列时间，没有时为 null
+     */
+    QuestionSubmit lockWaiting();
+
+    /**
+     * 领取已锁定的待判题提交
+     *
+     * @param id
+     * @param leaseOwner 租约标识
+     * @param leaseTime  租约时长(ms)
+     * @return
+     */
+    int lease(@Param("id") long id, @Param("leaseOwner") String leaseOwner, @Param("leaseTime") long leaseTime);
+
+    /**
+     * 续租，租约已被收回时不更新
+     *
+     * @param id
+     * @param leaseOwner
+     * @param leaseTime
+     * @return
+     */
+    int renewLease(@Param("id") long id, @Param("leaseOwner") String leaseOwner, @Param("leaseTime") long leaseTime);
+
+    /**
+     * 归还租约：领取次数未达上限的重新排队，否则判为失败
+     *
+     * @param id
+     * @param leaseOwner
+     * @param maxAttempts
+     * @param judgeInfo   判为失败时的判题信息
+     * @return
+     */
+    int releaseLease(@Param("id") long id, @Param("leaseOwner") String leaseOwner,
+                     @Param("maxAttempts") int maxAttempts, @Param("judgeInfo") String judgeInfo);
+
+    /**
+     * 收回到期的租约：领取次数未达上限的重新排队，否则判为失败
+     *
+     * @param maxAttempts
+     * @param judgeInfo   判为失败时的判题信息
+     * @return
+     */
+    int reclaimExpiredLeases(@Param("maxAttempts") int maxAttempts, @Param("judgeInfo") String judgeInfo);
+
+    /**
+     * 各优先级待判题的提交数
+     *
+     * @return priority、total
+     */
+    List<Map<String, Object>> countWaitingByPriority();
+
+    /**
+     * 最早的待判题提交已等待的时间(ms)，没有时为 null
+     *
+     * @return
+     */
+    Long selectOldestWaitTime();
 }
 
 
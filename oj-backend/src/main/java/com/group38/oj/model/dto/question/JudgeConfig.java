@@ -19,4 +19,8 @@ public class JudgeConfig {
      * 堆栈限制(kb)
      */
     private Long stackLimit;
+    /*
+     * 输入方式 stdin / args，为空时按 args 处理（兼容旧题目）
+     */
+    private String inputMode;
 }
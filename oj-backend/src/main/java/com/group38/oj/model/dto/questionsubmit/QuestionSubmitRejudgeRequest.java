@@ -0,0 +1,19 @@
+package com.group38.oj.model.dto.questionsubmit;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 重判请求
+ */
+@Data
+public class QuestionSubmitRejudgeRequest implements Serializable {
+
+    /**
+     * 提交记录 id
+     */
+    private Long id;
+
+    private static final long serialVersionUID = 1L;
+}
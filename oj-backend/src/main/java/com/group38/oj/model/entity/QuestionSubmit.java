@@ -51,6 +51,31 @@ public class QuestionSubmit implements Serializable {
      */
     private Long userId;
 
+    /**
+     * 判题优先级（0 - 比赛、1 - 练习、2 - 重判）
+     */
+    private Integer priority;
+
+    /**
+     * 进入判题队列时间
+     */
+    private Date queueTime;
+
+    /**
+     * 领取判题的节点
+     */
+    private String leaseOwner;
+
+    /**
+     * 判题租约到期时间，到期未完成的重新排队
+     */
+    private Date leaseExpireTime;
+
+    /**
+     * 领取次数
+     */
+    private Integer attempts;
+
     /**
      * 创建时间
      */
@@ -0,0 +1,87 @@
+package com.group38.oj.model.enums;
+
+import org.apache.commons.lang3.ObjectUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 判题优先级，level 越小越先判题
+ */
+public enum JudgePriorityEnum {
+
+    CONTEST("比赛", "contest", 0),
+    PRACTICE("练习", "practice", 1),
+    REJUDGE("重判", "rejudge", 2);
+
+    private final String text;
+
+    private final String value;
+
+    // 存入提交记录的优先级
+    private final int level;
+
+    JudgePriorityEnum(String text, String value, int level) {
+        this.text = text;
+        this.value = value;
+        this.level = level;
+    }
+
+    /**
+     * 获取值列表
+     *
+     * @return
+     */
+    public static List<String> getValues() {
+        return Arrays.stream(values()).map(item -> item.value).collect(Collectors.toList());
+    }
+
+    /**
+     * 根据 value 获取枚举
+     *
+     * @param value
+     * @return
+     */
+    public static JudgePriorityEnum getEnumByValue(String value) {
+        if (ObjectUtils.isEmpty(value)) {
+            return null;
+        }
+        for (JudgePriorityEnum anEnum : JudgePriorityEnum.values()) {
+            if (anEnum.value.equals(value)) {
+                return anEnum;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 根据 level 获取枚举
+     *
+     * @param level
+     * @return
+     */
+    public static JudgePriorityEnum getEnumByLevel(Integer level) {
+        if (ObjectUtils.isEmpty(level)) {
+            return null;
+        }
+        for (JudgePriorityEnum anEnum : JudgePriorityEnum.values()) {
+            if (anEnum.level == level) {
+                return anEnum;
+            }
+        }
+        return null;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public String getText() {
+        return text;
+    }
+}
@@ -12,6 +12,7 @@ import java.util.stream.Collectors;
 public enum QuestionSubmitLanguageEnum {
 
     JAVA("java", "java"),
+    C("c", "c"),
     CPLUSPLUS("cpp", "cpp"),
     GOLANG("go", "go"),
     PYTHON("python", "python");
@@ -30,6 +30,14 @@ public interface QuestionSubmitService extends IService<QuestionSubmit> {
      */
     long doQuestionSubmit(QuestionSubmitAddRequest questionSubmitAddRequest, User loginUser);
 
+    /**
+     * 重判，按最低优先级排队
+     *
+     * @param questionSubmitId
+     * @return
+     */
+    boolean rejudge(long questionSubmitId);
+
 
     /**
      * 获取查询条件
@@ -7,13 +7,14 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.group38.oj.common.ErrorCode;
 import com.group38.oj.constant.CommonConstant;
 import com.group38.oj.exception.BusinessException;
-import com.group38.oj.judge.JudgeService;
+import com.group38.oj.judge.JudgeDispatcher;
 import com.group38.oj.mapper.QuestionSubmitMapper;
 import com.group38.oj.model.dto.questionsubmit.QuestionSubmitAddRequest;
 import com.group38.oj.model.dto.questionsubmit.QuestionSubmitQueryRequest;
 import com.group38.oj.model.entity.Question;
 import com.group38.oj.model.entity.QuestionSubmit;
 import com.group38.oj.model.entity.User;
+import com.group38.oj.model.enums.JudgePriorityEnum;
 import com.group38.oj.model.enums.QuestionSubmitLanguageEnum;
 import com.group38.oj.model.enums.QuestionSubmitStatusEnum;
 import com.group38.oj.model.vo.QuestionSubmitVO;
@@ -28,7 +29,6 @@ import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -48,7 +48,7 @@ public class QuestionSubmitServiceImpl extends ServiceImpl<QuestionSubmitMapper,
 
     @Resource
     @Lazy
-    private JudgeService judgeService;
+    private JudgeDispatcher judgeDispatcher;
 
     /**
      * 题目提交
@@ -79,19 +79,34 @@ public class QuestionSubmitServiceImpl extends ServiceImpl<QuestionSubmitMapper,
         questionSubmit.setQuestionId(questionId);
         questionSubmit.setLanguage(language);
         questionSubmit.setCode(questionSubmitAddRequest.getCode());
-        // 设置初始状态
-        questionSubmit.setStatus(QuestionSubmitStatusEnum.WAITING.getValue());
         questionSubmit.setJudgeInfo("{}");
-        boolean save = this.save(questionSubmit);
-        if (!save) {
-            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "题目提交失败");
-        }
-        CompletableFuture.runAsync(() -> {
-            judgeService.judge(questionSubmit.getId());
-        });
+        // 以待判题状态直接写入判题队列，队列已满时不保存，由用户稍后重新提交
+        judgeDispatcher.submit(questionSubmit, JudgePriorityEnum.PRACTICE);
         return questionSubmit.getId();
     }
 
+    /**
+     * 重判
+     *
+     * @param questionSubmitId
+     * @return
+     */
+    @Override
+    public boolean rejudge(long questionSubmitId) {
+        QuestionSubmit questionSubmit = this.getById(questionSubmitId);
+        if (questionSubmit == null) {
+            throw new BusinessException(ErrorCode.NOT_FOUND_ERROR, "提交记录不存在");
+        }
+        Integer status = questionSubmit.getStatus();
+        if (!QuestionSubmitStatusEnum.ACCEPTED.getValue().equals(status)
+                && !QuestionSubmitStatusEnum.REJECTED.getValue().equals(status)) {
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "正在判题中，请勿重复判题");
+        }
+        // 重新进入判题队列，队列已满时保留原来的判题结果
+        judgeDispatcher.dispatch(questionSubmitId, JudgePriorityEnum.REJUDGE);
+        return true;
+    }
+
     /**
      * 获取查询包装类(用户可能同某些字段查询)
      *
@@ -0,0 +1,38 @@
+package com.group38.oj.utils;
+
+import cn.hutool.crypto.digest.DigestUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 期望输出摘要工具类（与代码沙箱的规范化规则保持一致）
+ */
+public class OutputDigestUtils {
+
+    /**
+     * 规范化输出：去掉每行末尾的空白（含 \r）和末尾的空行，按 \n 连接
+     *
+     * @param output
+     * @return
+     */
+    public static String normalize(String output) {
+        List<String> lines = new ArrayList<>(Arrays.asList(output.split("\n", -1)));
+        lines.replaceAll(line -> line.replaceAll("[ \t\r]+$", ""));
+        while (!lines.isEmpty() && lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+        return String.join("\n", lines);
+    }
+
+    /**
+     * 期望输出摘要：规范化后 UTF-8 编码的 SHA-256（十六进制）
+     *
+     * @param output
+     * @return
+     */
+    public static String digest(String output) {
+        return DigestUtil.sha256Hex(normalize(output));
+    }
+}
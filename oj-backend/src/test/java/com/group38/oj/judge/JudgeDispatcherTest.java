@@ -0,0 +1,190 @@
+package com.group38.oj.judge;
+
+import com.group38.oj.config.JudgeDispatcherConfig;
+import com.group38.oj.exception.BusinessException;
+import com.group38.oj.model.entity.QuestionSubmit;
+import com.group38.oj.model.enums.JudgePriorityEnum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class JudgeDispatcherTest {
+
+    @Test
+    void rejectWhenLaneFull() {
+        JudgeDispatcherConfig config = new JudgeDispatcherConfig();
+        config.setThreads(0);
+        config.getLaneCapacity().put(JudgePriorityEnum.REJUDGE.getValue(), 1);
+        MemoryJudgeQueue judgeQueue = new MemoryJudgeQueue();
+        JudgeDispatcher judgeDispatcher = newDispatcher(config, judgeQueue, judgeLease -> null);
+        judgeDispatcher.dispatch(1, JudgePriorityEnum.REJUDGE);
+        //重判队列已满，其他优先级不受影响
+        Assertions.assertThrows(BusinessException.class, () -> judgeDispatcher.dispatch(2, JudgePriorityEnum.REJUDGE));
+        judgeDispatcher.dispatch(3, JudgePriorityEnum.PRACTICE);
+        Assertions.assertEquals(1, judgeDispatcher.getStats().getRejectedCount());
+        Assertions.assertEquals(2, judgeDispatcher.getStats().getSubmittedCount());
+        Assertions.assertEquals(1, judgeDispatcher.getStats().getLaneDepth().get(JudgePriorityEnum.REJUDGE.getValue()));
+        judgeDispatcher.destroy();
+    }
+
+    @Test
+    void submitNewAndSkipRunning() throws Exception {
+        JudgeDispatcherConfig config = new JudgeDispatcherConfig();
+        config.setThreads(1);
+        config.getLaneCapacity().put(JudgePriorityEnum.PRACTICE.getValue(), 1);
+        MemoryJudgeQueue judgeQueue = new MemoryJudgeQueue();
+        CountDownLatch started = new CountDownLatch(1);
+        JudgeDispatcher judgeDispatcher = newDispatcher(config, judgeQueue, judgeLease -> {
+            started.countDown();
+            return sleep(300);
+        });
+        //新提交插入时已是待判题，不再经过 enqueue
+        QuestionSubmit questionSubmit = new QuestionSubmit();
+        questionSubmit.setId(1L);
+        judgeDispatcher.submit(questionSubmit, JudgePriorityEnum.PRACTICE);
+        Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+        //判题中的提交不能重新排队
+        Assertions.assertThrows(BusinessException.class, () -> judgeDispatcher.dispatch(1, JudgePriorityEnum.REJUDGE));
+        //队列已满时新提交不插入
+        QuestionSubmit full = new QuestionSubmit();
+        full.setId(2L);
+        judgeDispatcher.dispatch(3, JudgePriorityEnum.PRACTICE);
+        Assertions.assertThrows(BusinessException.class, () -> judgeDispatcher.submit(full, JudgePriorityEnum.PRACTICE));
+        Assertions.assertEquals(1, judgeDispatcher.getStats().getLaneDepth().get(JudgePriorityEnum.PRACTICE.getValue()));
+        judgeDispatcher.destroy();
+    }
+
+    @Test
+    void judgeLeasedSubmits() throws Exception {
+        JudgeDispatcherConfig config = new JudgeDispatcherConfig();
+        config.setThreads(1);
+        config.setLeaseTime(150);
+        MemoryJudgeQueue judgeQueue = new MemoryJudgeQueue();
+        List<Long> judged = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(2);
+        JudgeDispatcher judgeDispatcher = newDispatcher(config, judgeQueue, judgeLease -> {
+            long questionSubmitId = judgeLease.getQuestionSubmitId();
+            judged.add(questionSubmitId);
+            done.countDown();
+            if (questionSubmitId == 1) {
+                //判题时间超过租约时长，期间续租
+                sleep(300);
+                return null;
+            }
+            throw new IllegalStateException("sandbox error");
+        });
+        judgeDispatcher.dispatch(1, JudgePriorityEnum.PRACTICE);
+        judgeDispatcher.dispatch(2, JudgePriorityEnum.PRACTICE);
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        sleep(100);
+        Assertions.assertEquals(List.of(1L, 2L), judged);
+        Assertions.assertTrue(judgeQueue.renewed.contains(1L));
+        //判题出错的归还租约，由队列决定是否重新排队
+        Assertions.assertEquals(List.of(2L), judgeQueue.released);
+        JudgeDispatcherStats stats = judgeDispatcher.getStats();
+        Assertions.assertEquals(2, stats.getCompletedCount());
+        Assertions.assertEquals(1, stats.getFailedCount());
+        Assertions.assertEquals(0, stats.getInFlight());
+        judgeDispatcher.destroy();
+    }
+
+    private JudgeDispatcher newDispatcher(JudgeDispatcherConfig config, JudgeQueue judgeQueue, JudgeService judgeService) {
+        JudgeDispatcher judgeDispatcher = new JudgeDispatcher();
+        ReflectionTestUtils.setField(judgeDispatcher, "judgeDispatcherConfig", config);
+        ReflectionTestUtils.setField(judgeDispatcher, "judgeQueue", judgeQueue);
+        ReflectionTestUtils.setField(judgeDispatcher, "judgeService", judgeService);
+        judgeDispatcher.init();
+        return judgeDispatcher;
+    }
+
+    private static QuestionSubmit sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    //内存中的判题队列，代替提交表
+    private static class MemoryJudgeQueue extends JudgeQueue {
+
+        private final Deque<long[]> waiting = new ArrayDeque<>();
+
+        private final List<Long> renewed = Collections.synchronizedList(new ArrayList<>());
+
+        private final List<Long> released = Collections.synchronizedList(new ArrayList<>());
+
+        private final List<Long> running = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public synchronized boolean insert(QuestionSubmit questionSubmit, JudgePriorityEnum priority) {
+            waiting.addLast(new long[]{questionSubmit.getId(), priority.getLevel()});
+            return true;
+        }
+
+        @Override
+        public synchronized boolean enqueue(long questionSubmitId, JudgePriorityEnum priority) {
+            if (running.contains(questionSubmitId)) {
+                return false;
+            }
+            waiting.addLast(new long[]{questionSubmitId, priority.getLevel()});
+            return true;
+        }
+
+        @Override
+        public synchronized long countWaiting(JudgePriorityEnum priority, long excludeId) {
+            return waiting.stream().filter(item -> item[1] == priority.getLevel() && item[0] != excludeId).count();
+        }
+
+        @Override
+        public synchronized JudgeLease lease() {
+            long[] item = waiting.pollFirst();
+            if (item == null) {
+                return null;
+            }
+            running.add(item[0]);
+            return new JudgeLease(item[0], "test#" + item[0], 0);
+        }
+
+        @Override
+        public boolean renew(JudgeLease judgeLease) {
+            renewed.add(judgeLease.getQuestionSubmitId());
+            return true;
+        }
+
+        @Override
+        public void release(JudgeLease judgeLease) {
+            released.add(judgeLease.getQuestionSubmitId());
+        }
+
+        @Override
+        public int reclaimExpired() {
+            return 0;
+        }
+
+        @Override
+        public synchronized Map<String, Integer> getLaneDepth() {
+            Map<String, Integer> laneDepth = new LinkedHashMap<>();
+            for (JudgePriorityEnum priority : JudgePriorityEnum.values()) {
+                laneDepth.put(priority.getValue(), (int) countWaiting(priority, 0));
+            }
+            return laneDepth;
+        }
+
+        @Override
+        public long getOldestWaitTime() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.group38.oj.judge.sandbox;
+
+import com.group38.oj.common.ErrorCode;
+import com.group38.oj.config.SandboxResilienceConfig;
+import com.group38.oj.exception.BusinessException;
+import com.group38.oj.judge.sandbox.model.ExecCodeRequest;
+import com.group38.oj.judge.sandbox.model.ExecCodeResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class ResilientSandboxTest {
+
+    private final ExecutorService hedgeExecutor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    @Test
+    void retryCallFailure() {
+        SandboxResilienceConfig.Policy policy = newPolicy();
+        policy.setMaxAttempts(3);
+        SandboxCallMetrics metrics = new SandboxCallMetrics();
+        AtomicInteger calls = new AtomicInteger();
+        Sandbox sandbox = new ResilientSandbox(request -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new SandboxCallException("connect timed out");
+            }
+            return new ExecCodeResponse();
+        }, policy, metrics, hedgeExecutor);
+        Assertions.assertNotNull(sandbox.execCode(new ExecCodeRequest()));
+        Assertions.assertEquals(3, calls.get());
+        Assertions.assertEquals(2, metrics.getRetries().get());
+        Assertions.assertEquals(1, metrics.getSuccesses().get());
+
+        //重试次数用完后抛出最后一次的错误
+        calls.set(-10);
+        Assertions.assertThrows(SandboxCallException.class, () -> sandbox.execCode(new ExecCodeRequest()));
+        Assertions.assertEquals(1, metrics.getFailures().get());
+    }
+
+    @Test
+    void noRetryOtherFailure() {
+        SandboxCallMetrics metrics = new SandboxCallMetrics();
+        AtomicInteger calls = new AtomicInteger();
+        Sandbox sandbox = new ResilientSandbox(request -> {
+            calls.incrementAndGet();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "远程沙箱鉴权失败");
+        }, newPolicy(), metrics, hedgeExecutor);
+        Assertions.assertThrows(BusinessException.class, () -> sandbox.execCode(new ExecCodeRequest()));
+        Assertions.assertEquals(1, calls.get());
+        Assertions.assertEquals(0, metrics.getRetries().get());
+    }
+
+    @Test
+    void hedgeSlowCall() {
+        SandboxResilienceConfig.Policy policy = newPolicy();
+        policy.setHedge(true);
+        policy.setHedgeMinDelay(50);
+        policy.setHedgeMinSamples(5);
+        SandboxCallMetrics metrics = new SandboxCallMetrics();
+        AtomicInteger calls = new AtomicInteger();
+        Sandbox sandbox = new ResilientSandbox(request -> {
+            //第 6 次调用很慢，对冲请求先返回
+            if (calls.incrementAndGet() == 6) {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new ExecCodeResponse();
+        }, policy, metrics, hedgeExecutor);
+        //样本不足时不对冲
+        for (int i = 0; i < 5; i++) {
+            sandbox.execCode(new ExecCodeRequest());
+        }
+        Assertions.assertEquals(0, metrics.getHedges().get());
+        long start = System.currentTimeMillis();
+        Assertions.assertNotNull(sandbox.execCode(new ExecCodeRequest()));
+        Assertions.assertTrue(System.currentTimeMillis() - start < 2000);
+        Assertions.assertEquals(7, calls.get());
+        Assertions.assertEquals(1, metrics.getHedges().get());
+        Assertions.assertEquals(1, metrics.getHedgeWins().get());
+    }
+
+    private SandboxResilienceConfig.Policy newPolicy() {
+        SandboxResilienceConfig.Policy policy = new SandboxResilienceConfig.Policy();
+        policy.setRetryBackoff(10);
+        return policy;
+    }
+}
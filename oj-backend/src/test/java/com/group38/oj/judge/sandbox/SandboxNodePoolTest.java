@@ -0,0 +1,196 @@
+package com.group38.oj.judge.sandbox;
+
+import com.group38.oj.config.SandboxRemoteConfig;
+import com.group38.oj.config.SandboxResilienceConfig;
+import com.group38.oj.judge.sandbox.model.SandboxNodeStatus;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+class SandboxNodePoolTest {
+
+    @Test
+    void acquireLeastOutstanding() {
+        SandboxRemoteConfig config = new SandboxRemoteConfig();
+        config.setNodes(List.of("http://a:8090/", "http://b:8090"));
+        SandboxNodeRegistry registry = newRegistry();
+        //只支持 cpp 的节点不会分到 java 请求
+        SandboxNodeStatus status = new SandboxNodeStatus();
+        status.setNodeId("c");
+        status.setUrl("http://c:8090");
+        status.setLanguages(List.of("cpp"));
+        registry.heartbeat(status);
+        SandboxNodePool pool = newPool(config, new SandboxResilienceConfig(), registry);
+
+        SandboxNode a = pool.acquire("java");
+        SandboxNode b = pool.acquire("java");
+        Assertions.assertEquals("http://a:8090", a.getUrl());
+        Assertions.assertEquals("http://b:8090", b.getUrl());
+        pool.acquire("java");
+        pool.release(b);
+        Assertions.assertSame(b, pool.acquire(null));
+        Assertions.assertEquals("http://c:8090", pool.acquire("cpp").getUrl());
+        pool.destroy();
+    }
+
+    @Test
+    void skipUnhealthyNode() throws Exception {
+        HttpServer healthy = newServer(200);
+        HttpServer broken = newServer(500);
+        try {
+            SandboxRemoteConfig config = new SandboxRemoteConfig();
+            config.setNodes(List.of(urlOf(broken), urlOf(healthy)));
+            config.setHealthCheckInterval(50);
+            SandboxResilienceConfig resilienceConfig = newResilienceConfig(1, 60000);
+            SandboxNodePool pool = newPool(config, resilienceConfig, newRegistry());
+            //启动时先检查一遍，故障节点立即熔断
+            pool.start();
+            for (int i = 0; i < 3; i++) {
+                SandboxNode node = pool.acquire("java");
+                Assertions.assertEquals(urlOf(healthy), node.getUrl());
+                pool.release(node);
+            }
+            //节点全部熔断时不再分配请求
+            healthy.stop(0);
+            Thread.sleep(500);
+            Assertions.assertThrows(SandboxCallException.class, () -> pool.acquire("java"));
+            pool.stop();
+        } finally {
+            healthy.stop(0);
+            broken.stop(0);
+        }
+    }
+
+    @Test
+    void healthCheckKeepsRequestFailures() throws Exception {
+        HttpServer healthy = newServer(200);
+        try {
+            SandboxRemoteConfig config = new SandboxRemoteConfig();
+            config.setNodes(List.of(urlOf(healthy)));
+            config.setHealthCheckInterval(50);
+            SandboxNodePool pool = newPool(config, newResilienceConfig(3, 60000), newRegistry());
+            pool.start();
+            SandboxNode node = pool.acquire("java");
+            pool.release(node);
+            pool.markFailure(node);
+            pool.markFailure(node);
+            //健康检查成功不清零未熔断节点的请求失败次数
+            Thread.sleep(300);
+            Assertions.assertEquals(2, node.getFailures().get());
+            pool.markFailure(node);
+            Assertions.assertEquals(SandboxNode.CircuitState.OPEN, node.getCircuitState());
+            //熔断未到期时健康检查成功也不恢复
+            Thread.sleep(300);
+            Assertions.assertEquals(SandboxNode.CircuitState.OPEN, node.getCircuitState());
+            pool.stop();
+        } finally {
+            healthy.stop(0);
+        }
+    }
+
+    @Test
+    void halfOpenAfterOpenDuration() throws Exception {
+        SandboxRemoteConfig config = new SandboxRemoteConfig();
+        config.setNodes(List.of("http://a:8090", "http://b:8090"));
+        config.setHealthCheckInterval(60000);
+        SandboxNodePool pool = newPool(config, newResilienceConfig(2, 200), newRegistry());
+        SandboxNode a = pool.acquire("java");
+        pool.release(a);
+        pool.markFailure(a);
+        Assertions.assertEquals(SandboxNode.CircuitState.CLOSED, a.getCircuitState());
+        pool.markFailure(a);
+        Assertions.assertEquals(SandboxNode.CircuitState.OPEN, a.getCircuitState());
+        //熔断期间请求都分给另一个节点
+        Assertions.assertEquals("http://b:8090", pool.acquire("java").getUrl());
+        Assertions.assertEquals("http://b:8090", pool.acquire("java").getUrl());
+        Thread.sleep(300);
+        //到期后放一个试探请求，试探失败重新熔断
+        Assertions.assertSame(a, pool.acquire("java"));
+        Assertions.assertEquals(SandboxNode.CircuitState.HALF_OPEN, a.getCircuitState());
+        Assertions.assertEquals("http://b:8090", pool.acquire("java").getUrl());
+        //试探请求未返回时超过熔断时长也不放第二个请求
+        Thread.sleep(300);
+        Assertions.assertEquals("http://b:8090", pool.acquire("java").getUrl());
+        pool.release(a);
+        pool.markFailure(a);
+        Assertions.assertEquals(SandboxNode.CircuitState.OPEN, a.getCircuitState());
+        Thread.sleep(300);
+        Assertions.assertSame(a, pool.acquire("java"));
+        pool.release(a);
+        pool.markSuccess(a);
+        Assertions.assertEquals(SandboxNode.CircuitState.CLOSED, a.getCircuitState());
+        Assertions.assertEquals(0, a.getFailures().get());
+        pool.destroy();
+    }
+
+    @Test
+    void stopAfterOutstandingDone() throws Exception {
+        SandboxRemoteConfig config = new SandboxRemoteConfig();
+        config.setNodes(List.of("http://a:8090"));
+        config.setDrainTimeout(5000);
+        SandboxNodePool pool = newPool(config, new SandboxResilienceConfig(), newRegistry());
+        SandboxNode a = pool.acquire("java");
+        Thread request = new Thread(() -> {
+            sleep(300);
+            pool.release(a);
+        });
+        request.start();
+        long start = System.currentTimeMillis();
+        pool.stop();
+        //等到发出的请求结束才返回
+        Assertions.assertEquals(0, a.getOutstanding().get());
+        Assertions.assertTrue(System.currentTimeMillis() - start < 5000);
+        request.join();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private SandboxResilienceConfig newResilienceConfig(int failureThreshold, long openDuration) {
+        SandboxResilienceConfig.Policy policy = new SandboxResilienceConfig.Policy();
+        policy.setFailureThreshold(failureThreshold);
+        policy.setOpenDuration(openDuration);
+        SandboxResilienceConfig resilienceConfig = new SandboxResilienceConfig();
+        resilienceConfig.getPolicy().put("remote", policy);
+        return resilienceConfig;
+    }
+
+    private SandboxNodeRegistry newRegistry() {
+        SandboxNodeRegistry registry = new SandboxNodeRegistry();
+        ReflectionTestUtils.setField(registry, "ttl", 15000L);
+        return registry;
+    }
+
+    private SandboxNodePool newPool(SandboxRemoteConfig config, SandboxResilienceConfig resilienceConfig,
+                                    SandboxNodeRegistry registry) {
+        SandboxNodePool pool = new SandboxNodePool();
+        ReflectionTestUtils.setField(pool, "sandboxRemoteConfig", config);
+        ReflectionTestUtils.setField(pool, "sandboxResilienceConfig", resilienceConfig);
+        ReflectionTestUtils.setField(pool, "sandboxNodeRegistry", registry);
+        pool.init();
+        return pool;
+    }
+
+    private HttpServer newServer(int healthStatus) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/health", exchange -> {
+            exchange.sendResponseHeaders(healthStatus, -1);
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    private String urlOf(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+}
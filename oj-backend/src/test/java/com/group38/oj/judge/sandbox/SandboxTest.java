@@ -1,7 +1,5 @@
 package com.group38.oj.judge.sandbox;
 
-import com.group38.oj.judge.sandbox.impl.ExampleSandbox;
-import com.group38.oj.judge.sandbox.impl.RemoteSandbox;
 import com.group38.oj.judge.sandbox.model.ExecCodeRequest;
 import com.group38.oj.judge.sandbox.model.ExecCodeResponse;
 import com.group38.oj.model.enums.QuestionSubmitLanguageEnum;
@@ -10,9 +8,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import javax.annotation.Resource;
+
 import java.util.Arrays;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
 
 
 @SpringBootTest
@@ -21,9 +21,18 @@ class SandboxTest {
     @Value("${sandbox.type:example}")
     private String type;
 
+    @Resource(name = "remote")
+    private Sandbox remoteSandbox;
+
+    @Resource
+    private Map<String, Sandbox> sandboxMap;
+
+    @Resource
+    private SandboxFactory sandboxFactory;
+
     @Test
     void executeCode() {
-        Sandbox codeSandbox = new RemoteSandbox();
+        Sandbox codeSandbox = remoteSandbox;
         String code = "int main() { }";
         String language = QuestionSubmitLanguageEnum.JAVA.getValue();
         List<String> inputList = Arrays.asList("1 2", "3 4");
@@ -38,7 +47,7 @@ class SandboxTest {
 
     @Test
     void execCodeByValue() {
-        Sandbox sandbox = SandboxFactory.newInstance(type);
+        Sandbox sandbox = sandboxMap.get(type);
         String code = "int main() { return 0; }";
         String lang = QuestionSubmitLanguageEnum.JAVA.getValue();
         List<String> inputList = Arrays.asList("1 2", "3 4");
@@ -53,8 +62,8 @@ class SandboxTest {
 
     @Test
     void execCodeByProxy() {
-        Sandbox sandbox = SandboxFactory.newInstance(type);
-        sandbox = new SandboxProxy(sandbox);
+        // 工厂中的沙箱已经套上日志和容错装饰器
+        Sandbox sandbox = sandboxFactory.getSandbox();
         String code = "int main() { return 0; }";
         String lang = QuestionSubmitLanguageEnum.JAVA.getValue();
         List<String> inputList = Arrays.asList("1 2", "3 4");
@@ -66,21 +75,4 @@ class SandboxTest {
         ExecCodeResponse execCodeResponse = sandbox.execCode(execCoderequest);
         Assertions.assertNotNull(execCodeResponse);
     }
-
-    public static void main(String[] args) {
-        Scanner scanner = new Scanner(System.in);
-        while (scanner.hasNext()) {
-            String type = scanner.next();
-            Sandbox sandbox = SandboxFactory.newInstance(type);
-            String code = "int main() { return 0; }";
-            String lang = QuestionSubmitLanguageEnum.JAVA.getValue();
-            List<String> inputList = Arrays.asList("1 2", "3 4");
-            ExecCodeRequest execCoderequest = ExecCodeRequest.builder()
-                    .code(code)
-                    .lang(lang)
-                    .inputList(inputList)
-                    .build();
-            ExecCodeResponse execCodeResponse = sandbox.execCode(execCoderequest);
-        }
-    }
-}
\ No newline at end of file
+}
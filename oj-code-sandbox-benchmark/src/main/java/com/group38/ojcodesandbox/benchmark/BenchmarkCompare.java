@@ -0,0 +1,66 @@
+package com.group38.ojcodesandbox.benchmark;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 对比两次基准测试的 JSON 结果
+ * <p>
+ * 用法：BenchmarkCompare base.json current.json，逐项输出两次的得分和变化比例，
+ * 得分为平均耗时，变化为正表示变慢
+ */
+public class BenchmarkCompare {
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("usage: BenchmarkCompare <base.json> <current.json>");
+            System.exit(1);
+        }
+        Map<String, JSONObject> base = load(args[0]);
+        Map<String, JSONObject> current = load(args[1]);
+        System.out.printf("%-60s %14s %14s %9s %s%n", "benchmark", "base", "current", "change", "unit");
+        for (Map.Entry<String, JSONObject> entry : current.entrySet()) {
+            JSONObject currentMetric = entry.getValue();
+            double currentScore = currentMetric.getDouble("score");
+            JSONObject baseMetric = base.get(entry.getKey());
+            if (baseMetric == null) {
+                System.out.printf("%-60s %14s %14.3f %9s %s%n", entry.getKey(), "-", currentScore, "new",
+                        currentMetric.getStr("scoreUnit"));
+                continue;
+            }
+            double baseScore = baseMetric.getDouble("score");
+            double change = baseScore == 0 ? 0 : (currentScore - baseScore) / baseScore * 100;
+            System.out.printf("%-60s %14.3f %14.3f %+8.1f%% %s%n", entry.getKey(), baseScore, currentScore, change,
+                    currentMetric.getStr("scoreUnit"));
+        }
+        for (String key : base.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-60s %14.3f %14s %9s%n", key, base.get(key).getDouble("score"), "-", "removed");
+            }
+        }
+    }
+
+    //基准测试名加参数 -> 主要指标
+    private static Map<String, JSONObject> load(String path) {
+        JSONArray results = JSONUtil.parseArray(FileUtil.readUtf8String(new File(path)));
+        Map<String, JSONObject> metrics = new LinkedHashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            JSONObject result = results.getJSONObject(i);
+            //去掉包名，保留 类名.方法名
+            String benchmark = result.getStr("benchmark");
+            String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            JSONObject params = result.getJSONObject("params");
+            if (params != null && !params.isEmpty()) {
+                name += params.toString();
+            }
+            metrics.put(name, result.getJSONObject("primaryMetric"));
+        }
+        return metrics;
+    }
+}
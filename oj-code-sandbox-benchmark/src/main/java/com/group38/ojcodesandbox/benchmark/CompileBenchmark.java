@@ -0,0 +1,67 @@
+package com.group38.ojcodesandbox.benchmark;
+
+import com.group38.ojcodesandbox.compile.CompileResult;
+import com.group38.ojcodesandbox.compile.InMemoryJavaCompiler;
+import com.group38.ojcodesandbox.lang.JavaRunner;
+import com.group38.ojcodesandbox.workspace.Workspace;
+import com.group38.ojcodesandbox.workspace.WorkspaceManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 编译阶段：冷编译（缓存未命中）、热编译（命中编译缓存）和把字节码写入工作目录
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompileBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private InMemoryJavaCompiler inMemoryJavaCompiler;
+
+    private JavaRunner javaRunner;
+
+    private WorkspaceManager workspaceManager;
+
+    private CompileResult compileResult;
+
+    //冷编译时追加到代码末尾，保证每次都不命中缓存
+    private long revision;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = SandboxContext.start();
+        inMemoryJavaCompiler = context.getBean(InMemoryJavaCompiler.class);
+        javaRunner = context.getBean(JavaRunner.class);
+        workspaceManager = context.getBean(WorkspaceManager.class);
+        compileResult = inMemoryJavaCompiler.compile(SandboxContext.SIMPLE_COMPUTE_CODE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CompileResult coldCompile() {
+        return inMemoryJavaCompiler.compile(SandboxContext.SIMPLE_COMPUTE_CODE + "\n// " + revision++);
+    }
+
+    @Benchmark
+    public CompileResult warmCompile() {
+        return inMemoryJavaCompiler.compile(SandboxContext.SIMPLE_COMPUTE_CODE);
+    }
+
+    @Benchmark
+    public void prepare() {
+        try (Workspace workspace = workspaceManager.acquire()) {
+            javaRunner.prepare(workspace.getDir(), compileResult);
+        }
+    }
+}
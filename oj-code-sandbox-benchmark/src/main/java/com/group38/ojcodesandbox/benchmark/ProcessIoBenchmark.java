@@ -0,0 +1,90 @@
+package com.group38.ojcodesandbox.benchmark;
+
+import com.group38.ojcodesandbox.compile.CompileResult;
+import com.group38.ojcodesandbox.lang.JavaRunner;
+import com.group38.ojcodesandbox.model.ExecuteMessage;
+import com.group38.ojcodesandbox.model.RunInput;
+import com.group38.ojcodesandbox.utils.ProcessUtils;
+import com.group38.ojcodesandbox.workspace.Workspace;
+import com.group38.ojcodesandbox.workspace.WorkspaceManager;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程输入输出：ProcessUtils 读取少量/大量标准输出、写入少量/大量标准输入
+ * <p>
+ * 两组程序启动 JVM 的开销相同，行数不同的结果之差即为输入输出本身的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessIoBenchmark {
+
+    //每行 65 字节，100000 行约 6.2MB，低于默认的输出上限
+    @Param({"10", "100000"})
+    private int lines;
+
+    private ConfigurableApplicationContext context;
+
+    private Workspace outputWorkspace;
+
+    private Workspace inputWorkspace;
+
+    private List<String> outputCommand;
+
+    private List<String> inputCommand;
+
+    private byte[] stdin;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = SandboxContext.start();
+        JavaRunner javaRunner = context.getBean(JavaRunner.class);
+        WorkspaceManager workspaceManager = context.getBean(WorkspaceManager.class);
+        RunInput runInput = new RunInput(new ArrayList<>(), new byte[0], null);
+
+        CompileResult outputProgram = javaRunner.compile(SandboxContext.heavyOutputCode(lines));
+        outputWorkspace = workspaceManager.acquire();
+        javaRunner.prepare(outputWorkspace.getDir(), outputProgram);
+        outputCommand = javaRunner.getRunCommand(outputWorkspace.getDir(), outputProgram, runInput);
+
+        CompileResult inputProgram = javaRunner.compile(SandboxContext.heavyInputCode());
+        inputWorkspace = workspaceManager.acquire();
+        javaRunner.prepare(inputWorkspace.getDir(), inputProgram);
+        inputCommand = javaRunner.getRunCommand(inputWorkspace.getDir(), inputProgram, runInput);
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            builder.append("0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef\n");
+        }
+        stdin = builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        outputWorkspace.close();
+        inputWorkspace.close();
+        context.close();
+    }
+
+    @Benchmark
+    public ExecuteMessage captureOutput() throws IOException {
+        Process process = new ProcessBuilder(outputCommand).start();
+        return ProcessUtils.runProcessAndGetMessage(process, "运行", new byte[0], ProcessUtils.DEFAULT_OUTPUT_LIMIT);
+    }
+
+    @Benchmark
+    public ExecuteMessage feedInput() throws IOException {
+        Process process = new ProcessBuilder(inputCommand).start();
+        return ProcessUtils.runProcessAndGetMessage(process, "运行", stdin, ProcessUtils.DEFAULT_OUTPUT_LIMIT);
+    }
+}
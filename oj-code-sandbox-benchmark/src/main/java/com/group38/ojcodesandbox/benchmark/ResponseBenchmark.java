@@ -0,0 +1,59 @@
+package com.group38.ojcodesandbox.benchmark;
+
+import com.group38.ojcodesandbox.JavaSandBox;
+import com.group38.ojcodesandbox.model.ExecCodeResponse;
+import com.group38.ojcodesandbox.model.ExecuteMessage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 整理输出结果：getOutPutResponse 汇总少量/大量用例的执行信息
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseBenchmark {
+
+    @Param({"10", "1000"})
+    private int cases;
+
+    private ConfigurableApplicationContext context;
+
+    private JavaSandBox javaSandBox;
+
+    private List<ExecuteMessage> executeMessages;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = SandboxContext.start();
+        javaSandBox = context.getBean(JavaSandBox.class);
+        String output = "0123456789abcdef".repeat(64);
+        executeMessages = new ArrayList<>();
+        for (int i = 0; i < cases; i++) {
+            ExecuteMessage executeMessage = new ExecuteMessage();
+            executeMessage.setExitValue(0);
+            executeMessage.setMessage(output);
+            executeMessage.setTime((long) i);
+            executeMessage.setCpuTime((long) i);
+            executeMessage.setMemory(1024L + i);
+            executeMessages.add(executeMessage);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ExecCodeResponse getOutPutResponse() {
+        return javaSandBox.getOutPutResponse(executeMessages);
+    }
+}
@@ -0,0 +1,65 @@
+package com.group38.ojcodesandbox.benchmark;
+
+import com.group38.ojcodesandbox.CaseListener;
+import com.group38.ojcodesandbox.JavaSandBox;
+import com.group38.ojcodesandbox.compile.CompileResult;
+import com.group38.ojcodesandbox.lang.JavaRunner;
+import com.group38.ojcodesandbox.model.ExecuteMessage;
+import com.group38.ojcodesandbox.model.RunInput;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 执行阶段：每个用例启动一个 java 进程（fork）与交给预热的执行进程（pooled）对比，单个和多个用例
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RunBenchmark {
+
+    @Param({"true", "false"})
+    private boolean pooled;
+
+    @Param({"1", "8"})
+    private int cases;
+
+    private ConfigurableApplicationContext context;
+
+    private JavaSandBox javaSandBox;
+
+    private JavaRunner javaRunner;
+
+    private CompileResult compileResult;
+
+    private List<RunInput> runInputs;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = SandboxContext.start("sandbox.pool.enabled=" + pooled);
+        javaSandBox = context.getBean(JavaSandBox.class);
+        javaRunner = context.getBean(JavaRunner.class);
+        compileResult = javaRunner.compile(SandboxContext.SIMPLE_COMPUTE_CODE);
+        runInputs = new ArrayList<>();
+        for (int i = 0; i < cases; i++) {
+            runInputs.add(new RunInput(Collections.singletonList(String.valueOf(i)), new byte[0], null));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ExecuteMessage> runFile() {
+        return javaSandBox.runFile(javaRunner, compileResult, runInputs, false, CaseListener.NONE);
+    }
+}
@@ -0,0 +1,80 @@
+package com.group38.ojcodesandbox.benchmark;
+
+import cn.hutool.core.io.resource.ResourceUtil;
+import com.group38.ojcodesandbox.OjCodeSandboxApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * 基准测试使用的沙箱上下文
+ * <p>
+ * 按沙箱的默认配置启动（不启动 Web 服务），各阶段直接调用对应的组件
+ */
+public class SandboxContext {
+
+    //沙箱自带的测试程序
+    public static final String SIMPLE_COMPUTE_CODE = ResourceUtil.readUtf8Str("testCode/simpleComputeArgs/Main.java");
+
+    private SandboxContext() {
+    }
+
+    /**
+     * 启动沙箱
+     *
+     * @param properties 覆盖的配置，如 sandbox.pool.enabled=false
+     * @return
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        //沙箱逐个用例打印执行信息，测量期间丢弃，避免输出本身影响结果
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return new SpringApplicationBuilder(OjCodeSandboxApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .logStartupInfo(false)
+                .run();
+    }
+
+    /**
+     * 生成输出大量数据的程序：输出 lines 行，每行 64 个字符
+     *
+     * @param lines
+     * @return
+     */
+    public static String heavyOutputCode(int lines) {
+        return "import java.io.*;\n" +
+                "public class Main {\n" +
+                "    public static void main(String[] args) throws IOException {\n" +
+                "        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16);\n" +
+                "        String line = \"0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef\";\n" +
+                "        for (int i = 0; i < " + lines + "; i++) {\n" +
+                "            writer.write(line);\n" +
+                "            writer.newLine();\n" +
+                "        }\n" +
+                "        writer.flush();\n" +
+                "    }\n" +
+                "}\n";
+    }
+
+    /**
+     * 生成读取大量输入的程序：逐行读取标准输入并输出行数
+     *
+     * @return
+     */
+    public static String heavyInputCode() {
+        return "import java.io.*;\n" +
+                "public class Main {\n" +
+                "    public static void main(String[] args) throws IOException {\n" +
+                "        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in), 1 << 16);\n" +
+                "        long count = 0;\n" +
+                "        while (reader.readLine() != null) {\n" +
+                "            count++;\n" +
+                "        }\n" +
+                "        System.out.println(count);\n" +
+                "    }\n" +
+                "}\n";
+    }
+}
@@ -0,0 +1,19 @@
+package com.group38.ojcodesandbox;
+
+import com.group38.ojcodesandbox.model.ExecuteMessage;
+
+// 用例执行结果监听，每个用例执行完成时回调，用例并行执行时会在多个线程中并发回调
+@FunctionalInterface
+public interface CaseListener {
+
+    CaseListener NONE = (index, executeMessage) -> {
+    };
+
+    /**
+     * 用例执行完成
+     *
+     * @param index          用例下标
+     * @param executeMessage 执行结果
+     */
+    void onCaseFinished(int index, ExecuteMessage executeMessage);
+}
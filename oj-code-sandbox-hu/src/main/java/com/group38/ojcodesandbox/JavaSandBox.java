@@ -1,17 +1,139 @@
 package com.group38.ojcodesandbox;
 
+import com.group38.ojcodesandbox.compare.OutputMatcher;
+import com.group38.ojcodesandbox.compile.CompileResult;
+import com.group38.ojcodesandbox.lang.JavaRunner;
+import com.group38.ojcodesandbox.lang.LanguageRunner;
 import com.group38.ojcodesandbox.model.ExecCodeRequest;
 import com.group38.ojcodesandbox.model.ExecCodeResponse;
+import com.group38.ojcodesandbox.model.ExecuteMessage;
+import com.group38.ojcodesandbox.model.RunInput;
+import com.group38.ojcodesandbox.model.enums.JudgeInfoMessageEnum;
+import com.group38.ojcodesandbox.pool.JvmWorkerPool;
+import com.group38.ojcodesandbox.pool.WorkerProtocol.WorkerRequest;
+import com.group38.ojcodesandbox.pool.WorkerProtocol.WorkerResponse;
+import com.group38.ojcodesandbox.utils.ProcessUtils;
+import com.group38.ojcodesandbox.workspace.Workspace;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Resource;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
 
 //Java原生代码沙箱实现，直接调用模板方法
 
 @Component
+@Slf4j
 public class JavaSandBox extends JavaSandBoxTemplate {
+
+    @Resource
+    private JvmWorkerPool jvmWorkerPool;
+
     @Override
     public ExecCodeResponse execCode(ExecCodeRequest execCoderequest) {
 
         return super.execCode(execCoderequest);
     }
+
+    //2.执行代码，Java 代码在启用进程池时交给预热的执行进程，其他情况（包括开启命名空间隔离时）由模板每个用例启动一个进程
+    @Override
+    public List<ExecuteMessage> runFile(LanguageRunner runner, CompileResult compileResult, List<RunInput> runInputs,
+                                        boolean stopOnFirstFailure, CaseListener caseListener) {
+        if (!(runner instanceof JavaRunner) || !jvmWorkerPool.isEnabled() || namespaceIsolator.isEnabled()) {
+            return super.runFile(runner, compileResult, runInputs, stopOnFirstFailure, caseListener);
+        }
+        //字节码直接发给执行进程，不需要写文件
+        Map<String, byte[]> classes = compileResult.getClasses();
+        //执行进程只在本次提交的用例之间复用，结束后全部回收
+        try (JvmWorkerPool.Session session = jvmWorkerPool.openSession();
+             ForkFallback fallback = new ForkFallback(runner, compileResult)) {
+            //各用例互不依赖，交给调度器并行执行，结果按输入顺序返回
+            return runAll(toTasks(runInputs, runInput -> runCase(runner, session, fallback, classes, runInput),
+                    stopOnFirstFailure, caseListener), stopOnFirstFailure);
+        }
+    }
+
+    //在执行进程中运行单个用例，一时没有空闲的执行进程时单独启动一个 java 进程
+    private ExecuteMessage runCase(LanguageRunner runner, JvmWorkerPool.Session session, ForkFallback fallback,
+                                   Map<String, byte[]> classes, RunInput runInput) {
+        WorkerRequest request = new WorkerRequest();
+        request.classes = classes;
+        request.args = runInput.getArgs();
+        request.stdin = runInput.getStdin();
+        request.stdinFile = runInput.getStdinFile() == null ? null : runInput.getStdinFile().getAbsolutePath();
+        request.memoryLimit = runInput.getMemoryLimit();
+        request.cpuLimit = cpuLimit(runner, runInput);
+        request.outputLimit = runConfig.getOutputLimit();
+        WorkerResponse response = session.execute(request, wallTimeout(runner, runInput));
+        if (response == null) {
+            return runCase(runner, fallback.getWorkDir(), fallback.compileResult, runInput);
+        }
+        ExecuteMessage executeMessage = toExecuteMessage(runner, response, OutputMatcher.of(runInput));
+        log.debug("{}", executeMessage);
+        return executeMessage;
+    }
+
+    //与 ProcessUtils 保持一致：保留行结构，异常退出时才记录错误输出；沙箱内比对时只记录比对结果
+    private ExecuteMessage toExecuteMessage(LanguageRunner runner, WorkerResponse response, OutputMatcher matcher) {
+        ExecuteMessage executeMessage = new ExecuteMessage();
+        executeMessage.setExitValue(response.exitValue);
+        if (matcher == null) {
+            executeMessage.setMessage(toText(response.stdout));
+        } else {
+            matcher.update(response.stdout, 0, response.stdout.length);
+            matcher.finish();
+            setMatchResult(executeMessage, matcher);
+        }
+        if (response.memoryLimitExceeded) {
+            executeMessage.setVerdict(JudgeInfoMessageEnum.MEMORY_LIMIT_EXCEEDED.getValue());
+        } else if (response.timeLimitExceeded) {
+            executeMessage.setVerdict(JudgeInfoMessageEnum.TIME_LIMIT_EXCEEDED.getValue());
+        } else if (response.outputLimitExceeded) {
+            executeMessage.setVerdict(JudgeInfoMessageEnum.OUTPUT_LIMIT_EXCEEDED.getValue());
+        } else if (response.exitValue != 0) {
+            executeMessage.setErrorMessage(toText(response.stderr));
+        }
+        executeMessage.setTime(response.time);
+        executeMessage.setCpuTime(Math.max(0, response.cpuTime - runner.getCpuOverhead()));
+        executeMessage.setMemory(response.memory);
+        return executeMessage;
+    }
+
+    private String toText(byte[] bytes) {
+        return ProcessUtils.normalizeOutput(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    //退回每个用例启动一个进程时使用的工作目录，第一次需要时才写入字节码，提交结束后归还
+    private class ForkFallback implements AutoCloseable {
+
+        private final LanguageRunner runner;
+
+        private final CompileResult compileResult;
+
+        private Workspace workspace;
+
+        private ForkFallback(LanguageRunner runner, CompileResult compileResult) {
+            this.runner = runner;
+            this.compileResult = compileResult;
+        }
+
+        private synchronized File getWorkDir() {
+            if (workspace == null) {
+                workspace = workspaceManager.acquire();
+                runner.prepare(workspace.getDir(), compileResult);
+            }
+            return workspace.getDir();
+        }
+
+        @Override
+        public synchronized void close() {
+            if (workspace != null) {
+                workspace.close();
+            }
+        }
+    }
 }
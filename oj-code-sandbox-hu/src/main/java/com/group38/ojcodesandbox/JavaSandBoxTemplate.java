@@ -1,137 +1,401 @@
 package com.group38.ojcodesandbox;
 
-import cn.hutool.core.date.StopWatch;
-import cn.hutool.core.io.FileUtil;
-
 import cn.hutool.core.util.StrUtil;
 
+import com.group38.ojcodesandbox.compare.OutputMatcher;
+import com.group38.ojcodesandbox.compile.CompileResult;
+import com.group38.ojcodesandbox.config.RunConfig;
+import com.group38.ojcodesandbox.isolation.NamespaceIsolator;
+import com.group38.ojcodesandbox.lang.LanguageRunner;
+import com.group38.ojcodesandbox.lang.LanguageRunnerRegistry;
+import com.group38.ojcodesandbox.lang.RunProcess;
 import com.group38.ojcodesandbox.model.ExecCodeRequest;
 import com.group38.ojcodesandbox.model.ExecCodeResponse;
 import com.group38.ojcodesandbox.model.ExecuteMessage;
 import com.group38.ojcodesandbox.model.JudgeInfo;
+import com.group38.ojcodesandbox.model.RunInput;
+import com.group38.ojcodesandbox.model.enums.InputModeEnum;
+import com.group38.ojcodesandbox.model.enums.JudgeInfoMessageEnum;
+import com.group38.ojcodesandbox.monitor.CaseCgroup;
+import com.group38.ojcodesandbox.monitor.CgroupManager;
+import com.group38.ojcodesandbox.monitor.ProcessSampler;
+import com.group38.ojcodesandbox.monitor.ProcessSampler.Sample;
 
+import com.group38.ojcodesandbox.scheduler.DeadlineManager;
+import com.group38.ojcodesandbox.scheduler.DeadlineManager.Deadline;
+import com.group38.ojcodesandbox.scheduler.RunScheduler;
 import com.group38.ojcodesandbox.utils.ProcessUtils;
+import com.group38.ojcodesandbox.workspace.Workspace;
+import com.group38.ojcodesandbox.workspace.WorkspaceManager;
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Resource;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 public abstract class JavaSandBoxTemplate implements Sandbox {
-    private static final String GLOBAL_CODE_DIR_NAME = "tmpCode";
-    private static final String GLOBAL_JAVA_CLASS_NAME = "Main.java";
     //超时时间
-    private static final long TIME_OUT=5000L;
+    protected static final long TIME_OUT=5000L;
+
+    @Resource
+    private LanguageRunnerRegistry languageRunnerRegistry;
+
+    @Resource
+    protected RunScheduler runScheduler;
+
+    @Resource
+    protected DeadlineManager deadlineManager;
+
+    @Resource
+    protected RunConfig runConfig;
+
+    @Resource
+    private CgroupManager cgroupManager;
+
+    @Resource
+    private ProcessSampler processSampler;
+
+    @Resource
+    protected WorkspaceManager workspaceManager;
+
+    @Resource
+    protected NamespaceIsolator namespaceIsolator;
 
     @Override
     public ExecCodeResponse execCode(ExecCodeRequest execCoderequest) {
+        return execCode(execCoderequest, CaseListener.NONE);
+    }
 
-        String code = execCoderequest.getCode();
-        String lang = execCoderequest.getLang();
-        List<String> inputList = execCoderequest.getInputList();
+    /**
+     * 执行代码，每个用例执行完成时通知监听器
+     *
+     * @param execCoderequest
+     * @param caseListener
+     * @return
+     */
+    public ExecCodeResponse execCode(ExecCodeRequest execCoderequest, CaseListener caseListener) {
 
-        //1.把用户的代码保存为文件
-        //2.编译代码，得到class文件
-        //3.执行代码，得到输出结果
-        //4.收集整理输出结果
-        //5.文件清理
-        //6.错误处理，提升程序健壮性
+        //0.整理每个用例的输入（程序参数 / 标准输入 / 输入文件）
+        //1.编译代码（按语言选择执行器，相同代码直接命中缓存）
+        //2.执行代码，得到输出结果
+        //3.收集整理输出结果
+        //4.错误处理，提升程序健壮性
 
-        //1.把用户的代码保存为文件
-        File userCodefile = saveCodeToFile(code);
+        //0.整理每个用例的输入
+        List<RunInput> runInputs;
+        try {
+            runInputs = resolveInputs(execCoderequest);
+        } catch (IllegalArgumentException e) {
+            return getErrorResponse(e);
+        }
+        return execCode(execCoderequest.getLang(), execCoderequest.getCode(), runInputs,
+                Boolean.TRUE.equals(execCoderequest.getStopOnFirstFailure()), caseListener);
+    }
 
-        //2.编译代码，得到class文件
-        ExecuteMessage compileFileExecuteMessage = compileFile(userCodefile);
-        System.out.println(compileFileExecuteMessage);
+    /**
+     * 用整理好的输入执行代码，批量执行时多份代码共用同一组输入
+     *
+     * @param lang               编程语言，为空时按 Java 处理
+     * @param code
+     * @param runInputs
+     * @param stopOnFirstFailure 第一个用例出错（含输出与期望输出不一致）后不再执行后面的用例
+     * @param caseListener
+     * @return
+     */
+    public ExecCodeResponse execCode(String lang, String code, List<RunInput> runInputs, boolean stopOnFirstFailure,
+                                     CaseListener caseListener) {
+        LanguageRunner runner = languageRunnerRegistry.getRunner(lang);
+        if (runner == null) {
+            return getErrorResponse(new IllegalArgumentException("不支持的编程语言：" + lang));
+        }
 
-        //3.执行代码，得到输出结果
-        List<ExecuteMessage> executeMessagesList = runFile(userCodefile, inputList);
+        //1.编译代码，相同代码直接命中缓存
+        CompileResult compileResult = runner.compile(code);
+        try {
+            if (!compileResult.isSuccess()) {
+                return getCompileErrorResponse(compileResult);
+            }
 
-        //4.收集整理输出结果
-        ExecCodeResponse outPutResponse = getOutPutResponse(executeMessagesList);
+            //2.执行代码，得到输出结果
+            List<ExecuteMessage> executeMessagesList = runFile(runner, compileResult, runInputs, stopOnFirstFailure, caseListener);
 
-        //5.文件清理
-        boolean b = deleteFile(userCodefile);
-        if (!b){
-            log.error("deleteFile error, userCodeFilePath = {}", userCodefile.getAbsolutePath());
+            //3.收集整理输出结果
+            return getOutPutResponse(executeMessagesList);
+        } finally {
+            runner.release(compileResult);
         }
+    }
 
-        return outPutResponse;
+    /**
+     * 整理每个用例的输入
+     * <p>
+     * 有输入文件时按文件逐个接到程序的标准输入；否则按输入方式处理 inputList，
+     * stdin 方式整段写入标准输入，args 方式（默认）按空白拆分为程序参数
+     *
+     * @param execCoderequest
+     * @return
+     */
+    public List<RunInput> resolveInputs(ExecCodeRequest execCoderequest) {
+        List<RunInput> runInputs = resolveRunInputs(execCoderequest);
+        long memoryLimit = execCoderequest.getMemoryLimit() == null ? 0 : execCoderequest.getMemoryLimit();
+        long timeLimit = execCoderequest.getTimeLimit() == null ? 0 : execCoderequest.getTimeLimit();
+        runInputs.forEach(runInput -> {
+            runInput.setMemoryLimit(memoryLimit);
+            runInput.setTimeLimit(timeLimit);
+        });
+        //期望输出只在遇错即停或沙箱内比对时用于逐个用例检查
+        List<String> expectedOutputList = execCoderequest.getExpectedOutputList();
+        if (expectedOutputList != null) {
+            for (int i = 0; i < runInputs.size() && i < expectedOutputList.size(); i++) {
+                runInputs.get(i).setExpectedOutput(expectedOutputList.get(i));
+            }
+        }
+        List<String> expectedOutputDigestList = execCoderequest.getExpectedOutputDigestList();
+        if (expectedOutputDigestList != null) {
+            for (int i = 0; i < runInputs.size() && i < expectedOutputDigestList.size(); i++) {
+                runInputs.get(i).setExpectedDigest(expectedOutputDigestList.get(i));
+            }
+        }
+        boolean compareOutput = Boolean.TRUE.equals(execCoderequest.getCompareOutput());
+        for (int i = 0; i < runInputs.size(); i++) {
+            RunInput runInput = runInputs.get(i);
+            //沙箱内比对时每个用例都要有期望输出或摘要，否则没有比对器，会被误判为通过
+            if (compareOutput && runInput.getExpectedOutput() == null && runInput.getExpectedDigest() == null) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 个用例缺少期望输出");
+            }
+            runInput.setCompareOutput(compareOutput);
+        }
+        return runInputs;
     }
 
-    //1.把用户的代码保存为文件
-    public File saveCodeToFile(String code) {
-        String userDir = System.getProperty("user.dir");
-        String globalCodePathName = userDir + File.separator + GLOBAL_CODE_DIR_NAME;
+    private List<RunInput> resolveRunInputs(ExecCodeRequest execCoderequest) {
+        List<String> inputFileList = execCoderequest.getInputFileList();
+        if (inputFileList != null && !inputFileList.isEmpty()) {
+            Path testDataDir = Paths.get(runConfig.getTestDataDir()).toAbsolutePath().normalize();
+            return inputFileList.stream()
+                    .map(inputFile -> new RunInput(Collections.emptyList(), new byte[0], resolveInputFile(testDataDir, inputFile)))
+                    .collect(Collectors.toList());
+        }
+        List<String> inputList = execCoderequest.getInputList();
+        if (inputList == null) {
+            return new ArrayList<>();
+        }
+        InputModeEnum inputMode = StrUtil.isBlank(execCoderequest.getInputMode())
+                ? InputModeEnum.ARGS
+                : InputModeEnum.getEnumByValue(execCoderequest.getInputMode());
+        if (inputMode == null) {
+            throw new IllegalArgumentException("不支持的输入方式：" + execCoderequest.getInputMode());
+        }
+        return inputList.stream()
+                .map(input -> inputMode == InputModeEnum.STDIN
+                        ? new RunInput(Collections.emptyList(), StrUtil.nullToEmpty(input).getBytes(StandardCharsets.UTF_8), null)
+                        : new RunInput(splitArgs(input), new byte[0], null))
+                .collect(Collectors.toList());
+    }
 
-        //判断全局代码是否存在，没有则新建
-        if (!FileUtil.exist(globalCodePathName)) {
-            FileUtil.mkdir(globalCodePathName);
+    //输入文件只能位于测试数据目录下
+    private File resolveInputFile(Path testDataDir, String inputFile) {
+        Path path = testDataDir.resolve(inputFile).normalize();
+        if (!path.startsWith(testDataDir) || !Files.isRegularFile(path)) {
+            throw new IllegalArgumentException("输入文件不存在：" + inputFile);
         }
+        return path.toFile();
+    }
 
-        //将用户的代码隔离存放
-        String userCodeParentPath = globalCodePathName + File.separator + UUID.randomUUID();
-        String userCodePath = userCodeParentPath + File.separator + GLOBAL_JAVA_CLASS_NAME;
-        File userCodeFile = FileUtil.writeString(code, userCodePath, StandardCharsets.UTF_8);
-        return userCodeFile;
+    //按空白拆分为程序参数
+    private List<String> splitArgs(String input) {
+        return StrUtil.isBlank(input)
+                ? Collections.emptyList()
+                : Arrays.asList(input.trim().split("\\s+"));
     }
 
-    //2.编译代码，得到class文件
-    public ExecuteMessage compileFile(File userCodeFile) {
-        String compileCmd = String.format("javac -encoding utf-8 \"%s\"", userCodeFile.getAbsolutePath());
+    //2.执行代码：编译产物放进工作目录，每个用例启动一个进程
+    public List<ExecuteMessage> runFile(LanguageRunner runner, CompileResult compileResult, List<RunInput> runInputs,
+                                        boolean stopOnFirstFailure, CaseListener caseListener){
+        //工作目录在内存文件系统中，用完清空后复用
+        try (Workspace workspace = workspaceManager.acquire()) {
+            File workDir = workspace.getDir();
+            runner.prepare(workDir, compileResult);
+            //各用例互不依赖，交给调度器并行执行，结果按输入顺序返回
+            return runAll(toTasks(runInputs, runInput -> runCase(runner, workDir, compileResult, runInput),
+                    stopOnFirstFailure, caseListener), stopOnFirstFailure);
+        }
+    }
+
+    //遇错即停时第一个出错的用例之后的用例不再执行，返回的结果截断到该用例
+    protected List<ExecuteMessage> runAll(List<Callable<ExecuteMessage>> tasks, boolean stopOnFirstFailure) {
+        return stopOnFirstFailure ? runScheduler.runAll(tasks, this::isFailed) : runScheduler.runAll(tasks);
+    }
+
+    //每个用例一个任务，执行完成后通知监听器；遇错即停或沙箱内比对时检查输出，与期望输出不一致的判为答案错误
+    protected List<Callable<ExecuteMessage>> toTasks(List<RunInput> runInputs, Function<RunInput, ExecuteMessage> runner,
+                                                     boolean stopOnFirstFailure, CaseListener caseListener) {
+        List<Callable<ExecuteMessage>> tasks = new ArrayList<>();
+        for (int i = 0; i < runInputs.size(); i++) {
+            int index = i;
+            RunInput runInput = runInputs.get(i);
+            tasks.add(() -> {
+                ExecuteMessage executeMessage = runner.apply(runInput);
+                boolean checkOutput = stopOnFirstFailure || executeMessage.getOutputMatched() != null;
+                if (checkOutput && !isFailed(executeMessage) && !matchesExpected(executeMessage, runInput)) {
+                    executeMessage.setVerdict(JudgeInfoMessageEnum.WRONG_ANSWER.getValue());
+                }
+                caseListener.onCaseFinished(index, executeMessage);
+                return executeMessage;
+            });
+        }
+        return tasks;
+    }
+
+    //用例是否出错：沙箱给出了判题结果，或程序异常退出
+    private boolean isFailed(ExecuteMessage executeMessage) {
+        return StrUtil.isNotBlank(executeMessage.getVerdict())
+                || StrUtil.isNotBlank(executeMessage.getErrorMessage())
+                || (executeMessage.getExitValue() != null && executeMessage.getExitValue() != 0);
+    }
+
+    //没有期望输出时只看是否正常退出；与沙箱内比对、后端比对使用同一规范化规则
+    private boolean matchesExpected(ExecuteMessage executeMessage, RunInput runInput) {
+        //读取输出时已经比对过
+        if (executeMessage.getOutputMatched() != null) {
+            return executeMessage.getOutputMatched();
+        }
+        String expectedOutput = runInput.getExpectedOutput();
+        return expectedOutput == null || (executeMessage.getMessage() != null
+                && OutputMatcher.normalize(expectedOutput).equals(OutputMatcher.normalize(executeMessage.getMessage())));
+    }
+
+    //执行单个用例
+    protected ExecuteMessage runCase(LanguageRunner runner, File workDir, CompileResult compileResult, RunInput runInput) {
+        long memoryLimit = memoryLimit(runner, runInput);
+        long cpuLimit = cpuLimit(runner, runInput);
+        CaseCgroup cgroup = null;
         try {
-            Process compileProcess = Runtime.getRuntime().exec(compileCmd);
-            ExecuteMessage executeMessage = ProcessUtils.runProcessAndGetMessage(compileProcess, "编译");
-            if (executeMessage.getExitValue() != 0){
-                throw new RuntimeException("编译错误");
+            if (cgroupManager.isEnabled()) {
+                //由内核限制内存并统计峰值内存和 CPU 时间
+                cgroup = cgroupManager.create(memoryLimit);
+            }
+            RunProcess runProcess = runner.launch(workDir, compileResult, runInput, cgroup,
+                    namespaceIsolator.isEnabled() ? namespaceIsolator : null);
+            Process process = runProcess.getProcess();
+            //墙钟超时兜底（如程序一直阻塞），统一由超时管理器登记，执行完成后取消
+            Deadline deadline = deadlineManager.register(process, wallTimeout(runner, runInput));
+            //CPU 时间和内存（cgroup 不可用时）由采样线程统计并限制
+            Sample sample = processSampler.watch(process, cgroup, memoryLimit, cpuLimit,
+                    cgroup == null ? runProcess.getStartCpuTime() : 0);
+            //沙箱内比对时标准输出边读取边比对，不保存
+            OutputMatcher matcher = OutputMatcher.of(runInput);
+            ExecuteMessage executeMessage;
+            try {
+                executeMessage = ProcessUtils.runProcessAndGetMessage(process, "运行", runProcess.getStdin(),
+                        runConfig.getOutputLimit(), matcher);
+            } finally {
+                deadline.cancel();
+                sample.stop();
+            }
+            setMatchResult(executeMessage, matcher);
+            //与内存一样上报扣除运行时开销后的 CPU 时间，题目限制只在沙箱放宽一次
+            executeMessage.setCpuTime(Math.max(0, sample.getCpuTime() - runner.getCpuOverhead()));
+            boolean memoryLimitExceeded;
+            long peakMemory;
+            if (cgroup != null) {
+                peakMemory = cgroup.getPeakMemory();
+                memoryLimitExceeded = cgroup.isOomKilled();
+            } else {
+                peakMemory = sample.getPeakMemory();
+                memoryLimitExceeded = sample.isMemoryExceeded();
+            }
+            //上报扣除运行时自身开销后的内存，与执行进程池只统计用户代码堆内存的口径一致，可以直接和题目限制比较
+            executeMessage.setMemory(Math.max(0, peakMemory - runner.getMemoryOverhead()));
+            if (memoryLimitExceeded) {
+                executeMessage.setVerdict(JudgeInfoMessageEnum.MEMORY_LIMIT_EXCEEDED.getValue());
+                executeMessage.setErrorMessage(null);
+            } else if (sample.isCpuExceeded() || deadline.isExpired()) {
+                executeMessage.setVerdict(JudgeInfoMessageEnum.TIME_LIMIT_EXCEEDED.getValue());
+                executeMessage.setErrorMessage(null);
             }
+            log.debug("{}", executeMessage);
             return executeMessage;
         } catch (Exception e) {
-            throw new RuntimeException(e);
+            throw new RuntimeException("执行错误", e);
+        } finally {
+            if (cgroup != null) {
+                cgroup.close();
+            }
         }
     }
 
-    //3.执行代码，得到执行结果列表
-    public List<ExecuteMessage> runFile(File userCodeFile , List<String> inputList){
-        String userCodeParentPath = userCodeFile.getParentFile().getAbsolutePath();
-
-        List<ExecuteMessage> executeMessagesList = new ArrayList<>();
-        for (String inputArgs : inputList) {
-            StopWatch stopWatch = new StopWatch();
-            String runCmd = String.format("java -Xmx256m -Dfile.encoding=UTF-8 -cp \"%s\" Main \"%s\"", userCodeParentPath, inputArgs);
-            try {
-                Process runProcess = Runtime.getRuntime().exec(runCmd);
-                //超时控制
-                new Thread(()->{
-                    try {
-                        Thread.sleep(TIME_OUT);
-                        //System.out.println("超时了，中断");
-                        runProcess.destroy();
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    }
-                }).start();
-                ExecuteMessage executeMessage = ProcessUtils.runProcessAndGetMessage(runProcess, "运行");
-                System.out.println(executeMessage);
-                executeMessagesList.add(executeMessage);
-            } catch (Exception e) {
-                throw new RuntimeException("执行错误", e);
-            }
+    //记录沙箱内比对的结果
+    protected void setMatchResult(ExecuteMessage executeMessage, OutputMatcher matcher) {
+        if (matcher == null) {
+            return;
         }
-        return executeMessagesList;
+        executeMessage.setOutputMatched(matcher.isMatched());
+        executeMessage.setDiff(matcher.getDiff());
     }
 
-    //4.收集整理输出结果
+    //按进程统计的内存包含运行时（如 Java 虚拟机、Python 解释器）自身的开销，在题目限制之上放宽
+    protected long memoryLimit(LanguageRunner runner, RunInput runInput) {
+        return runInput.getMemoryLimit() > 0 ? runInput.getMemoryLimit() + runner.getMemoryOverhead() : 0;
+    }
+
+    //CPU 时间包含运行时启动、即时编译和垃圾回收，在题目限制之上放宽
+    protected long cpuLimit(LanguageRunner runner, RunInput runInput) {
+        return runInput.getTimeLimit() > 0 ? runInput.getTimeLimit() + runner.getCpuOverhead() : 0;
+    }
+
+    //墙钟超时：CPU 时间限制只统计实际运行的时间，墙钟时间留出排队和阻塞的余量
+    protected long wallTimeout(LanguageRunner runner, RunInput runInput) {
+        return Math.max(TIME_OUT, cpuLimit(runner, runInput) * 2);
+    }
+
+    //3.收集整理输出结果，沙箱内比对时只返回逐个用例的判题结果和第一处差异，不返回输出
     public ExecCodeResponse getOutPutResponse(List<ExecuteMessage> executeMessagesList) {
         ExecCodeResponse execCodeResponse = new ExecCodeResponse();
+        boolean compared = executeMessagesList.stream().anyMatch(executeMessage -> executeMessage.getOutputMatched() != null);
         List<String> outputList = new ArrayList<>();
-        //取用时最大值，用于判断是否超时
-        long maxTime = 0;
+        //正常运行完成的用例数
+        int finishedCount = 0;
+        //取 CPU 时间最大值，用于判断是否超时
+        long maxCpuTime = 0;
+        //取墙钟时间最大值
+        long maxWallTime = 0;
+        //取内存最大值，用于判断是否内存超限
+        long maxMemory = 0;
+        //沙箱直接给出的判题结果（如输出超限）
+        String verdict = null;
         for (ExecuteMessage executeMessage : executeMessagesList) {
+            Long memory = executeMessage.getMemory();
+            if (memory != null) {
+                maxMemory = Math.max(maxMemory, memory);
+            }
+            Long time = executeMessage.getTime();
+            if (time != null) {
+                maxWallTime = Math.max(maxWallTime, time);
+            }
+            //统计不到 CPU 时间时退回到墙钟时间
+            Long cpuTime = executeMessage.getCpuTime() != null ? executeMessage.getCpuTime() : time;
+            if (cpuTime != null) {
+                maxCpuTime = Math.max(maxCpuTime, cpuTime);
+            }
+            if (StrUtil.isNotBlank(executeMessage.getVerdict())) {
+                verdict = executeMessage.getVerdict();
+                execCodeResponse.setMessage(verdict);
+                //用户提交代码中存在错误
+                execCodeResponse.setStatus(3);
+                break;
+            }
             String errorMessage = executeMessage.getErrorMessage();
             if (StrUtil.isNotBlank(errorMessage)) {
                 execCodeResponse.setMessage(errorMessage);
@@ -139,43 +403,67 @@ public abstract class JavaSandBoxTemplate implements Sandbox {
                 execCodeResponse.setStatus(3);
                 break;
             }
-            outputList.add(executeMessage.getMessage());
-            Long time = executeMessage.getTime();
-            if (time != null) {
-                maxTime = Math.max(maxTime, time);
+            finishedCount++;
+            if (!compared) {
+                outputList.add(executeMessage.getMessage());
             }
         }
 
         //正常运行完成
-        if (outputList.size() == executeMessagesList.size()) {
+        if (finishedCount == executeMessagesList.size()) {
             execCodeResponse.setStatus(1);
         }
 
         execCodeResponse.setOutputList(outputList);
+        if (compared) {
+            //逐个用例的判题结果包含出错之后仍执行了的用例
+            execCodeResponse.setVerdictList(executeMessagesList.stream()
+                    .map(this::getCaseVerdict)
+                    .collect(Collectors.toList()));
+            execCodeResponse.setDiff(executeMessagesList.stream()
+                    .map(ExecuteMessage::getDiff)
+                    .filter(StrUtil::isNotBlank)
+                    .findFirst()
+                    .orElse(null));
+        }
         JudgeInfo judgeInfo = new JudgeInfo();
-        judgeInfo.setTime(maxTime);
-        //获取内存占用未实现
-//        judgeInfo.setMemory();
+        judgeInfo.setMessage(verdict);
+        judgeInfo.setTime(maxCpuTime);
+        judgeInfo.setWallTime(maxWallTime);
+        judgeInfo.setMemory(maxMemory);
 
         execCodeResponse.setJudgeInfo(judgeInfo);
 
         return execCodeResponse;
     }
 
-    //5.文件清理
-    public boolean deleteFile(File userCodeFile) {
-        if (userCodeFile.getParentFile() != null) {
-            String userCodeParentPath = userCodeFile.getParentFile().getAbsolutePath();
-            boolean del = FileUtil.del(userCodeParentPath);
-            System.out.println("删除" + (del ? "成功" : "失败"));
-            return del;
+    //单个用例的判题结果：沙箱给出的结果优先，其次是异常退出
+    private String getCaseVerdict(ExecuteMessage executeMessage) {
+        if (StrUtil.isNotBlank(executeMessage.getVerdict())) {
+            return executeMessage.getVerdict();
+        }
+        if (StrUtil.isNotBlank(executeMessage.getErrorMessage())) {
+            return JudgeInfoMessageEnum.RUNTIME_ERROR.getValue();
         }
-        return true;
+        return JudgeInfoMessageEnum.ACCEPTED.getValue();
+    }
+
+    //4.错误处理，提升程序健壮性
+    //获取编译错误响应
+    private ExecCodeResponse getCompileErrorResponse(CompileResult compileResult) {
+        ExecCodeResponse execCodeResponse = new ExecCodeResponse();
+        execCodeResponse.setMessage(compileResult.getMessage());
+        //用户提交代码中存在错误
+        execCodeResponse.setStatus(3);
+        JudgeInfo judgeInfo = new JudgeInfo();
+        judgeInfo.setMessage("Compile Error");
+        execCodeResponse.setJudgeInfo(judgeInfo);
+        execCodeResponse.setOutputList(new ArrayList<>());
+        return execCodeResponse;
     }
 
-    //6.错误处理，提升程序健壮性
     //获取错误响应
-    private ExecCodeResponse getErrorResponse(Throwable e) {
+    public ExecCodeResponse getErrorResponse(Throwable e) {
         ExecCodeResponse execCodeResponse = new ExecCodeResponse();
         execCodeResponse.setMessage(e.getMessage());
         //表示代码沙箱错误
@@ -0,0 +1,152 @@
+package com.group38.ojcodesandbox.admission;
+
+import com.group38.ojcodesandbox.config.AdmissionConfig;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 请求准入控制
+ * <p>
+ * 限制同时执行的请求数，超出的请求在有界队列中排队；队列已满或排队超时时立即拒绝，
+ * 并根据最近的执行耗时给出建议的重试间隔，调用方可以据此把请求转给其他沙箱节点
+ */
+@Component
+public class AdmissionController {
+
+    //平均执行时间的平滑系数
+    private static final double EXEC_TIME_WEIGHT = 0.2;
+
+    @Resource
+    private AdmissionConfig admissionConfig;
+
+    private Semaphore permits;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final AtomicLong admitted = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final AtomicLong totalWaitTime = new AtomicLong();
+
+    private final AtomicLong maxWaitTime = new AtomicLong();
+
+    private volatile double avgExecTime;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(admissionConfig.getMaxInFlight(), true);
+    }
+
+    /**
+     * 申请执行，返回的许可执行完成后需要关闭
+     *
+     * @return
+     * @throws AdmissionRejectedException 队列已满或排队超时
+     */
+    public Permit admit() {
+        try {
+            return enter(admissionConfig.getMaxWait());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject("沙箱繁忙，排队超时");
+        }
+    }
+
+    /**
+     * 沙箱内部排队的任务（如异步任务）申请执行，与请求走同一个队列，排队时间上限更长
+     *
+     * @return
+     * @throws AdmissionRejectedException 队列已满或排队超时
+     * @throws InterruptedException
+     */
+    public Permit acquire() throws InterruptedException {
+        return enter(admissionConfig.getInternalMaxWait());
+    }
+
+    //公平信号量的限时获取不会越过排在前面的请求，没有等待者且有空闲名额时直接获得，否则进入有界队列等待
+    private Permit enter(long maxWait) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        if (!permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+            if (waiting.incrementAndGet() > admissionConfig.getQueueCapacity()) {
+                waiting.decrementAndGet();
+                throw reject("沙箱繁忙，排队已满");
+            }
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS);
+            } finally {
+                waiting.decrementAndGet();
+            }
+            if (!acquired) {
+                throw reject("沙箱繁忙，排队超时");
+            }
+        }
+        long waitTime = System.currentTimeMillis() - start;
+        admitted.incrementAndGet();
+        totalWaitTime.addAndGet(waitTime);
+        maxWaitTime.accumulateAndGet(waitTime, Math::max);
+        return new Permit();
+    }
+
+    public AdmissionStats getStats() {
+        AdmissionStats stats = new AdmissionStats();
+        stats.setMaxInFlight(admissionConfig.getMaxInFlight());
+        stats.setInFlight(admissionConfig.getMaxInFlight() - permits.availablePermits());
+        stats.setQueueCapacity(admissionConfig.getQueueCapacity());
+        stats.setQueueDepth(waiting.get());
+        long admittedCount = admitted.get();
+        stats.setAdmittedCount(admittedCount);
+        stats.setRejectedCount(rejected.get());
+        stats.setAvgWaitTime(admittedCount == 0 ? 0 : totalWaitTime.get() / admittedCount);
+        stats.setMaxWaitTime(maxWaitTime.get());
+        stats.setAvgExecTime((long) avgExecTime);
+        stats.setRetryAfter(retryAfter());
+        return stats;
+    }
+
+    public int getQueueDepth() {
+        return waiting.get();
+    }
+
+    //建议的重试间隔(s)：按平均执行时间估算排在前面的请求执行完所需的时间，至少 1 秒
+    private long retryAfter() {
+        double drainTime = avgExecTime * (waiting.get() + 1) / admissionConfig.getMaxInFlight();
+        return Math.max(1, (long) Math.ceil(drainTime / 1000));
+    }
+
+    private AdmissionRejectedException reject(String message) {
+        rejected.incrementAndGet();
+        return new AdmissionRejectedException(message, retryAfter());
+    }
+
+    private synchronized void recordExecTime(long execTime) {
+        avgExecTime = avgExecTime == 0 ? execTime : avgExecTime + EXEC_TIME_WEIGHT * (execTime - avgExecTime);
+    }
+
+    /**
+     * 执行许可
+     */
+    public class Permit implements AutoCloseable {
+
+        private final long start = System.currentTimeMillis();
+
+        private boolean released;
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            recordExecTime(System.currentTimeMillis() - start);
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.group38.ojcodesandbox.admission;
+
+/**
+ * 沙箱繁忙，请求未被准入
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    /**
+     * 建议多久之后重试(s)
+     */
+    private final long retryAfter;
+
+    public AdmissionRejectedException(String message, long retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,30 @@
+package com.group38.ojcodesandbox.admission;
+
+import lombok.Data;
+
+/**
+ * 请求准入统计
+ */
+@Data
+public class AdmissionStats {
+
+    private int maxInFlight; // 同时执行的请求数上限
+
+    private int inFlight; // 正在执行的请求数
+
+    private int queueCapacity; // 排队上限
+
+    private int queueDepth; // 正在排队的请求数
+
+    private long admittedCount; // 累计准入的请求数
+
+    private long rejectedCount; // 累计拒绝的请求数
+
+    private long avgWaitTime; // 准入请求的平均排队时间(ms)
+
+    private long maxWaitTime; // 准入请求的最长排队时间(ms)
+
+    private long avgExecTime; // 请求的平均执行时间(ms)
+
+    private long retryAfter; // 当前建议的重试间隔(s)
+}
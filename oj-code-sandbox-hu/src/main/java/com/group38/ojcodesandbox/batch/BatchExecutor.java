@@ -0,0 +1,151 @@
+package com.group38.ojcodesandbox.batch;
+
+import com.group38.ojcodesandbox.CaseListener;
+import com.group38.ojcodesandbox.JavaSandBox;
+import com.group38.ojcodesandbox.admission.AdmissionController;
+import com.group38.ojcodesandbox.admission.AdmissionRejectedException;
+import com.group38.ojcodesandbox.config.BatchConfig;
+import com.group38.ojcodesandbox.model.BatchExecCodeRequest;
+import com.group38.ojcodesandbox.model.BatchExecCodeResponse;
+import com.group38.ojcodesandbox.model.BatchExecResult;
+import com.group38.ojcodesandbox.model.BatchSubmission;
+import com.group38.ojcodesandbox.model.ExecCodeResponse;
+import com.group38.ojcodesandbox.model.RunInput;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量执行
+ * <p>
+ * 同一道题的多份提交只整理一次输入，各提交分别编译执行，执行名额与同步接口共用请求准入的上限；
+ * 单份提交出错只影响它自己的结果
+ */
+@Component
+@Slf4j
+public class BatchExecutor {
+
+    @Resource
+    private BatchConfig batchConfig;
+
+    @Resource
+    private JavaSandBox javaSandBox;
+
+    @Resource
+    private AdmissionController admissionController;
+
+    private ThreadPoolExecutor executor;
+
+    //所有批次中尚未完成的提交数
+    private final AtomicInteger pending = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        //排队的提交数由 pending 限制，这里的队列不再设上限
+        executor = new ThreadPoolExecutor(batchConfig.getThreads(), batchConfig.getThreads(), 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "batch-exec-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 执行一批提交，全部完成后按提交顺序返回结果
+     *
+     * @param batchExecCodeRequest
+     * @return
+     * @throws AdmissionRejectedException 等待执行的提交已满
+     */
+    public BatchExecCodeResponse execute(BatchExecCodeRequest batchExecCodeRequest) {
+        List<BatchSubmission> submissions = batchExecCodeRequest.getSubmissions();
+        if (submissions == null || submissions.isEmpty()) {
+            return getErrorResponse("提交列表为空");
+        }
+        if (submissions.size() > batchConfig.getMaxSubmissions()) {
+            return getErrorResponse("单批最多 " + batchConfig.getMaxSubmissions() + " 份提交");
+        }
+        //整理一次输入，所有提交共用
+        List<RunInput> runInputs;
+        try {
+            runInputs = javaSandBox.resolveInputs(batchExecCodeRequest.toExecCodeRequest());
+        } catch (IllegalArgumentException e) {
+            return getErrorResponse(e.getMessage());
+        }
+
+        int count = submissions.size();
+        if (pending.addAndGet(count) > batchConfig.getMaxPending()) {
+            pending.addAndGet(-count);
+            throw new AdmissionRejectedException("沙箱繁忙，批量任务已满", admissionController.getStats().getRetryAfter());
+        }
+        boolean stopOnFirstFailure = Boolean.TRUE.equals(batchExecCodeRequest.getStopOnFirstFailure());
+        List<Future<ExecCodeResponse>> futures = new ArrayList<>(count);
+        try {
+            for (BatchSubmission submission : submissions) {
+                futures.add(executor.submit(() -> run(submission, runInputs, stopOnFirstFailure)));
+            }
+            List<BatchExecResult> resultList = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                resultList.add(new BatchExecResult(submissions.get(i).getId(), await(futures.get(i))));
+            }
+            BatchExecCodeResponse batchExecCodeResponse = new BatchExecCodeResponse();
+            batchExecCodeResponse.setMessage("ok");
+            batchExecCodeResponse.setStatus(1);
+            batchExecCodeResponse.setResultList(resultList);
+            return batchExecCodeResponse;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return getErrorResponse("沙箱关闭");
+        } finally {
+            //调用方已放弃（如请求被中断）时取消尚未执行的提交
+            futures.forEach(future -> future.cancel(true));
+            pending.addAndGet(-count);
+        }
+    }
+
+    public int getPending() {
+        return pending.get();
+    }
+
+    private ExecCodeResponse run(BatchSubmission submission, List<RunInput> runInputs, boolean stopOnFirstFailure)
+            throws InterruptedException {
+        try (AdmissionController.Permit permit = admissionController.acquire()) {
+            return javaSandBox.execCode(submission.getLang(), submission.getCode(), runInputs, stopOnFirstFailure, CaseListener.NONE);
+        }
+    }
+
+    private ExecCodeResponse await(Future<ExecCodeResponse> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            log.error("batch submission error", e.getCause());
+            return javaSandBox.getErrorResponse(e.getCause());
+        }
+    }
+
+    private BatchExecCodeResponse getErrorResponse(String message) {
+        BatchExecCodeResponse batchExecCodeResponse = new BatchExecCodeResponse();
+        batchExecCodeResponse.setMessage(message);
+        //表示代码沙箱错误
+        batchExecCodeResponse.setStatus(2);
+        batchExecCodeResponse.setResultList(new ArrayList<>());
+        return batchExecCodeResponse;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
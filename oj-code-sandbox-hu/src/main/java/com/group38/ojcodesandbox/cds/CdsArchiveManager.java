@@ -0,0 +1,250 @@
+package com.group38.ojcodesandbox.cds;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.group38.ojcodesandbox.compile.CompileResult;
+import com.group38.ojcodesandbox.compile.InMemoryJavaCompiler;
+import com.group38.ojcodesandbox.config.CdsConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 类数据共享（AppCDS）归档管理
+ * <p>
+ * 运行一个使用常见输入输出、集合和格式化类的预热程序，记录加载的 JDK 类并生成归档，
+ * 用户代码的 java 进程启动时直接映射归档，省去这些类的解析和校验；
+ * 归档按 JDK 路径、版本和模块文件命名，JDK 变化后自动重新生成，生成完成前照常启动
+ */
+@Component
+@Slf4j
+public class CdsArchiveManager {
+
+    private static final String ARCHIVE_PREFIX = "runner-";
+
+    private static final String ARCHIVE_SUFFIX = ".jsa";
+
+    private static final String DUMP_DIR_PREFIX = "dump-";
+
+    private static final String WARMUP_CLASS_NAME = "Main";
+
+    //预热程序：覆盖题解常用的输入输出、集合、字符串格式化和 lambda
+    private static final String WARMUP_CODE = String.join("\n",
+            "import java.io.*;",
+            "import java.util.*;",
+            "import java.util.stream.*;",
+            "public class Main {",
+            "    public static void main(String[] args) throws Exception {",
+            "        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));",
+            "        String line = reader.readLine();",
+            "        Scanner scanner = new Scanner(line);",
+            "        List<Integer> list = new ArrayList<>();",
+            "        while (scanner.hasNextInt()) {",
+            "            list.add(scanner.nextInt());",
+            "        }",
+            "        StringTokenizer tokenizer = new StringTokenizer(line);",
+            "        while (tokenizer.hasMoreTokens()) {",
+            "            list.add(Integer.parseInt(tokenizer.nextToken()));",
+            "        }",
+            "        Collections.sort(list);",
+            "        Map<Integer, Long> map = new HashMap<>();",
+            "        TreeMap<Integer, Integer> treeMap = new TreeMap<>();",
+            "        Deque<Integer> deque = new ArrayDeque<>();",
+            "        PriorityQueue<Integer> queue = new PriorityQueue<>(Comparator.reverseOrder());",
+            "        Set<Integer> set = new LinkedHashSet<>();",
+            "        for (int value : list) {",
+            "            map.merge(value, 1L, Long::sum);",
+            "            treeMap.put(value, value);",
+            "            deque.push(value);",
+            "            queue.offer(value);",
+            "            set.add(value);",
+            "        }",
+            "        int[] array = list.stream().mapToInt(Integer::intValue).toArray();",
+            "        Arrays.sort(array);",
+            "        long sum = Arrays.stream(array).asLongStream().sum();",
+            "        String joined = list.stream().map(String::valueOf).collect(Collectors.joining(\" \"));",
+            "        StringBuilder builder = new StringBuilder();",
+            "        builder.append(String.format(\"%d %.2f %s%n\", sum, sum / 3.0, joined));",
+            "        builder.append(map).append(treeMap.firstKey()).append(deque.peek()).append(queue.poll()).append(set.size());",
+            "        PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)));",
+            "        writer.println(builder);",
+            "        writer.printf(\"%s%n\", Math.max(Long.MAX_VALUE / 2, Math.abs(-sum)));",
+            "        writer.flush();",
+            "        System.out.println(new java.math.BigInteger(String.valueOf(sum)).pow(3));",
+            "    }",
+            "}");
+
+    private static final String WARMUP_INPUT = "3 1 2\n";
+
+    @Resource
+    private CdsConfig cdsConfig;
+
+    @Resource
+    private InMemoryJavaCompiler inMemoryJavaCompiler;
+
+    private File archive;
+
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        if (!cdsConfig.isEnabled()) {
+            return;
+        }
+        archive = new File(cdsConfig.getArchiveDir(), ARCHIVE_PREFIX + jdkKey() + ARCHIVE_SUFFIX);
+        //生成归档需要启动两次 JVM，放到后台进行，不拖慢沙箱启动
+        Thread thread = new Thread(this::ensureArchive, "cds-archive-dump");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 确保当前 JDK 的归档存在，不存在时生成
+     *
+     * @return 归档是否可用
+     */
+    public synchronized boolean ensureArchive() {
+        if (ready || archive == null) {
+            return ready;
+        }
+        if (!archive.isFile()) {
+            try {
+                dump();
+            } catch (Exception e) {
+                log.error("dump cds archive error, archive = {}", archive, e);
+                return false;
+            }
+        }
+        ready = true;
+        log.info("cds archive = {}", archive);
+        return true;
+    }
+
+    /**
+     * 执行用户代码的 java 路径，与沙箱使用同一个 JDK，保证归档和字节码版本匹配
+     *
+     * @return
+     */
+    public String getJavaCommand() {
+        return System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    }
+
+    /**
+     * 使用归档的参数，归档还没生成或未启用时为空
+     *
+     * @return
+     */
+    public List<String> getArchiveOptions() {
+        if (!ready) {
+            return new ArrayList<>();
+        }
+        //-Xshare:auto：归档与 JDK 不匹配时静默退回不使用归档
+        return new ArrayList<>(Arrays.asList("-Xshare:auto", "-XX:SharedArchiveFile=" + archive.getAbsolutePath()));
+    }
+
+    /**
+     * 每个用例启动 java 进程时附加的参数：启动参数和归档参数
+     *
+     * @return
+     */
+    public List<String> getRunOptions() {
+        List<String> options = new ArrayList<>(StrUtil.splitTrim(cdsConfig.getRunOptions(), ' '));
+        options.addAll(getArchiveOptions());
+        return options;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    //运行预热程序记录加载的类，只保留 JDK 的类后生成归档，写入临时文件后再改名，避免用到写了一半的归档
+    private void dump() throws IOException, InterruptedException {
+        File archiveDir = FileUtil.mkdir(cdsConfig.getArchiveDir());
+        //上次生成到一半进程就退出时留下的临时目录
+        for (File old : FileUtil.ls(archiveDir.getAbsolutePath())) {
+            if (old.isDirectory() && old.getName().startsWith(DUMP_DIR_PREFIX)) {
+                FileUtil.del(old);
+            }
+        }
+        File workDir = FileUtil.mkdir(new File(archiveDir, DUMP_DIR_PREFIX + System.nanoTime()));
+        try {
+            CompileResult compileResult = inMemoryJavaCompiler.compile(WARMUP_CODE);
+            if (!compileResult.isSuccess()) {
+                throw new IllegalStateException("预热程序编译失败：" + compileResult.getMessage());
+            }
+            for (Map.Entry<String, byte[]> entry : compileResult.getClasses().entrySet()) {
+                FileUtil.writeBytes(entry.getValue(), new File(workDir, entry.getKey().replace('.', File.separatorChar) + ".class"));
+            }
+            File classList = new File(workDir, "classes.lst");
+            File input = FileUtil.writeUtf8String(WARMUP_INPUT, new File(workDir, "input.txt"));
+            ProcessBuilder warmup = new ProcessBuilder(getJavaCommand(), "-Xshare:off",
+                    "-XX:DumpLoadedClassList=" + classList.getAbsolutePath(),
+                    "-cp", workDir.getAbsolutePath(), WARMUP_CLASS_NAME)
+                    .redirectInput(input);
+            run(warmup, workDir);
+            //归档不带 classpath，只包含 JDK 的类，这样任意 classpath 的 java 进程都能使用
+            List<String> jdkClasses = FileUtil.readLines(classList, StandardCharsets.UTF_8).stream()
+                    .filter(line -> !isWarmupClass(line))
+                    .collect(Collectors.toList());
+            FileUtil.writeLines(jdkClasses, classList, StandardCharsets.UTF_8);
+            File tmpArchive = new File(workDir, archive.getName());
+            ProcessBuilder dump = new ProcessBuilder(getJavaCommand(), "-Xshare:dump",
+                    "-XX:SharedClassListFile=" + classList.getAbsolutePath(),
+                    "-XX:SharedArchiveFile=" + tmpArchive.getAbsolutePath());
+            run(dump, workDir);
+            if (!tmpArchive.isFile()) {
+                throw new IllegalStateException("没有生成归档文件");
+            }
+            //删除旧 JDK 的归档
+            for (File old : FileUtil.ls(archiveDir.getAbsolutePath())) {
+                if (old.isFile() && old.getName().startsWith(ARCHIVE_PREFIX) && old.getName().endsWith(ARCHIVE_SUFFIX)) {
+                    FileUtil.del(old);
+                }
+            }
+            FileUtil.move(tmpArchive, archive, true);
+        } finally {
+            FileUtil.del(workDir);
+        }
+    }
+
+    private void run(ProcessBuilder processBuilder, File workDir) throws IOException, InterruptedException {
+        File output = new File(workDir, "dump.log");
+        Process process = processBuilder.redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(output))
+                .start();
+        if (!process.waitFor(cdsConfig.getDumpTimeout(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("生成归档超时");
+        }
+        if (process.exitValue() != 0) {
+            throw new IllegalStateException("生成归档失败，exitValue = " + process.exitValue() + "，" + FileUtil.readUtf8String(output));
+        }
+    }
+
+    //类列表中属于预热程序的行：类本身，以及以它为宿主的 lambda 记录
+    private static boolean isWarmupClass(String line) {
+        return line.equals(WARMUP_CLASS_NAME) || line.startsWith(WARMUP_CLASS_NAME + " ")
+                || line.startsWith("@lambda-proxy " + WARMUP_CLASS_NAME + " ");
+    }
+
+    //JDK 标识：路径、版本和模块文件的大小、修改时间，原地升级 JDK 也会变化
+    private static String jdkKey() {
+        String javaHome = System.getProperty("java.home");
+        File modules = new File(javaHome, "lib" + File.separator + "modules");
+        String key = javaHome + "|" + System.getProperty("java.vm.version") + "|" + System.getProperty("java.runtime.version")
+                + "|" + modules.length() + "|" + modules.lastModified() + "|" + DigestUtil.sha256Hex(WARMUP_CODE);
+        return DigestUtil.sha256Hex(key).substring(0, 16);
+    }
+}
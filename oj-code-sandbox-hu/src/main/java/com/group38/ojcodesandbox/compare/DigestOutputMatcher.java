@@ -0,0 +1,125 @@
+package com.group38.ojcodesandbox.compare;
+
+import cn.hutool.core.util.HexUtil;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 按摘要比对：边读取边计算规范化输出的 SHA-256，与期望输出的摘要比较
+ * <p>
+ * 调用方不需要发送完整的期望输出，但不一致时给不出差异片段；
+ * 换行要等到后面出现内容才计入，行内空白先暂存，空白过长时改为保存摘要的快照，遇到换行时回退
+ */
+public class DigestOutputMatcher extends OutputMatcher {
+
+    //暂存的空白最多字节数，超过后改用快照
+    private static final int BLANK_BUFFER_SIZE = 64;
+
+    private final String expectedDigest;
+
+    private MessageDigest digest;
+
+    //尚未计入的换行数
+    private int pendingNewlines;
+
+    private final byte[] blankBuffer = new byte[BLANK_BUFFER_SIZE];
+
+    private int blankLen;
+
+    //空白开始前的摘要，不为空时空白和前面的换行已经计入
+    private MessageDigest snapshot;
+
+    private boolean matched;
+
+    public DigestOutputMatcher(String expectedDigest) {
+        this.expectedDigest = expectedDigest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void update(byte[] bytes, int off, int len) {
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            byte b = bytes[i];
+            if (b == '\n') {
+                if (snapshot != null) {
+                    digest = snapshot;
+                    snapshot = null;
+                }
+                blankLen = 0;
+                pendingNewlines++;
+                i++;
+            } else if (isBlank(b)) {
+                appendBlank(b);
+                i++;
+            } else {
+                //连续的非空白字符一次计入
+                int start = i;
+                while (i < end && bytes[i] != '\n' && !isBlank(bytes[i])) {
+                    i++;
+                }
+                commitBlank();
+                digest.update(bytes, start, i - start);
+            }
+        }
+    }
+
+    @Override
+    public void finish() {
+        if (snapshot != null) {
+            digest = snapshot;
+            snapshot = null;
+        }
+        matched = HexUtil.encodeHexStr(digest.digest()).equalsIgnoreCase(expectedDigest);
+    }
+
+    @Override
+    public boolean isMatched() {
+        return matched;
+    }
+
+    private void appendBlank(byte b) {
+        if (snapshot == null && blankLen < BLANK_BUFFER_SIZE) {
+            blankBuffer[blankLen++] = b;
+            return;
+        }
+        if (snapshot == null) {
+            snapshot = cloneDigest();
+            updateNewlines();
+            digest.update(blankBuffer, 0, blankLen);
+        }
+        digest.update(b);
+        blankLen++;
+    }
+
+    //后面出现了内容：前面的换行和空白都属于规范化后的输出
+    private void commitBlank() {
+        if (snapshot == null) {
+            updateNewlines();
+            digest.update(blankBuffer, 0, blankLen);
+        }
+        snapshot = null;
+        pendingNewlines = 0;
+        blankLen = 0;
+    }
+
+    private void updateNewlines() {
+        for (int i = 0; i < pendingNewlines; i++) {
+            digest.update((byte) '\n');
+        }
+    }
+
+    private MessageDigest cloneDigest() {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
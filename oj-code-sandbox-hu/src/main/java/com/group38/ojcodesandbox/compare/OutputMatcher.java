@@ -0,0 +1,101 @@
+package com.group38.ojcodesandbox.compare;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.group38.ojcodesandbox.model.RunInput;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 输出比对器：读取程序标准输出的同时与期望输出比对，不保存输出内容
+ * <p>
+ * 比对时忽略每行末尾的空白（含 \r）和输出末尾的空行，其他内容逐字节比较
+ */
+public abstract class OutputMatcher {
+
+    /**
+     * 比对一段输出
+     *
+     * @param bytes
+     * @param off
+     * @param len
+     */
+    public abstract void update(byte[] bytes, int off, int len);
+
+    /**
+     * 输出结束，之后才能取比对结果
+     */
+    public abstract void finish();
+
+    public abstract boolean isMatched();
+
+    /**
+     * 第一处不一致的差异片段，不支持或一致时为空
+     *
+     * @return
+     */
+    public String getDiff() {
+        return null;
+    }
+
+    /**
+     * 按用例创建比对器，不需要比对或没有期望输出时返回 null
+     *
+     * @param runInput
+     * @return
+     */
+    public static OutputMatcher of(RunInput runInput) {
+        if (!runInput.isCompareOutput()) {
+            return null;
+        }
+        if (runInput.getExpectedOutput() != null) {
+            return new StreamingOutputComparator(runInput.getExpectedOutput());
+        }
+        if (runInput.getExpectedDigest() != null) {
+            return new DigestOutputMatcher(runInput.getExpectedDigest());
+        }
+        return null;
+    }
+
+    /**
+     * 规范化期望输出：去掉每行末尾的空白和末尾的空行，按 \n 连接
+     *
+     * @param output
+     * @return
+     */
+    public static String normalize(String output) {
+        List<String> lines = new ArrayList<>(Arrays.asList(output.split("\n", -1)));
+        lines.replaceAll(OutputMatcher::stripTrailing);
+        while (!lines.isEmpty() && lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+        return String.join("\n", lines);
+    }
+
+    /**
+     * 期望输出摘要：规范化后 UTF-8 编码的 SHA-256（十六进制）
+     *
+     * @param output
+     * @return
+     */
+    public static String digest(String output) {
+        return DigestUtil.sha256Hex(normalize(output));
+    }
+
+    static boolean isBlank(byte b) {
+        return isBlank((char) b);
+    }
+
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+    private static String stripTrailing(String line) {
+        int end = line.length();
+        while (end > 0 && isBlank(line.charAt(end - 1))) {
+            end--;
+        }
+        return line.substring(0, end);
+    }
+}
@@ -0,0 +1,176 @@
+package com.group38.ojcodesandbox.compare;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 与期望输出逐行逐字节比对
+ * <p>
+ * 只保存期望输出和当前行开头的一小段实际输出（用于差异片段），内存占用与程序输出的大小无关；
+ * 行内的空白先记下长度和是否与期望一致，后面出现非空白字符时才确认，遇到换行则视为行末空白忽略
+ */
+public class StreamingOutputComparator extends OutputMatcher {
+
+    //差异片段中每行最多保留的字节数
+    private static final int SNIPPET_LIMIT = 64;
+
+    private static final String NONE = "（无）";
+
+    private final byte[][] expectedLines;
+
+    //当前行号，从 0 开始
+    private int line;
+
+    //当前行已匹配的字节数
+    private int pos;
+
+    //当前行尚未确认的连续空白
+    private int blankLen;
+
+    private boolean blankMatched = true;
+
+    //当前行是否已有输出（含空白）
+    private boolean lineStarted;
+
+    //当前行开头的一段实际输出
+    private final byte[] head = new byte[SNIPPET_LIMIT];
+
+    private int headLen;
+
+    private boolean headTruncated;
+
+    //第一处不一致的行号，-1 表示尚未发现
+    private int mismatchLine = -1;
+
+    //发现不一致后继续记下该行剩余的实际输出，直到换行
+    private boolean capturing;
+
+    //期望的行在实际输出中不存在
+    private boolean actualMissing;
+
+    public StreamingOutputComparator(String expectedOutput) {
+        String normalized = normalize(expectedOutput);
+        String[] lines = normalized.isEmpty() ? new String[0] : normalized.split("\n", -1);
+        expectedLines = new byte[lines.length][];
+        for (int i = 0; i < lines.length; i++) {
+            expectedLines[i] = lines[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public void update(byte[] bytes, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            byte b = bytes[i];
+            if (mismatchLine >= 0) {
+                //已经不一致，只补全差异片段，其余输出直接丢弃
+                if (!capturing) {
+                    return;
+                }
+                if (b == '\n') {
+                    capturing = false;
+                } else {
+                    appendHead(b);
+                }
+                continue;
+            }
+            if (b == '\n') {
+                endLine();
+                continue;
+            }
+            appendHead(b);
+            lineStarted = true;
+            if (line >= expectedLines.length) {
+                //期望输出之后只允许空白
+                if (!isBlank(b)) {
+                    mismatch(true);
+                }
+                continue;
+            }
+            byte[] expected = expectedLines[line];
+            if (isBlank(b)) {
+                int index = pos + blankLen;
+                blankMatched &= index < expected.length && expected[index] == b;
+                blankLen++;
+                continue;
+            }
+            if (!blankMatched) {
+                mismatch(true);
+                continue;
+            }
+            pos += blankLen;
+            blankLen = 0;
+            if (pos < expected.length && expected[pos] == b) {
+                pos++;
+            } else {
+                mismatch(true);
+            }
+        }
+    }
+
+    @Override
+    public void finish() {
+        capturing = false;
+        if (mismatchLine >= 0) {
+            return;
+        }
+        //最后一行没有换行
+        if (lineStarted) {
+            endLine();
+        }
+        if (mismatchLine < 0 && line < expectedLines.length) {
+            actualMissing = true;
+            mismatch(false);
+        }
+    }
+
+    @Override
+    public boolean isMatched() {
+        return mismatchLine < 0;
+    }
+
+    @Override
+    public String getDiff() {
+        if (mismatchLine < 0) {
+            return null;
+        }
+        String expected = mismatchLine < expectedLines.length
+                ? snippet(expectedLines[mismatchLine], expectedLines[mismatchLine].length)
+                : NONE;
+        String actual = actualMissing ? NONE : snippet(head, headLen) + (headTruncated ? "..." : "");
+        return "第 " + (mismatchLine + 1) + " 行不一致\n期望：" + expected + "\n实际：" + actual;
+    }
+
+    //行末：去掉末尾空白后必须正好匹配完期望的一行
+    private void endLine() {
+        if (line < expectedLines.length && pos != expectedLines[line].length) {
+            mismatch(false);
+            return;
+        }
+        line++;
+        pos = 0;
+        blankLen = 0;
+        blankMatched = true;
+        lineStarted = false;
+        headLen = 0;
+        headTruncated = false;
+    }
+
+    private void mismatch(boolean capture) {
+        mismatchLine = line;
+        capturing = capture;
+    }
+
+    private void appendHead(byte b) {
+        if (headLen < SNIPPET_LIMIT) {
+            head[headLen++] = b;
+        } else {
+            headTruncated = true;
+        }
+    }
+
+    private static String snippet(byte[] bytes, int len) {
+        if (len <= SNIPPET_LIMIT) {
+            return new String(bytes, 0, len, StandardCharsets.UTF_8);
+        }
+        return new String(bytes, 0, SNIPPET_LIMIT, StandardCharsets.UTF_8) + "...";
+    }
+}
@@ -0,0 +1,63 @@
+package com.group38.ojcodesandbox.compile;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 编译结果 LRU 缓存，键为源码与编译参数的 SHA-256
+ * <p>
+ * 编译产物在磁盘上时，由淘汰回调删除被淘汰的产物
+ */
+public class CompileCache {
+
+    private final LinkedHashMap<String, CompileResult> cache;
+
+    private long hits;
+
+    private long misses;
+
+    public CompileCache(int maxSize) {
+        this(maxSize, compileResult -> {
+        });
+    }
+
+    public CompileCache(int maxSize, Consumer<CompileResult> onEvict) {
+        this.cache = new LinkedHashMap<String, CompileResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompileResult> eldest) {
+                if (size() > maxSize) {
+                    onEvict.accept(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized CompileResult get(String key) {
+        CompileResult compileResult = cache.get(key);
+        if (compileResult == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return compileResult;
+    }
+
+    public synchronized void put(String key, CompileResult compileResult) {
+        cache.put(key, compileResult);
+    }
+
+    public synchronized int size() {
+        return cache.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,50 @@
+package com.group38.ojcodesandbox.compile;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.File;
+import java.util.Map;
+
+/**
+ * 编译结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompileResult {
+
+    /**
+     * 是否编译成功
+     */
+    private boolean success;
+
+    /**
+     * 编译生成的字节码（类名 -> 字节码），编译失败时为空
+     */
+    private Map<String, byte[]> classes;
+
+    /**
+     * 编译诊断信息
+     */
+    private String message;
+
+    /**
+     * 编译生成的可执行文件（C/C++/Go）或检查过语法的源码文件（Python），Java 为空
+     */
+    private File artifact;
+
+    /**
+     * 是否因编译超时失败，超时可能是机器繁忙造成的，这样的结果不缓存
+     */
+    private boolean timeout;
+
+    public CompileResult(boolean success, Map<String, byte[]> classes, String message) {
+        this(success, classes, message, null, false);
+    }
+
+    public CompileResult(boolean success, Map<String, byte[]> classes, String message, File artifact) {
+        this(success, classes, message, artifact, false);
+    }
+}
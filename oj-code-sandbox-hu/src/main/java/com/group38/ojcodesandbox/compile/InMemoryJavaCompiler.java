@@ -0,0 +1,440 @@
+package com.group38.ojcodesandbox.compile;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.group38.ojcodesandbox.config.CompileConfig;
+import com.group38.ojcodesandbox.config.StoreConfig;
+import com.group38.ojcodesandbox.model.ExecuteMessage;
+import com.group38.ojcodesandbox.scheduler.DeadlineManager;
+import com.group38.ojcodesandbox.scheduler.DeadlineManager.Deadline;
+import com.group38.ojcodesandbox.store.ArtifactStore;
+import com.group38.ojcodesandbox.utils.ProcessUtils;
+import com.group38.ojcodesandbox.workspace.Workspace;
+import com.group38.ojcodesandbox.workspace.WorkspaceManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 进程内 Java 编译器
+ * <p>
+ * 通过 javax.tools 在沙箱服务进程内编译，源码和字节码都只在内存中，不落盘；
+ * 编译结果按源码、编译参数与 JDK 版本的 SHA-256 缓存，相同代码重复提交时直接命中缓存；
+ * 编译成功的字节码同时写入持久化存储，沙箱重启后从存储中读取，启动时预先载入最近使用的。
+ * 编译在固定大小的线程池中进行并有超时时间，关闭注解处理、classpath 为空，超时的编译被放弃，不缓存结果。
+ * javac 不响应中断，被放弃的编译仍占用线程和内存直到结束；线程全部被这样的编译占住时，
+ * 新的编译改用外部 javac 进程，超时直接结束进程，不再继续占用沙箱服务进程的线程和内存
+ */
+@Component
+@Slf4j
+public class InMemoryJavaCompiler {
+
+    private static final String MAIN_CLASS_NAME = "Main";
+
+    //持久化存储中的语言标识
+    private static final String LANGUAGE = "java";
+
+    @Resource
+    private CompileConfig compileConfig;
+
+    @Resource
+    private StoreConfig storeConfig;
+
+    @Resource
+    private ArtifactStore artifactStore;
+
+    @Resource
+    private WorkspaceManager workspaceManager;
+
+    @Resource
+    private DeadlineManager deadlineManager;
+
+    private JavaCompiler javaCompiler;
+
+    private CompileCache compileCache;
+
+    //编译线程池，超时的编译被放弃，线程在 javac 结束后才能复用
+    private ExecutorService compileExecutor;
+
+    //超时被放弃但 javac 仍在执行的编译数
+    private final AtomicInteger abandoned = new AtomicInteger();
+
+    //正在编译中的任务，相同代码同时提交时只编译一次
+    private final Map<String, CompletableFuture<CompileResult>> compiling = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        javaCompiler = ToolProvider.getSystemJavaCompiler();
+        if (javaCompiler == null) {
+            throw new IllegalStateException("当前运行环境没有 Java 编译器，请使用 JDK 启动沙箱");
+        }
+        compileCache = new CompileCache(compileConfig.getCacheSize());
+        AtomicInteger threadIndex = new AtomicInteger();
+        compileExecutor = Executors.newFixedThreadPool(compileConfig.getThreads(), r -> {
+            Thread thread = new Thread(r, "javac-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        warmUp();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        compileExecutor.shutdownNow();
+    }
+
+    /**
+     * 编译用户代码
+     *
+     * @param code 用户代码
+     * @return
+     */
+    public CompileResult compile(String code) {
+        String key = cacheKey(code);
+        CompileResult cached = compileCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<CompileResult> future = new CompletableFuture<>();
+        CompletableFuture<CompileResult> running = compiling.putIfAbsent(key, future);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            CompileResult compileResult = loadStored(key);
+            if (compileResult == null) {
+                compileResult = doCompile(code);
+                if (compileResult.isSuccess()) {
+                    artifactStore.put(LANGUAGE, key, encodeClasses(compileResult.getClasses()));
+                }
+            }
+            if (!compileResult.isTimeout()) {
+                compileCache.put(key, compileResult);
+            }
+            future.complete(compileResult);
+            return compileResult;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            compiling.remove(key);
+        }
+    }
+
+    public CompileCache getCompileCache() {
+        return compileCache;
+    }
+
+    private String cacheKey(String code) {
+        return DigestUtil.sha256Hex(System.getProperty("java.runtime.version") + " "
+                + String.join(" ", compileOptions()) + "\u0000" + code);
+    }
+
+    //不执行注解处理器，classpath 为空，用户代码只能依赖 JDK
+    private List<String> compileOptions() {
+        List<String> options = new ArrayList<>();
+        options.add("-proc:none");
+        options.add("-classpath");
+        options.add("");
+        options.addAll(compileConfig.getOptions());
+        return options;
+    }
+
+    //从旧到新载入最近使用的字节码，载入后在缓存中的先后与存储中一致
+    private void warmUp() {
+        List<String> keys = artifactStore.recentKeys(LANGUAGE, Math.min(storeConfig.getWarmUpSize(), compileConfig.getCacheSize()));
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            CompileResult compileResult = loadStored(keys.get(i));
+            if (compileResult != null) {
+                compileCache.put(keys.get(i), compileResult);
+            }
+        }
+        if (!keys.isEmpty()) {
+            log.info("warm up java compile cache, entries = {}", compileCache.size());
+        }
+    }
+
+    private CompileResult loadStored(String key) {
+        byte[] data = artifactStore.get(key);
+        if (data == null) {
+            return null;
+        }
+        try {
+            return new CompileResult(true, Collections.unmodifiableMap(decodeClasses(data)), "");
+        } catch (IOException e) {
+            log.warn("decode stored classes error, key = {}", key, e);
+            return null;
+        }
+    }
+
+    //字节码序列化：类数，逐个类名和字节码
+    private static byte[] encodeClasses(Map<String, byte[]> classes) {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(byteArrayOutputStream)) {
+            out.writeInt(classes.size());
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    private static Map<String, byte[]> decodeClasses(byte[] data) throws IOException {
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                String className = in.readUTF();
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                classes.put(className, bytes);
+            }
+        }
+        return classes;
+    }
+
+    //在编译线程池中编译，超过超时时间（包括排队时间）时放弃；线程全部被放弃的编译占住时改用外部进程
+    private CompileResult doCompile(String code) {
+        if (abandoned.get() >= compileConfig.getThreads()) {
+            return compileExternally(code);
+        }
+        CompileTask compileTask = new CompileTask(code);
+        Future<CompileResult> task = compileExecutor.submit(compileTask);
+        try {
+            return task.get(compileConfig.getTimeout(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            compileTask.abandon();
+            return timeoutResult();
+        } catch (InterruptedException e) {
+            task.cancel(true);
+            compileTask.abandon();
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待编译被中断", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("编译错误", e.getCause());
+        }
+    }
+
+    private static CompileResult timeoutResult() {
+        return new CompileResult(false, Collections.emptyMap(), "编译超时", null, true);
+    }
+
+    //用外部 javac 进程编译，超时结束进程，字节码从工作目录读回内存
+    private CompileResult compileExternally(String code) {
+        try (Workspace workspace = workspaceManager.acquire()) {
+            File dir = workspace.getDir();
+            String sourceFileName = MAIN_CLASS_NAME + JavaFileObject.Kind.SOURCE.extension;
+            FileUtil.writeString(code, new File(dir, sourceFileName), StandardCharsets.UTF_8);
+            List<String> compileCmd = new ArrayList<>();
+            compileCmd.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "javac");
+            for (String option : StrUtil.splitTrim(compileConfig.getFallbackJvmOptions(), ' ')) {
+                compileCmd.add("-J" + option);
+            }
+            compileCmd.addAll(Arrays.asList("-encoding", "UTF-8", "-d", "classes"));
+            compileCmd.addAll(compileOptions());
+            compileCmd.add(sourceFileName);
+            Process compileProcess = new ProcessBuilder(compileCmd).directory(dir).start();
+            Deadline deadline = deadlineManager.register(compileProcess, compileConfig.getTimeout());
+            ExecuteMessage executeMessage;
+            try {
+                executeMessage = ProcessUtils.runProcessAndGetMessage(compileProcess, "编译");
+            } finally {
+                deadline.cancel();
+            }
+            if (deadline.isExpired()) {
+                return timeoutResult();
+            }
+            if (executeMessage.getExitValue() == null || executeMessage.getExitValue() != 0) {
+                String message = StrUtil.isNotBlank(executeMessage.getErrorMessage())
+                        ? executeMessage.getErrorMessage()
+                        : executeMessage.getMessage();
+                return new CompileResult(false, Collections.emptyMap(), message);
+            }
+            //类名按字节码文件在输出目录中的相对路径还原
+            Map<String, byte[]> classes = new LinkedHashMap<>();
+            File classDir = new File(dir, "classes");
+            for (File classFile : FileUtil.loopFiles(classDir, file -> file.getName().endsWith(JavaFileObject.Kind.CLASS.extension))) {
+                String path = FileUtil.subPath(classDir.getAbsolutePath(), classFile.getAbsolutePath());
+                String className = StrUtil.removeSuffix(path, JavaFileObject.Kind.CLASS.extension).replace(File.separatorChar, '.');
+                classes.put(className, FileUtil.readBytes(classFile));
+            }
+            return new CompileResult(true, Collections.unmodifiableMap(classes), "");
+        } catch (IOException e) {
+            throw new RuntimeException("编译错误", e);
+        }
+    }
+
+    private CompileResult compileInMemory(String code) {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager standardFileManager = javaCompiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+        MemoryFileManager fileManager = new MemoryFileManager(standardFileManager);
+        JavaFileObject source = new SourceFile(MAIN_CLASS_NAME, code);
+        try {
+            Boolean success = javaCompiler.getTask(null, fileManager, diagnostics, compileOptions(),
+                    null, Collections.singletonList(source)).call();
+            if (Boolean.TRUE.equals(success)) {
+                return new CompileResult(true, Collections.unmodifiableMap(fileManager.getClasses()), formatDiagnostics(diagnostics));
+            }
+            return new CompileResult(false, Collections.emptyMap(), formatDiagnostics(diagnostics));
+        } finally {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                log.warn("close file manager error", e);
+            }
+        }
+    }
+
+    private String formatDiagnostics(DiagnosticCollector<JavaFileObject> diagnostics) {
+        StringBuilder messageBuilder = new StringBuilder();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            messageBuilder.append(MAIN_CLASS_NAME).append(".java:").append(diagnostic.getLineNumber())
+                    .append(": ").append(diagnostic.getKind().toString().toLowerCase())
+                    .append(": ").append(diagnostic.getMessage(null)).append('\n');
+        }
+        return messageBuilder.toString();
+    }
+
+    //线程池中的一次编译，开始前被放弃的不再执行，开始后被放弃的在 javac 结束时从 abandoned 中减去
+    private class CompileTask implements Callable<CompileResult> {
+
+        private static final int PENDING = 0;
+
+        private static final int RUNNING = 1;
+
+        private static final int ABANDONED = 2;
+
+        private static final int DONE = 3;
+
+        private final String code;
+
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        CompileTask(String code) {
+            this.code = code;
+        }
+
+        @Override
+        public CompileResult call() {
+            if (!state.compareAndSet(PENDING, RUNNING)) {
+                return null;
+            }
+            try {
+                return compileInMemory(code);
+            } finally {
+                if (state.getAndSet(DONE) == ABANDONED) {
+                    abandoned.decrementAndGet();
+                }
+            }
+        }
+
+        void abandon() {
+            if (state.compareAndSet(RUNNING, ABANDONED)) {
+                abandoned.incrementAndGet();
+            } else {
+                state.compareAndSet(PENDING, DONE);
+            }
+        }
+    }
+
+    //内存中的源码文件
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        private final String code;
+
+        SourceFile(String className, String code) {
+            super(URI.create("string:///" + className + Kind.SOURCE.extension), Kind.SOURCE);
+            this.code = code;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return code;
+        }
+    }
+
+    //内存中的字节码文件
+    private static class ClassFile extends SimpleJavaFileObject {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        ClassFile(String className) {
+            super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return bytes;
+        }
+    }
+
+    //把编译输出重定向到内存
+    private static class MemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+
+        private final Map<String, ClassFile> classFiles = new LinkedHashMap<>();
+
+        MemoryFileManager(JavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            ClassFile classFile = new ClassFile(className);
+            classFiles.put(className, classFile);
+            return classFile;
+        }
+
+        Map<String, byte[]> getClasses() {
+            Map<String, byte[]> classes = new LinkedHashMap<>();
+            for (Map.Entry<String, ClassFile> entry : classFiles.entrySet()) {
+                classes.put(entry.getKey(), entry.getValue().bytes.toByteArray());
+            }
+            return classes;
+        }
+    }
+}
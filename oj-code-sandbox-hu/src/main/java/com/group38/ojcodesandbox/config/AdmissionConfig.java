@@ -0,0 +1,34 @@
+package com.group38.ojcodesandbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 请求准入配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.admission")
+@Data
+public class AdmissionConfig {
+
+    /**
+     * 同时执行的请求数上限
+     */
+    private int maxInFlight = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 排队等待的请求数上限，排满后直接拒绝
+     */
+    private int queueCapacity = 64;
+
+    /**
+     * 单个请求最长排队时间(ms)，超过后拒绝
+     */
+    private long maxWait = 10000;
+
+    /**
+     * 沙箱内部任务（异步任务、批量提交）最长排队时间(ms)，内部任务已经在各自的队列中等过，可以比请求等得更久
+     */
+    private long internalMaxWait = 60000;
+}
@@ -0,0 +1,29 @@
+package com.group38.ojcodesandbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 批量执行配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.batch")
+@Data
+public class BatchConfig {
+
+    /**
+     * 单批最多包含的提交数，更大的批次由调用方拆分
+     */
+    private int maxSubmissions = 1000;
+
+    /**
+     * 所有批次中等待和正在执行的提交数上限，超出时拒绝新的批次
+     */
+    private int maxPending = 5000;
+
+    /**
+     * 执行批量提交的线程数，实际并发仍受请求准入的上限控制
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+}
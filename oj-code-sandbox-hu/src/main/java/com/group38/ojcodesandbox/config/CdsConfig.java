@@ -0,0 +1,36 @@
+package com.group38.ojcodesandbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.File;
+
+/**
+ * 类数据共享（AppCDS）配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.cds")
+@Data
+public class CdsConfig {
+
+    /**
+     * 是否为执行用户代码的 JVM 生成并使用类数据共享归档
+     */
+    private boolean enabled = true;
+
+    /**
+     * 归档目录，归档按 JDK 版本命名，JDK 变化后重新生成并删除旧归档
+     */
+    private String archiveDir = System.getProperty("user.dir") + File.separator + "cds";
+
+    /**
+     * 生成归档的超时时间(ms)
+     */
+    private long dumpTimeout = 60000;
+
+    /**
+     * 每个用例启动 java 进程时附加的启动参数，以空格分隔
+     */
+    private String runOptions = "-XX:TieredStopAtLevel=1 -XX:+UseSerialGC -XX:-UsePerfData";
+}
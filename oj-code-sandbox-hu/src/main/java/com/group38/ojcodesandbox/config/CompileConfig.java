@@ -0,0 +1,42 @@
+package com.group38.ojcodesandbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 编译配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.compile")
+@Data
+public class CompileConfig {
+
+    /**
+     * 编译结果缓存的最大条目数
+     */
+    private int cacheSize = 512;
+
+    /**
+     * Java 编译的超时时间(ms)，包括等待编译线程的时间
+     */
+    private long timeout = 10000L;
+
+    /**
+     * 同时进行的 Java 编译数，编译在沙箱服务进程内进行，限制并发数也就限制了编译占用的内存
+     */
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * 编译线程全部被超时的编译占住时，改用外部 javac 进程编译，超时直接结束进程；该进程的 JVM 参数
+     */
+    private String fallbackJvmOptions = "-Xmx512m";
+
+    /**
+     * 额外的编译参数
+     */
+    private List<String> options = new ArrayList<>();
+}
@@ -0,0 +1,49 @@
+package com.group38.ojcodesandbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 心跳注册配置：开启后定期把节点状态上报给后端，后端据此在多个沙箱节点之间分配请求
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.heartbeat")
+@Data
+public class HeartbeatConfig {
+
+    /**
+     * 是否开启心跳注册
+     */
+    private boolean enabled = false;
+
+    /**
+     * 后端接收心跳的地址
+     */
+    private String backendUrl = "http://localhost:8121/api/sandbox/heartbeat";
+
+    /**
+     * 心跳间隔(ms)
+     */
+    private long interval = 5000;
+
+    /**
+     * 后端访问本节点的地址，为空时使用本机地址和服务端口
+     */
+    private String advertisedUrl;
+
+    /**
+     * 节点标识，为空时使用访问地址
+     */
+    private String nodeId;
+
+    /**
+     * 心跳请求的密钥，与后端配置一致
+     */
+    private String secret = "secretKey";
+
+    /**
+     * 心跳请求的超时时间(ms)
+     */
+    private int timeout = 2000;
+}
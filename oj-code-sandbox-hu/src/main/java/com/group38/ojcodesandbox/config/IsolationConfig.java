@@ -0,0 +1,51 @@
+package com.group38.ojcodesandbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 命名空间隔离配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.isolation")
+@Data
+public class IsolationConfig {
+
+    /**
+     * 是否让每个用例在新的 PID、挂载、网络、IPC、UTS 命名空间中执行，需要 root 或允许非特权用户命名空间
+     */
+    private boolean enabled = false;
+
+    /**
+     * 是否给每个用例挂载独立的 /tmp（tmpfs），执行完成后随命名空间一起销毁
+     */
+    private boolean privateTmp = true;
+
+    /**
+     * 独立 /tmp 的大小上限
+     */
+    private String tmpSize = "64m";
+
+    /**
+     * 新根目录的挂载点，每个用例在自己的挂载命名空间中把 tmpfs 挂到这里后切换根目录，不影响宿主机
+     */
+    private String rootDir = System.getProperty("java.io.tmpdir") + File.separator + "oj-sandbox-root";
+
+    /**
+     * 以只读方式带入新根目录的工具链路径（不存在的跳过，符号链接按原样重建），JDK 和类数据共享归档目录自动带入
+     */
+    private List<String> toolchainPaths = Arrays.asList("/usr", "/bin", "/sbin", "/lib", "/lib32", "/lib64",
+            "/etc/alternatives", "/etc/ld.so.cache", "/etc/localtime");
+
+    /**
+     * 执行用户程序的非特权用户和组，沙箱以 root 启动时切换；非 root 启动时用户命名空间中只映射了沙箱自身的用户，不切换
+     */
+    private int runUid = 65534;
+
+    private int runGid = 65534;
+}
@@ -0,0 +1,44 @@
+package com.group38.ojcodesandbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 异步执行任务配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.job")
+@Data
+public class JobConfig {
+
+    /**
+     * 执行异步任务的线程数，实际并发仍受请求准入的上限控制
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 等待执行的异步任务数上限，排满后拒绝提交
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * 执行完成的任务保留多久(ms)，过期后查询不到
+     */
+    private long retention = 10 * 60 * 1000L;
+
+    /**
+     * 订阅执行结果的连接最长保持时间(ms)
+     */
+    private long sseTimeout = 5 * 60 * 1000L;
+
+    /**
+     * 发送推送事件和完成回调的线程数
+     */
+    private int notifyThreads = 2;
+
+    /**
+     * 完成回调的超时时间(ms)
+     */
+    private int callbackTimeout = 5000;
+}
@@ -0,0 +1,83 @@
+package com.group38.ojcodesandbox.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 多语言执行配置（Java 以外的语言）
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.lang")
+@Data
+public class LangConfig {
+
+    /**
+     * 编译产物目录，按源码与编译参数的 SHA-256 命名，启动时清空
+     */
+    private String artifactDir = System.getProperty("user.dir") + File.separator + "artifacts";
+
+    /**
+     * 每种语言缓存的编译结果条目数，淘汰时删除对应的产物
+     */
+    private int cacheSize = 512;
+
+    /**
+     * 单次编译的超时时间(ms)
+     */
+    private long compileTimeout = 10000;
+
+    /**
+     * 单次编译的内存限制(kb)，cgroup 可用时生效
+     */
+    private long compileMemoryLimit = 1024 * 1024;
+
+    /**
+     * 预先启动的 Python 解释器数量
+     */
+    private int pythonPoolSize = 4;
+
+    private Toolchain c = new Toolchain("gcc", new ArrayList<>(Arrays.asList("-O2", "-std=gnu11")), 0, 0);
+
+    private Toolchain cpp = new Toolchain("g++", new ArrayList<>(Arrays.asList("-O2", "-std=gnu++17")), 0, 0);
+
+    private Toolchain go = new Toolchain("go", new ArrayList<>(), 8 * 1024, 0);
+
+    private Toolchain python = new Toolchain("python3", new ArrayList<>(), 16 * 1024, 0);
+
+    /**
+     * 一种语言的编译器/解释器和资源放宽
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Toolchain {
+
+        /**
+         * 编译器或解释器命令
+         */
+        private String command;
+
+        /**
+         * 编译参数
+         */
+        private List<String> options;
+
+        /**
+         * 运行时自身的内存开销(kb)，在题目内存限制之上放宽
+         */
+        private long memoryOverhead;
+
+        /**
+         * 运行时自身占用的 CPU 时间(ms)，在题目时间限制之上放宽
+         */
+        private long cpuOverhead;
+    }
+}
@@ -0,0 +1,49 @@
+package com.group38.ojcodesandbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 资源统计与限制配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.monitor")
+@Data
+public class MonitorConfig {
+
+    /**
+     * 是否使用 cgroup v2 统计和限制资源，不可用时自动退回到采样 /proc
+     */
+    private boolean cgroupEnabled = true;
+
+    /**
+     * 沙箱使用的 cgroup 目录，需要提前委派给沙箱进程所在用户，并在父目录开启 memory、cpu 控制器
+     */
+    private String cgroupRoot = "/sys/fs/cgroup/oj-sandbox";
+
+    /**
+     * 采样 /proc 的间隔(ms)
+     */
+    private long sampleInterval = 10;
+
+    /**
+     * 每个采样线程负责的用例数，采样线程数随同时执行的用例数增减
+     */
+    private int casesPerSamplerThread = 8;
+
+    /**
+     * 采样线程数上限
+     */
+    private int maxSamplerThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * Java 虚拟机自身的内存开销(kb)，按进程统计时在题目内存限制之上额外放宽，上报的内存扣除该开销
+     */
+    private long javaMemoryOverhead = 64 * 1024;
+
+    /**
+     * Java 虚拟机启动、即时编译和垃圾回收占用的 CPU 时间(ms)，按进程统计时在题目时间限制之上额外放宽，上报的 CPU 时间扣除该开销
+     */
+    private long javaCpuOverhead = 1000;
+}
@@ -0,0 +1,27 @@
+package com.group38.ojcodesandbox.config;
+
+import com.group38.ojcodesandbox.utils.ProcessUtils;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.File;
+
+/**
+ * 用例执行配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.run")
+@Data
+public class RunConfig {
+
+    /**
+     * 单个用例标准输出/标准错误各自的最大字节数，超出判为输出超限
+     */
+    private long outputLimit = ProcessUtils.DEFAULT_OUTPUT_LIMIT;
+
+    /**
+     * 测试数据目录，请求中的输入文件都相对该目录
+     */
+    private String testDataDir = System.getProperty("user.dir") + File.separator + "testData";
+}
@@ -0,0 +1,24 @@
+package com.group38.ojcodesandbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 用例调度配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.scheduler")
+@Data
+public class SchedulerConfig {
+
+    /**
+     * 整个节点同时执行的用例数上限（CPU 预算）
+     */
+    private int cpuBudget = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 单次提交最多同时执行的用例数，避免一个大提交占满整个节点
+     */
+    private int maxParallelPerSubmission = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+}
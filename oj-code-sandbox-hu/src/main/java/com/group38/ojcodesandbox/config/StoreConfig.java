@@ -0,0 +1,41 @@
+package com.group38.ojcodesandbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.File;
+
+/**
+ * 编译产物持久化存储配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.store")
+@Data
+public class StoreConfig {
+
+    /**
+     * 是否把编译产物持久化到磁盘，沙箱重启后直接复用
+     */
+    private boolean enabled = true;
+
+    /**
+     * 存储目录，只能由一个沙箱进程使用：条目数、总大小和淘汰都只在本进程内统计，多个节点不能共享同一目录
+     */
+    private String dir = System.getProperty("user.dir") + File.separator + "artifact-store";
+
+    /**
+     * 产物总大小上限(byte)，超出时按最近访问时间淘汰
+     */
+    private long maxSize = 1024L * 1024 * 1024;
+
+    /**
+     * 索引槽位数，最多保存的产物数略小于该值；修改后已有的存储作废重建
+     */
+    private int indexCapacity = 65536;
+
+    /**
+     * 启动时每种语言预先载入内存缓存的最近使用的产物数，不超过各自的缓存大小
+     */
+    private int warmUpSize = 512;
+}
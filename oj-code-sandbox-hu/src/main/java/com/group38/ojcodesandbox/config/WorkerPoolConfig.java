@@ -0,0 +1,39 @@
+package com.group38.ojcodesandbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 预热 JVM 执行进程池配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.pool")
+@Data
+public class WorkerPoolConfig {
+
+    /**
+     * 是否启用进程池（关闭后退回每个用例启动一个 java 进程）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 常驻执行进程数量
+     */
+    private int size = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 单个执行进程最多执行多少次后回收，执行进程只在同一次提交的用例之间复用，提交结束后总会回收
+     */
+    private int maxRunsPerWorker = 100;
+
+    /**
+     * 借用执行进程的最长等待时间(ms)，超时后该用例退回单独启动一个 java 进程执行，与启动一个 JVM 的时间相当即可
+     */
+    private long borrowTimeout = 500L;
+
+    /**
+     * 执行进程的 JVM 参数
+     */
+    private String jvmOptions = "-Xmx256m";
+}
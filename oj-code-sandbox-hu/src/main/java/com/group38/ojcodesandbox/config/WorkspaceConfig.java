@@ -0,0 +1,34 @@
+package com.group38.ojcodesandbox.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.File;
+
+/**
+ * 工作目录配置
+ */
+@Configuration
+@ConfigurationProperties(prefix = "sandbox.workspace")
+@Data
+public class WorkspaceConfig {
+
+    /**
+     * 工作目录的根目录，默认放在内存文件系统 /dev/shm 下，不存在时退回到 user.dir/tmpCode；
+     * 多个沙箱进程可以共用，每个进程在其下使用自己的子目录
+     */
+    private String root = new File("/dev/shm").isDirectory()
+            ? "/dev/shm/oj-sandbox"
+            : System.getProperty("user.dir") + File.separator + "tmpCode";
+
+    /**
+     * 预先创建并复用的工作目录数量
+     */
+    private int poolSize = 32;
+
+    /**
+     * 清理孤儿目录的间隔(ms)
+     */
+    private long sweepInterval = 60000;
+}
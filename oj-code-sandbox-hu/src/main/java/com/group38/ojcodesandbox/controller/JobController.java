@@ -0,0 +1,79 @@
+package com.group38.ojcodesandbox.controller;
+
+import com.group38.ojcodesandbox.admission.AdmissionRejectedException;
+import com.group38.ojcodesandbox.job.ExecJob;
+import com.group38.ojcodesandbox.job.JobManager;
+import com.group38.ojcodesandbox.model.ExecCodeRequest;
+import com.group38.ojcodesandbox.model.ExecJobVO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static com.group38.ojcodesandbox.controller.Maincontroller.AUTH_REQUEST_HEADER;
+import static com.group38.ojcodesandbox.controller.Maincontroller.AUTH_REQUEST_SECRET;
+
+//异步执行接口：提交后立即返回任务 id，再轮询或订阅结果
+@RestController
+@RequestMapping("/jobs")
+public class JobController {
+
+    @Resource
+    private JobManager jobManager;
+
+    //提交异步任务
+    @PostMapping
+    public ExecJobVO submitJob(@RequestBody ExecCodeRequest execCodeRequest, HttpServletRequest request,
+                               HttpServletResponse response) {
+        if (!AUTH_REQUEST_SECRET.equals(request.getHeader(AUTH_REQUEST_HEADER))) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return null;
+        }
+        if (execCodeRequest == null) {
+            throw new RuntimeException("请求参数为空");
+        }
+        try {
+            ExecJob job = jobManager.submit(execCodeRequest);
+            response.setStatus(HttpServletResponse.SC_ACCEPTED);
+            return job.toVO();
+        } catch (AdmissionRejectedException e) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter()));
+            return null;
+        }
+    }
+
+    //查询任务状态和已完成的用例
+    @GetMapping("/{jobId}")
+    public ExecJobVO getJob(@PathVariable String jobId, HttpServletRequest request, HttpServletResponse response) {
+        if (!AUTH_REQUEST_SECRET.equals(request.getHeader(AUTH_REQUEST_HEADER))) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return null;
+        }
+        ExecJob job = jobManager.getJob(jobId);
+        if (job == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return null;
+        }
+        return job.toVO();
+    }
+
+    //订阅执行结果：每个用例完成时推送 case 事件，全部完成后推送 result 事件并关闭连接
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeJob(@PathVariable String jobId, HttpServletRequest request, HttpServletResponse response) {
+        if (!AUTH_REQUEST_SECRET.equals(request.getHeader(AUTH_REQUEST_HEADER))) {
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return null;
+        }
+        ExecJob job = jobManager.getJob(jobId);
+        if (job == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return null;
+        }
+        return jobManager.subscribe(job);
+    }
+}
@@ -1,8 +1,17 @@
 package com.group38.ojcodesandbox.controller;
 
 import com.group38.ojcodesandbox.JavaSandBox;
+import com.group38.ojcodesandbox.admission.AdmissionController;
+import com.group38.ojcodesandbox.admission.AdmissionRejectedException;
+import com.group38.ojcodesandbox.admission.AdmissionStats;
+import com.group38.ojcodesandbox.batch.BatchExecutor;
+import com.group38.ojcodesandbox.model.BatchExecCodeRequest;
+import com.group38.ojcodesandbox.model.BatchExecCodeResponse;
 import com.group38.ojcodesandbox.model.ExecCodeRequest;
 import com.group38.ojcodesandbox.model.ExecCodeResponse;
+import com.group38.ojcodesandbox.model.SandboxStatus;
+import com.group38.ojcodesandbox.status.SandboxStatusService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 
 import javax.annotation.Resource;
@@ -17,14 +26,38 @@ public class Maincontroller {
     public static final String AUTH_REQUEST_HEADER = "auth";
     public static final String AUTH_REQUEST_SECRET = "secretKey";
 
+    //排队情况响应头，调用方可以据此把请求转给其他沙箱节点
+    public static final String QUEUE_DEPTH_HEADER = "X-Queue-Depth";
+
     @Resource
     private JavaSandBox javaSandBox;
 
+    @Resource
+    private AdmissionController admissionController;
+
+    @Resource
+    private BatchExecutor batchExecutor;
+
+    @Resource
+    private SandboxStatusService sandboxStatusService;
+
     @GetMapping("/health")
     public String healthCheck() {
         return "ok";
     }
 
+    //节点容量和状态：CPU 核数、空闲槽位、排队情况、缓存的编译结果和支持的语言
+    @GetMapping("/status")
+    public SandboxStatus status() {
+        return sandboxStatusService.getStatus();
+    }
+
+    //准入统计：正在执行和排队的请求数、排队时间
+    @GetMapping("/admission")
+    public AdmissionStats admissionStats() {
+        return admissionController.getStats();
+    }
+
     //执行代码
     @PostMapping("/execuCode")
     ExecCodeResponse execCodeResponse(@RequestBody ExecCodeRequest execCodeRequest, HttpServletRequest request, HttpServletResponse response){
@@ -38,6 +71,45 @@ public class Maincontroller {
         if (execCodeRequest == null){
             throw new RuntimeException("请求参数为空");
         }
-        return javaSandBox.execCode(execCodeRequest);
+        //超过并发上限时排队，排满或排队超时返回 503，并通过 Retry-After 提示重试间隔
+        try (AdmissionController.Permit permit = admissionController.admit()) {
+            response.setHeader(QUEUE_DEPTH_HEADER, String.valueOf(admissionController.getQueueDepth()));
+            return javaSandBox.execCode(execCodeRequest);
+        } catch (AdmissionRejectedException e) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter()));
+            response.setHeader(QUEUE_DEPTH_HEADER, String.valueOf(admissionController.getQueueDepth()));
+            ExecCodeResponse execCodeResponse = new ExecCodeResponse();
+            execCodeResponse.setMessage(e.getMessage());
+            //表示代码沙箱错误
+            execCodeResponse.setStatus(2);
+            return execCodeResponse;
+        }
+    }
+
+    //批量执行：同一道题的多份提交共用一组输入，按提交顺序返回各自的结果
+    @PostMapping("/batchExecuCode")
+    BatchExecCodeResponse batchExecCodeResponse(@RequestBody BatchExecCodeRequest batchExecCodeRequest, HttpServletRequest request, HttpServletResponse response){
+        String authHeader = request.getHeader(AUTH_REQUEST_HEADER);
+
+        //基本的认证
+        if (!AUTH_REQUEST_SECRET.equals(authHeader)){
+            response.setStatus(403);
+            return null;
+        }
+        if (batchExecCodeRequest == null){
+            throw new RuntimeException("请求参数为空");
+        }
+        try {
+            return batchExecutor.execute(batchExecCodeRequest);
+        } catch (AdmissionRejectedException e) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter()));
+            BatchExecCodeResponse batchExecCodeResponse = new BatchExecCodeResponse();
+            batchExecCodeResponse.setMessage(e.getMessage());
+            //表示代码沙箱错误
+            batchExecCodeResponse.setStatus(2);
+            return batchExecCodeResponse;
+        }
     }
 }
@@ -0,0 +1,238 @@
+package com.group38.ojcodesandbox.isolation;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
+import com.group38.ojcodesandbox.config.CdsConfig;
+import com.group38.ojcodesandbox.config.IsolationConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 命名空间隔离
+ * <p>
+ * 用系统自带的 unshare 让每个用例在新的 PID、挂载、网络、IPC、UTS 命名空间中执行：
+ * 看不到沙箱和其他用例的进程，没有可用的网卡；再用 pivot_root 切换到只读的最小根目录，
+ * 其中只有工具链、工作目录、编译产物、几个设备文件和独立的 /tmp（tmpfs）。
+ * 用户程序由 setpriv 以非特权用户启动，丢弃全部能力并设置 no_new_privs，无法重新挂载或借助 setuid 程序提权。
+ * 只创建命名空间，不启动容器，每个用例增加的开销在几毫秒以内。启动时检查不可用则不隔离
+ */
+@Component
+@Slf4j
+public class NamespaceIsolator {
+
+    //带入新根目录的设备文件
+    private static final List<String> DEVICES = Arrays.asList("/dev/null", "/dev/zero", "/dev/random", "/dev/urandom");
+
+    @Resource
+    private IsolationConfig isolationConfig;
+
+    @Resource
+    private CdsConfig cdsConfig;
+
+    private List<String> unshareCommand;
+
+    private List<String> setprivCommand;
+
+    private List<Path> toolchainPaths;
+
+    //是否切换到非特权用户执行，切换时可写目录要先交给该用户
+    private boolean switchUser;
+
+    private volatile boolean enabled;
+
+    @PostConstruct
+    public void init() {
+        if (!isolationConfig.isEnabled()) {
+            return;
+        }
+        //--fork：用户程序成为新 PID 命名空间中的 1 号进程；--kill-child：unshare 被结束时一并结束用户程序
+        List<String> command = new ArrayList<>(Arrays.asList("unshare", "--pid", "--fork", "--kill-child",
+                "--mount", "--mount-proc", "--propagation", "private", "--net", "--ipc", "--uts"));
+        //丢弃全部能力并禁止再获得权限；root 启动时切换到非特权用户
+        List<String> setpriv = new ArrayList<>(Collections.singletonList("setpriv"));
+        switchUser = "root".equals(System.getProperty("user.name"));
+        if (switchUser) {
+            setpriv.addAll(Arrays.asList("--reuid=" + isolationConfig.getRunUid(),
+                    "--regid=" + isolationConfig.getRunGid(), "--clear-groups"));
+        } else {
+            //非 root 用户先进入新的用户命名空间（映射为其中的 root），才能创建其他命名空间和挂载
+            command.addAll(Arrays.asList("--user", "--map-root-user"));
+        }
+        setpriv.addAll(Arrays.asList("--inh-caps=-all", "--bounding-set=-all", "--no-new-privs", "--"));
+        List<Path> paths = new ArrayList<>();
+        for (String path : isolationConfig.getToolchainPaths()) {
+            paths.add(Paths.get(path));
+        }
+        paths.add(Paths.get(System.getProperty("java.home")));
+        paths.add(Paths.get(cdsConfig.getArchiveDir()));
+        FileUtil.mkdir(isolationConfig.getRootDir());
+        unshareCommand = command;
+        setprivCommand = setpriv;
+        toolchainPaths = paths;
+        //完整走一遍切换根目录和降权的流程
+        List<String> check = wrap(Collections.singletonList("true"), new File("/"), Collections.emptyList());
+        try {
+            Process process = new ProcessBuilder(check).redirectErrorStream(true).start();
+            if (process.waitFor(5, TimeUnit.SECONDS) && process.exitValue() == 0) {
+                enabled = true;
+                log.info("namespace isolation enabled, command = {}", command);
+                return;
+            }
+            process.destroyForcibly();
+            log.warn("unshare is not usable, run cases without namespace isolation: {}",
+                    IoUtil.read(process.getInputStream(), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            log.warn("unshare is not available, run cases without namespace isolation", e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 包装启动命令：unshare 创建命名空间，再由 shell 组装只读的新根目录、切换过去，最后经 setpriv 降权后 exec 真正的程序
+     *
+     * @param command      原始命令
+     * @param workDir      工作目录
+     * @param readOnlyDirs 只读挂载的目录（工作目录、编译产物所在目录）
+     * @return
+     */
+    public List<String> wrap(List<String> command, File workDir, List<File> readOnlyDirs) {
+        return wrap(command, workDir, readOnlyDirs, Collections.emptyList());
+    }
+
+    /**
+     * 包装启动命令，另外带入可写的目录（如编译时的工作目录），可写目录需要先用 handOver 交给执行用户
+     *
+     * @param command      原始命令
+     * @param workDir      工作目录
+     * @param readOnlyDirs 只读挂载的目录
+     * @param writableDirs 可写挂载的目录
+     * @return
+     */
+    public List<String> wrap(List<String> command, File workDir, List<File> readOnlyDirs, List<File> writableDirs) {
+        String root = quote(isolationConfig.getRootDir());
+        //任一步失败都不执行用户程序
+        StringBuilder script = new StringBuilder("set -e\n");
+        //新根目录本身只放挂载点，组装完成后改为只读
+        script.append("mount -t tmpfs -o size=1m,mode=755 tmpfs ").append(root).append('\n');
+        script.append("cd ").append(root).append('\n');
+        script.append("mkdir -p proc tmp dev .old\n");
+        //先挂 /tmp，工作目录在 /tmp 下时再挂到它上面
+        if (isolationConfig.isPrivateTmp()) {
+            script.append("mount -t tmpfs -o size=").append(isolationConfig.getTmpSize()).append(",mode=1777 tmpfs tmp\n");
+        }
+        for (String device : DEVICES) {
+            appendBind(script, Paths.get(device));
+        }
+        script.append("ln -s /proc/self/fd dev/fd\n");
+        for (Path path : toolchainPaths) {
+            appendBind(script, path);
+        }
+        for (File dir : readOnlyDirs) {
+            appendBind(script, dir.toPath());
+        }
+        for (File dir : writableDirs) {
+            appendBind(script, dir.toPath(), false);
+        }
+        script.append("mount -o remount,ro .\n");
+        script.append("pivot_root . .old\n");
+        //新的 proc 要在卸载旧根目录前挂载，用户命名空间中需要已有可见的 proc
+        script.append("mount -t proc proc /proc\n");
+        script.append("umount -l /.old\n");
+        script.append("cd ").append(quote(workDir.getAbsolutePath())).append('\n');
+        script.append("exec");
+        for (String arg : setprivCommand) {
+            script.append(' ').append(arg);
+        }
+        script.append(" \"$@\"");
+        List<String> wrapped = new ArrayList<>(unshareCommand);
+        wrapped.add("/bin/sh");
+        wrapped.add("-c");
+        wrapped.add(script.toString());
+        wrapped.add("sh");
+        wrapped.addAll(command);
+        return wrapped;
+    }
+
+    /**
+     * 把目录交给执行用户，用户程序才能在其中写文件；沙箱不切换用户时不需要
+     *
+     * @param dir
+     * @throws IOException
+     */
+    public void handOver(File dir) throws IOException {
+        if (switchUser) {
+            setOwner(dir.toPath(), isolationConfig.getRunUid(), isolationConfig.getRunGid());
+        }
+    }
+
+    /**
+     * 收回交给执行用户的目录，目录中用户程序创建的文件由沙箱清理
+     *
+     * @param dir
+     * @throws IOException
+     */
+    public void takeBack(File dir) throws IOException {
+        if (switchUser) {
+            setOwner(dir.toPath(), 0, 0);
+        }
+    }
+
+    private static void setOwner(Path path, int uid, int gid) throws IOException {
+        Files.setAttribute(path, "unix:uid", uid);
+        Files.setAttribute(path, "unix:gid", gid);
+    }
+
+    private static void appendBind(StringBuilder script, Path path) {
+        appendBind(script, path, true);
+    }
+
+    //把宿主机上的路径挂到新根目录下的同一位置，符号链接按原样重建，不存在的跳过
+    private static void appendBind(StringBuilder script, Path path, boolean readOnly) {
+        Path absolute = path.toAbsolutePath().normalize();
+        String source = quote(absolute.toString());
+        String target = quote("." + absolute);
+        String parent = quote("." + (absolute.getParent() == null ? "/" : absolute.getParent().toString()));
+        if (Files.isSymbolicLink(absolute)) {
+            try {
+                script.append("mkdir -p ").append(parent).append("\nln -s ")
+                        .append(quote(Files.readSymbolicLink(absolute).toString())).append(' ').append(target).append('\n');
+            } catch (IOException e) {
+                log.warn("failed to read symbolic link {}", absolute, e);
+            }
+            return;
+        }
+        if (Files.isDirectory(absolute)) {
+            script.append("mkdir -p ").append(target).append('\n');
+        } else if (Files.exists(absolute)) {
+            script.append("mkdir -p ").append(parent).append("\ntouch ").append(target).append('\n');
+        } else {
+            return;
+        }
+        script.append("mount --bind ").append(source).append(' ').append(target).append('\n');
+        if (readOnly) {
+            script.append("mount -o remount,bind,ro ").append(target).append('\n');
+        }
+    }
+
+    //单引号包裹，路径中的单引号转义
+    private static String quote(String value) {
+        return "'" + value.replace("'", "'\\''") + "'";
+    }
+}
@@ -0,0 +1,189 @@
+package com.group38.ojcodesandbox.job;
+
+import com.group38.ojcodesandbox.model.CaseResult;
+import com.group38.ojcodesandbox.model.ExecCodeRequest;
+import com.group38.ojcodesandbox.model.ExecCodeResponse;
+import com.group38.ojcodesandbox.model.ExecJobVO;
+import com.group38.ojcodesandbox.model.enums.JobStatusEnum;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+/**
+ * 一个异步执行任务
+ * <p>
+ * 用例结果逐个记录并推送给订阅者，后订阅的连接先补发已完成的用例。
+ * 推送事件在锁内按顺序排队，由推送线程池在锁外逐个发送，执行用例的线程不会因为连接慢而阻塞
+ */
+public class ExecJob {
+
+    //用例完成事件
+    public static final String CASE_EVENT = "case";
+
+    //任务完成事件
+    public static final String RESULT_EVENT = "result";
+
+    private final String id;
+
+    private final ExecCodeRequest request;
+
+    private final long createTime = System.currentTimeMillis();
+
+    private JobStatusEnum status = JobStatusEnum.QUEUED;
+
+    private final List<CaseResult> caseResults = new ArrayList<>();
+
+    private ExecCodeResponse result;
+
+    private long finishTime;
+
+    private final List<SseEmitter> emitters = new ArrayList<>();
+
+    //负责发送推送事件的线程池
+    private final Executor notifier;
+
+    //待发送的推送事件，同一个任务的事件按顺序发送
+    private final Queue<Runnable> events = new ArrayDeque<>();
+
+    //是否已有推送线程在发送本任务的事件
+    private boolean draining;
+
+    ExecJob(String id, ExecCodeRequest request, Executor notifier) {
+        this.id = id;
+        this.request = request;
+        this.notifier = notifier;
+    }
+
+    synchronized void start() {
+        status = JobStatusEnum.RUNNING;
+    }
+
+    synchronized void onCase(CaseResult caseResult) {
+        caseResults.add(caseResult);
+        List<SseEmitter> targets = new ArrayList<>(emitters);
+        enqueue(() -> {
+            for (SseEmitter emitter : targets) {
+                if (!send(emitter, CASE_EVENT, caseResult)) {
+                    unsubscribe(emitter);
+                }
+            }
+        });
+    }
+
+    synchronized void finish(JobStatusEnum status, ExecCodeResponse result) {
+        this.status = status;
+        this.result = result;
+        this.finishTime = System.currentTimeMillis();
+        List<SseEmitter> targets = new ArrayList<>(emitters);
+        ExecJobVO execJobVO = toVO();
+        emitters.clear();
+        enqueue(() -> {
+            for (SseEmitter emitter : targets) {
+                if (send(emitter, RESULT_EVENT, execJobVO)) {
+                    emitter.complete();
+                }
+            }
+        });
+    }
+
+    //订阅：先补发已完成的用例，任务已结束时直接发送结果
+    synchronized void subscribe(SseEmitter emitter) {
+        List<CaseResult> finishedCases = new ArrayList<>(caseResults);
+        ExecJobVO execJobVO = isFinished() ? toVO() : null;
+        if (execJobVO == null) {
+            emitters.add(emitter);
+            emitter.onCompletion(() -> unsubscribe(emitter));
+            emitter.onTimeout(() -> unsubscribe(emitter));
+        }
+        enqueue(() -> {
+            for (CaseResult caseResult : finishedCases) {
+                if (!send(emitter, CASE_EVENT, caseResult)) {
+                    unsubscribe(emitter);
+                    return;
+                }
+            }
+            if (execJobVO != null && send(emitter, RESULT_EVENT, execJobVO)) {
+                emitter.complete();
+            }
+        });
+    }
+
+    private synchronized void unsubscribe(SseEmitter emitter) {
+        emitters.remove(emitter);
+    }
+
+    //事件排队，没有推送线程在发送时交给线程池
+    private void enqueue(Runnable event) {
+        events.offer(event);
+        if (!draining) {
+            draining = true;
+            notifier.execute(this::drain);
+        }
+    }
+
+    //在锁外逐个发送排队的事件
+    private void drain() {
+        while (true) {
+            Runnable event;
+            synchronized (this) {
+                event = events.poll();
+                if (event == null) {
+                    draining = false;
+                    return;
+                }
+            }
+            event.run();
+        }
+    }
+
+    //连接已断开时返回 false
+    private boolean send(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    public synchronized ExecJobVO toVO() {
+        ExecJobVO execJobVO = new ExecJobVO();
+        execJobVO.setJobId(id);
+        execJobVO.setStatus(status.getValue());
+        execJobVO.setTotalCases(totalCases());
+        execJobVO.setCaseResults(new ArrayList<>(caseResults));
+        execJobVO.setResult(result);
+        execJobVO.setCreateTime(createTime);
+        execJobVO.setFinishTime(finishTime == 0 ? null : finishTime);
+        return execJobVO;
+    }
+
+    public synchronized boolean isFinished() {
+        return status == JobStatusEnum.SUCCEED || status == JobStatusEnum.FAILED;
+    }
+
+    synchronized long getFinishTime() {
+        return finishTime;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ExecCodeRequest getRequest() {
+        return request;
+    }
+
+    private int totalCases() {
+        if (request.getInputFileList() != null && !request.getInputFileList().isEmpty()) {
+            return request.getInputFileList().size();
+        }
+        return request.getInputList() == null ? 0 : request.getInputList().size();
+    }
+}
@@ -0,0 +1,176 @@
+package com.group38.ojcodesandbox.job;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import cn.hutool.json.JSONUtil;
+import com.group38.ojcodesandbox.JavaSandBox;
+import com.group38.ojcodesandbox.admission.AdmissionController;
+import com.group38.ojcodesandbox.admission.AdmissionRejectedException;
+import com.group38.ojcodesandbox.config.JobConfig;
+import com.group38.ojcodesandbox.model.CaseResult;
+import com.group38.ojcodesandbox.model.ExecCodeRequest;
+import com.group38.ojcodesandbox.model.ExecCodeResponse;
+import com.group38.ojcodesandbox.model.JudgeInfo;
+import com.group38.ojcodesandbox.model.enums.JobStatusEnum;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步执行任务管理
+ * <p>
+ * 提交后立即返回任务 id，任务在后台线程中执行，执行名额与同步接口共用请求准入的上限；
+ * 调用方可以轮询任务状态、订阅逐个用例的执行结果，或在提交时指定完成回调地址；
+ * 推送和完成回调在单独的线程池中进行，不占用执行任务的线程和执行名额
+ */
+@Component
+@Slf4j
+public class JobManager {
+
+    @Resource
+    private JobConfig jobConfig;
+
+    @Resource
+    private JavaSandBox javaSandBox;
+
+    @Resource
+    private AdmissionController admissionController;
+
+    private final Map<String, ExecJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    //发送推送事件和完成回调
+    private ExecutorService notifier;
+
+    //清理过期任务
+    private ScheduledExecutorService cleaner;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(jobConfig.getThreads(), jobConfig.getThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(jobConfig.getQueueCapacity()),
+                r -> daemon(r, "exec-job-" + threadIndex.incrementAndGet()));
+        AtomicInteger notifierIndex = new AtomicInteger();
+        notifier = Executors.newFixedThreadPool(jobConfig.getNotifyThreads(),
+                r -> daemon(r, "exec-job-notifier-" + notifierIndex.incrementAndGet()));
+        cleaner = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "exec-job-cleaner"));
+        long interval = Math.max(1000L, jobConfig.getRetention() / 10);
+        cleaner.scheduleWithFixedDelay(this::removeExpired, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 提交异步任务
+     *
+     * @param execCodeRequest
+     * @return
+     * @throws AdmissionRejectedException 等待执行的任务已满
+     */
+    public ExecJob submit(ExecCodeRequest execCodeRequest) {
+        ExecJob job = new ExecJob(UUID.randomUUID().toString(), execCodeRequest, notifier);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new AdmissionRejectedException("沙箱繁忙，异步任务已满", admissionController.getStats().getRetryAfter());
+        }
+        return job;
+    }
+
+    public ExecJob getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * 订阅任务的执行结果
+     *
+     * @param job
+     * @return
+     */
+    public SseEmitter subscribe(ExecJob job) {
+        SseEmitter emitter = new SseEmitter(jobConfig.getSseTimeout());
+        job.subscribe(emitter);
+        return emitter;
+    }
+
+    private void run(ExecJob job) {
+        try (AdmissionController.Permit permit = admissionController.acquire()) {
+            job.start();
+            ExecCodeResponse execCodeResponse = javaSandBox.execCode(job.getRequest(),
+                    (index, executeMessage) -> job.onCase(CaseResult.of(index, executeMessage)));
+            job.finish(JobStatusEnum.SUCCEED, execCodeResponse);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.finish(JobStatusEnum.FAILED, getErrorResponse("沙箱关闭"));
+        } catch (Exception e) {
+            log.error("exec job error, jobId = {}", job.getId(), e);
+            job.finish(JobStatusEnum.FAILED, getErrorResponse(e.getMessage()));
+        }
+        notifier.execute(() -> callback(job));
+    }
+
+    //完成回调，失败只记录日志，调用方仍可以轮询结果
+    private void callback(ExecJob job) {
+        String callbackUrl = job.getRequest().getCallbackUrl();
+        if (StrUtil.isBlank(callbackUrl)) {
+            return;
+        }
+        try (HttpResponse httpResponse = HttpRequest.post(callbackUrl)
+                .body(JSONUtil.toJsonStr(job.toVO()))
+                .timeout(jobConfig.getCallbackTimeout())
+                .execute()) {
+            if (!httpResponse.isOk()) {
+                log.warn("exec job callback failed, jobId = {}, status = {}", job.getId(), httpResponse.getStatus());
+            }
+        } catch (Exception e) {
+            log.warn("exec job callback error, jobId = {}, url = {}", job.getId(), callbackUrl, e);
+        }
+    }
+
+    private void removeExpired() {
+        long expireBefore = System.currentTimeMillis() - jobConfig.getRetention();
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishTime() < expireBefore);
+    }
+
+    private ExecCodeResponse getErrorResponse(String message) {
+        ExecCodeResponse execCodeResponse = new ExecCodeResponse();
+        execCodeResponse.setMessage(message);
+        //表示代码沙箱错误
+        execCodeResponse.setStatus(2);
+        execCodeResponse.setJudgeInfo(new JudgeInfo());
+        execCodeResponse.setOutputList(new ArrayList<>());
+        return execCodeResponse;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        cleaner.shutdownNow();
+        executor.shutdownNow();
+        notifier.shutdownNow();
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,39 @@
+package com.group38.ojcodesandbox.lang;
+
+import com.group38.ojcodesandbox.config.LangConfig.Toolchain;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * C 执行器
+ */
+@Component
+public class CRunner extends NativeRunner {
+
+    @Override
+    public String getLanguage() {
+        return "c";
+    }
+
+    @Override
+    protected Toolchain getToolchain() {
+        return langConfig.getC();
+    }
+
+    @Override
+    protected String getSourceFileName() {
+        return "main.c";
+    }
+
+    @Override
+    protected List<String> getCompileCommand() {
+        List<String> compileCmd = new ArrayList<>();
+        compileCmd.add(getToolchain().getCommand());
+        compileCmd.addAll(getToolchain().getOptions());
+        compileCmd.addAll(Arrays.asList("-o", OUTPUT_FILE_NAME, getSourceFileName(), "-lm"));
+        return compileCmd;
+    }
+}
@@ -0,0 +1,39 @@
+package com.group38.ojcodesandbox.lang;
+
+import com.group38.ojcodesandbox.config.LangConfig.Toolchain;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * C++ 执行器
+ */
+@Component
+public class CppRunner extends NativeRunner {
+
+    @Override
+    public String getLanguage() {
+        return "cpp";
+    }
+
+    @Override
+    protected Toolchain getToolchain() {
+        return langConfig.getCpp();
+    }
+
+    @Override
+    protected String getSourceFileName() {
+        return "main.cpp";
+    }
+
+    @Override
+    protected List<String> getCompileCommand() {
+        List<String> compileCmd = new ArrayList<>();
+        compileCmd.add(getToolchain().getCommand());
+        compileCmd.addAll(getToolchain().getOptions());
+        compileCmd.addAll(Arrays.asList("-o", OUTPUT_FILE_NAME, getSourceFileName()));
+        return compileCmd;
+    }
+}
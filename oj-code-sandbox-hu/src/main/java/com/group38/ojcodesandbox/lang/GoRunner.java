@@ -0,0 +1,67 @@
+package com.group38.ojcodesandbox.lang;
+
+import com.group38.ojcodesandbox.config.LangConfig.Toolchain;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Go 执行器，go build 默认开启优化，没有单独的优化级别参数
+ */
+@Component
+public class GoRunner extends NativeRunner {
+
+    @Override
+    public String getLanguage() {
+        return "go";
+    }
+
+    @Override
+    protected Toolchain getToolchain() {
+        return langConfig.getGo();
+    }
+
+    @Override
+    protected String getSourceFileName() {
+        return "main.go";
+    }
+
+    @Override
+    protected List<String> getCompileCommand() {
+        List<String> compileCmd = new ArrayList<>();
+        compileCmd.add(getToolchain().getCommand());
+        compileCmd.add("build");
+        compileCmd.addAll(getToolchain().getOptions());
+        compileCmd.addAll(Arrays.asList("-o", OUTPUT_FILE_NAME, getSourceFileName()));
+        return compileCmd;
+    }
+
+    @Override
+    protected List<String> getVersionCommand() {
+        return Arrays.asList(getToolchain().getCommand(), "version");
+    }
+
+    //构建缓存放在产物目录下，标准库只编译一次
+    @Override
+    protected Map<String, String> getCompileEnvironment() {
+        Map<String, String> environment = new HashMap<>();
+        environment.put("GOCACHE", new File(getArtifactDir(), ".gocache").getAbsolutePath());
+        environment.put("GOPATH", new File(getArtifactDir(), ".gopath").getAbsolutePath());
+        environment.put("GO111MODULE", "off");
+        return environment;
+    }
+
+    //隔离编译时不能写共享的构建缓存，否则一次提交可以篡改之后其他提交链接的标准库，缓存放在本次的编译目录中
+    @Override
+    protected Map<String, String> getIsolatedCompileEnvironment(File dir) {
+        Map<String, String> environment = super.getIsolatedCompileEnvironment(dir);
+        environment.put("GOCACHE", new File(dir, ".gocache").getAbsolutePath());
+        environment.put("GOPATH", new File(dir, ".gopath").getAbsolutePath());
+        return environment;
+    }
+}
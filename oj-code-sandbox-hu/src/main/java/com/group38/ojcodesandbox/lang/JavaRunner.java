@@ -0,0 +1,76 @@
+package com.group38.ojcodesandbox.lang;
+
+import cn.hutool.core.io.FileUtil;
+import com.group38.ojcodesandbox.cds.CdsArchiveManager;
+import com.group38.ojcodesandbox.compile.CompileResult;
+import com.group38.ojcodesandbox.compile.InMemoryJavaCompiler;
+import com.group38.ojcodesandbox.config.MonitorConfig;
+import com.group38.ojcodesandbox.model.RunInput;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Java 执行器：进程内编译，字节码写入工作目录后每个用例启动一个 java 进程
+ * <p>
+ * 启用执行进程池时由 JavaSandBox 直接交给预热的执行进程，不经过这里的执行命令；
+ * 每个用例启动的 java 进程使用沙箱自身的 JDK，附加启动参数和类数据共享归档
+ */
+@Component
+public class JavaRunner implements LanguageRunner {
+
+    public static final String LANGUAGE = "java";
+
+    @Resource
+    private InMemoryJavaCompiler inMemoryJavaCompiler;
+
+    @Resource
+    private MonitorConfig monitorConfig;
+
+    @Resource
+    private CdsArchiveManager cdsArchiveManager;
+
+    @Override
+    public String getLanguage() {
+        return LANGUAGE;
+    }
+
+    @Override
+    public CompileResult compile(String code) {
+        return inMemoryJavaCompiler.compile(code);
+    }
+
+    //把字节码写入工作目录
+    @Override
+    public void prepare(File workDir, CompileResult compileResult) {
+        for (Map.Entry<String, byte[]> entry : compileResult.getClasses().entrySet()) {
+            String classFilePath = entry.getKey().replace('.', File.separatorChar) + ".class";
+            FileUtil.writeBytes(entry.getValue(), new File(workDir, classFilePath));
+        }
+    }
+
+    @Override
+    public List<String> getRunCommand(File workDir, CompileResult compileResult, RunInput runInput) {
+        List<String> runCmd = new ArrayList<>();
+        runCmd.add(cdsArchiveManager.getJavaCommand());
+        runCmd.addAll(cdsArchiveManager.getRunOptions());
+        runCmd.addAll(Arrays.asList("-Xmx256m", "-Dfile.encoding=UTF-8", "-cp", workDir.getAbsolutePath(), "Main"));
+        runCmd.addAll(runInput.getArgs());
+        return runCmd;
+    }
+
+    @Override
+    public long getMemoryOverhead() {
+        return monitorConfig.getJavaMemoryOverhead();
+    }
+
+    @Override
+    public long getCpuOverhead() {
+        return monitorConfig.getJavaCpuOverhead();
+    }
+}
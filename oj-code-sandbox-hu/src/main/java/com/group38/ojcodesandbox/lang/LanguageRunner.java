@@ -0,0 +1,121 @@
+package com.group38.ojcodesandbox.lang;
+
+import com.group38.ojcodesandbox.compile.CompileResult;
+import com.group38.ojcodesandbox.isolation.NamespaceIsolator;
+import com.group38.ojcodesandbox.model.RunInput;
+import com.group38.ojcodesandbox.monitor.CaseCgroup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 语言执行器
+ * <p>
+ * 每种语言提供编译、执行命令和资源放宽，时间、内存、输出的统计和限制由沙箱统一处理
+ */
+public interface LanguageRunner {
+
+    /**
+     * 语言标识，与执行请求中的 lang 对应
+     *
+     * @return
+     */
+    String getLanguage();
+
+    /**
+     * 当前环境是否装有该语言的编译器或解释器
+     *
+     * @return
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * 编译用户代码，相同代码直接返回缓存的结果，用完后需要调用 release
+     *
+     * @param code
+     * @return
+     */
+    CompileResult compile(String code);
+
+    /**
+     * 执行结束，不再使用编译结果；产物在缓存中被淘汰后，等到使用它的执行全部结束才删除
+     *
+     * @param compileResult
+     */
+    default void release(CompileResult compileResult) {
+    }
+
+    /**
+     * 把执行需要的文件放进工作目录
+     *
+     * @param workDir
+     * @param compileResult
+     */
+    default void prepare(File workDir, CompileResult compileResult) {
+    }
+
+    /**
+     * 单个用例的执行命令
+     *
+     * @param workDir
+     * @param compileResult
+     * @param runInput
+     * @return
+     */
+    List<String> getRunCommand(File workDir, CompileResult compileResult, RunInput runInput);
+
+    /**
+     * 启动单个用例的进程，有 cgroup 时进程需要在执行用户代码前加入，隔离时需要在新的命名空间中启动
+     *
+     * @param workDir
+     * @param compileResult
+     * @param runInput
+     * @param cgroup        为空时不使用 cgroup
+     * @param isolator      为空时不隔离
+     * @return
+     * @throws IOException
+     */
+    default RunProcess launch(File workDir, CompileResult compileResult, RunInput runInput, CaseCgroup cgroup,
+                              NamespaceIsolator isolator) throws IOException {
+        List<String> runCmd = getRunCommand(workDir, compileResult, runInput);
+        if (isolator != null) {
+            //工作目录和编译产物所在目录只读
+            List<File> readOnlyDirs = new ArrayList<>();
+            readOnlyDirs.add(workDir);
+            if (compileResult.getArtifact() != null) {
+                readOnlyDirs.add(compileResult.getArtifact().getParentFile());
+            }
+            runCmd = isolator.wrap(runCmd, workDir, readOnlyDirs);
+        }
+        //cgroup 在最外层，命名空间中的进程都由 shell 启动后继承
+        if (cgroup != null) {
+            runCmd = cgroup.wrap(runCmd);
+        }
+        ProcessBuilder processBuilder = new ProcessBuilder(runCmd).directory(workDir);
+        byte[] stdin = runInput.getStdin();
+        if (runInput.getStdinFile() != null) {
+            //输入文件直接接到程序的标准输入，不经过沙箱服务
+            processBuilder.redirectInput(runInput.getStdinFile());
+            stdin = new byte[0];
+        }
+        return new RunProcess(processBuilder.start(), stdin, 0);
+    }
+
+    /**
+     * 运行时自身的内存开销(kb)，按进程统计时在题目内存限制之上放宽
+     *
+     * @return
+     */
+    long getMemoryOverhead();
+
+    /**
+     * 运行时自身占用的 CPU 时间(ms)，在题目时间限制之上放宽
+     *
+     * @return
+     */
+    long getCpuOverhead();
+}
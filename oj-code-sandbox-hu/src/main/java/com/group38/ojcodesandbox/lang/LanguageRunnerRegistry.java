@@ -0,0 +1,52 @@
+package com.group38.ojcodesandbox.lang;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 语言执行器注册表，收集所有 LanguageRunner，只保留当前环境可用的
+ */
+@Component
+@Slf4j
+public class LanguageRunnerRegistry {
+
+    @Resource
+    private List<LanguageRunner> languageRunners;
+
+    private final Map<String, LanguageRunner> runners = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (LanguageRunner languageRunner : languageRunners) {
+            if (languageRunner.isAvailable()) {
+                runners.put(languageRunner.getLanguage(), languageRunner);
+            }
+        }
+        log.info("available languages = {}", runners.keySet());
+    }
+
+    /**
+     * 根据语言标识获取执行器，未指定语言时按 Java 处理（兼容旧请求）
+     *
+     * @param lang
+     * @return 不支持的语言返回 null
+     */
+    public LanguageRunner getRunner(String lang) {
+        if (StrUtil.isBlank(lang)) {
+            return runners.get(JavaRunner.LANGUAGE);
+        }
+        return runners.get(lang.trim().toLowerCase());
+    }
+
+    public Set<String> getLanguages() {
+        return runners.keySet();
+    }
+}
@@ -0,0 +1,29 @@
+package com.group38.ojcodesandbox.lang;
+
+import com.group38.ojcodesandbox.compile.CompileResult;
+import com.group38.ojcodesandbox.model.RunInput;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 编译为本地可执行文件的语言，可执行文件留在产物目录中直接执行，工作目录只作为当前目录
+ */
+public abstract class NativeRunner extends ToolchainRunner {
+
+    protected static final String OUTPUT_FILE_NAME = "main";
+
+    @Override
+    protected String getOutputFileName() {
+        return OUTPUT_FILE_NAME;
+    }
+
+    @Override
+    public List<String> getRunCommand(File workDir, CompileResult compileResult, RunInput runInput) {
+        List<String> runCmd = new ArrayList<>();
+        runCmd.add(compileResult.getArtifact().getAbsolutePath());
+        runCmd.addAll(runInput.getArgs());
+        return runCmd;
+    }
+}
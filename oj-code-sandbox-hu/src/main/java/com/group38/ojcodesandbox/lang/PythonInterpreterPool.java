@@ -0,0 +1,127 @@
+package com.group38.ojcodesandbox.lang;
+
+import com.group38.ojcodesandbox.config.LangConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 预先启动的 Python 解释器池
+ * <p>
+ * 解释器启动并加载好引导代码后阻塞在标准输入上，每个用例取走一个，先读入一行 JSON（脚本路径、程序参数和输入文件），
+ * 再在同一进程中执行用户脚本；有输入文件时由解释器自己打开并接到标准输入，否则标准输入的其余部分留给用户代码；
+ * 解释器只使用一次，取走后立即补充
+ */
+@Component
+@Slf4j
+public class PythonInterpreterPool {
+
+    //引导代码：读取脚本路径、参数和输入文件后以 __main__ 执行用户脚本
+    private static final String BOOTSTRAP = String.join("\n",
+            "import json, os, runpy, sys",
+            "header = json.loads(sys.stdin.buffer.readline())",
+            "if header.get('stdin'):",
+            "    fd = os.open(header['stdin'], os.O_RDONLY)",
+            "    os.dup2(fd, 0)",
+            "    os.close(fd)",
+            "    sys.stdin = open(0, encoding='utf-8', closefd=False)",
+            "os.chdir(os.path.dirname(header['file']))",
+            "sys.argv = [header['file']] + header['args']",
+            "sys.path[0] = os.path.dirname(header['file'])",
+            "del header",
+            "runpy.run_path(sys.argv[0], run_name='__main__')");
+
+    @Resource
+    private LangConfig langConfig;
+
+    private final BlockingQueue<Process> idle = new LinkedBlockingQueue<>();
+
+    //负责启动新的解释器
+    private ExecutorService spawner;
+
+    private volatile boolean closed;
+
+    private boolean enabled;
+
+    @PostConstruct
+    public void init() {
+        enabled = langConfig.getPythonPoolSize() > 0;
+        if (!enabled) {
+            return;
+        }
+        spawner = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "python-spawner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < langConfig.getPythonPoolSize(); i++) {
+            spawner.execute(this::spawn);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 取走一个解释器，池中没有空闲的时直接启动一个；池已关闭或未启用时不再补充
+     *
+     * @return
+     * @throws IOException
+     */
+    public Process take() throws IOException {
+        Process process;
+        while ((process = idle.poll()) != null && !process.isAlive()) {
+            //空闲期间异常退出的解释器直接丢弃
+        }
+        if (enabled && !closed) {
+            try {
+                spawner.execute(this::spawn);
+            } catch (RejectedExecutionException e) {
+                //正在关闭
+            }
+        }
+        return process != null ? process : start();
+    }
+
+    private void spawn() {
+        if (closed || idle.size() >= langConfig.getPythonPoolSize()) {
+            return;
+        }
+        try {
+            idle.offer(start());
+        } catch (IOException e) {
+            log.error("start python interpreter error", e);
+        }
+    }
+
+    private Process start() throws IOException {
+        ProcessBuilder processBuilder = new ProcessBuilder(Arrays.asList(
+                langConfig.getPython().getCommand(), "-c", BOOTSTRAP));
+        processBuilder.environment().put("PYTHONIOENCODING", "utf-8");
+        processBuilder.environment().put("PYTHONDONTWRITEBYTECODE", "1");
+        return processBuilder.start();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        closed = true;
+        if (spawner != null) {
+            spawner.shutdownNow();
+        }
+        Process process;
+        while ((process = idle.poll()) != null) {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.group38.ojcodesandbox.lang;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.json.JSONObject;
+import com.group38.ojcodesandbox.compile.CompileResult;
+import com.group38.ojcodesandbox.config.LangConfig.Toolchain;
+import com.group38.ojcodesandbox.isolation.NamespaceIsolator;
+import com.group38.ojcodesandbox.model.RunInput;
+import com.group38.ojcodesandbox.monitor.CaseCgroup;
+import com.group38.ojcodesandbox.monitor.ProcessSampler;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Python 执行器：编译阶段只检查语法，执行时使用预先启动的解释器
+ */
+@Component
+public class PythonRunner extends ToolchainRunner {
+
+    private static final String SOURCE_FILE_NAME = "main.py";
+
+    //只检查语法，不生成字节码文件
+    private static final String SYNTAX_CHECK = String.join("\n",
+            "import sys, traceback",
+            "try:",
+            "    compile(open(sys.argv[1], encoding='utf-8').read(), sys.argv[1], 'exec')",
+            "except SyntaxError as e:",
+            "    traceback.print_exception_only(type(e), e)",
+            "    sys.exit(1)");
+
+    @Resource
+    private PythonInterpreterPool pythonInterpreterPool;
+
+    @Override
+    public String getLanguage() {
+        return "python";
+    }
+
+    @Override
+    protected Toolchain getToolchain() {
+        return langConfig.getPython();
+    }
+
+    @Override
+    protected String getSourceFileName() {
+        return SOURCE_FILE_NAME;
+    }
+
+    @Override
+    protected String getOutputFileName() {
+        return SOURCE_FILE_NAME;
+    }
+
+    @Override
+    protected List<String> getCompileCommand() {
+        return Arrays.asList(getToolchain().getCommand(), "-c", SYNTAX_CHECK, SOURCE_FILE_NAME);
+    }
+
+    //脚本放进工作目录，用户代码的当前目录和导入路径都是工作目录
+    @Override
+    public void prepare(File workDir, CompileResult compileResult) {
+        FileUtil.copy(compileResult.getArtifact(), new File(workDir, SOURCE_FILE_NAME), true);
+    }
+
+    @Override
+    public List<String> getRunCommand(File workDir, CompileResult compileResult, RunInput runInput) {
+        List<String> runCmd = new ArrayList<>(Arrays.asList(getToolchain().getCommand(), SOURCE_FILE_NAME));
+        runCmd.addAll(runInput.getArgs());
+        return runCmd;
+    }
+
+    @Override
+    public RunProcess launch(File workDir, CompileResult compileResult, RunInput runInput, CaseCgroup cgroup,
+                             NamespaceIsolator isolator) throws IOException {
+        //预先启动的解释器不在用例自己的命名空间中，隔离时每个用例启动新的解释器
+        if (!pythonInterpreterPool.isEnabled() || isolator != null) {
+            return super.launch(workDir, compileResult, runInput, cgroup, isolator);
+        }
+        Process process = pythonInterpreterPool.take();
+        if (cgroup != null) {
+            cgroup.attach(process.pid());
+        }
+        long startCpuTime = ProcessSampler.readCpuTime(process.toHandle());
+        JSONObject header = new JSONObject();
+        header.set("file", new File(workDir, SOURCE_FILE_NAME).getAbsolutePath());
+        header.set("args", runInput.getArgs());
+        //输入文件由解释器自己打开，不经过沙箱的内存
+        if (runInput.getStdinFile() != null) {
+            header.set("stdin", runInput.getStdinFile().getAbsolutePath());
+        }
+        byte[] headerBytes = (header.toString() + "\n").getBytes(StandardCharsets.UTF_8);
+        byte[] stdin = runInput.getStdinFile() != null ? new byte[0] : runInput.getStdin();
+        byte[] input = new byte[headerBytes.length + stdin.length];
+        System.arraycopy(headerBytes, 0, input, 0, headerBytes.length);
+        System.arraycopy(stdin, 0, input, headerBytes.length, stdin.length);
+        return new RunProcess(process, input, startCpuTime);
+    }
+}
@@ -0,0 +1,27 @@
+package com.group38.ojcodesandbox.lang;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 已启动的用例进程
+ */
+@Data
+@AllArgsConstructor
+public class RunProcess {
+
+    /**
+     * 用例进程
+     */
+    private Process process;
+
+    /**
+     * 需要写入标准输入的内容
+     */
+    private byte[] stdin;
+
+    /**
+     * 执行用户代码前进程已经占用的 CPU 时间(ms)，预先启动的进程不计入用例
+     */
+    private long startCpuTime;
+}
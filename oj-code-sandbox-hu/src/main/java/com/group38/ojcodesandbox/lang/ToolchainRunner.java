@@ -0,0 +1,438 @@
+package com.group38.ojcodesandbox.lang;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.group38.ojcodesandbox.compile.CompileCache;
+import com.group38.ojcodesandbox.compile.CompileResult;
+import com.group38.ojcodesandbox.config.LangConfig;
+import com.group38.ojcodesandbox.config.LangConfig.Toolchain;
+import com.group38.ojcodesandbox.config.StoreConfig;
+import com.group38.ojcodesandbox.isolation.NamespaceIsolator;
+import com.group38.ojcodesandbox.model.ExecuteMessage;
+import com.group38.ojcodesandbox.monitor.CaseCgroup;
+import com.group38.ojcodesandbox.monitor.CgroupManager;
+import com.group38.ojcodesandbox.scheduler.DeadlineManager;
+import com.group38.ojcodesandbox.scheduler.DeadlineManager.Deadline;
+import com.group38.ojcodesandbox.store.ArtifactStore;
+import com.group38.ojcodesandbox.utils.ProcessUtils;
+import com.group38.ojcodesandbox.workspace.Workspace;
+import com.group38.ojcodesandbox.workspace.WorkspaceManager;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 使用外部编译器/解释器的语言
+ * <p>
+ * 源码在临时工作目录中编译，产物按源码、编译参数与编译器版本的 SHA-256 放进产物目录；
+ * 编译结果（含编译错误）缓存在内存中，相同代码只编译一次；编译成功的产物同时写入持久化存储，
+ * 沙箱重启后从存储中取回，启动时预先载入最近使用的。
+ * 产物按引用计数删除：缓存和每次执行各持有一个引用，被缓存淘汰的产物等到使用它的执行全部结束才删除；编译超时的结果不缓存。
+ * 编译器处理的也是不可信的代码，与执行用例一样在命名空间和 cgroup 中运行，编译错误中只保留工作目录内文件的诊断信息
+ */
+@Slf4j
+public abstract class ToolchainRunner implements LanguageRunner {
+
+    @Resource
+    protected LangConfig langConfig;
+
+    @Resource
+    private WorkspaceManager workspaceManager;
+
+    @Resource
+    private DeadlineManager deadlineManager;
+
+    @Resource
+    private StoreConfig storeConfig;
+
+    @Resource
+    private ArtifactStore artifactStore;
+
+    @Resource
+    private NamespaceIsolator namespaceIsolator;
+
+    @Resource
+    private CgroupManager cgroupManager;
+
+    //编译器诊断信息的开头：文件:行:列: 或 文件: ，之后的行属于同一条诊断
+    private static final Pattern DIAGNOSTIC_PATTERN = Pattern.compile("^(\\S[^:]*):(\\d+:)*\\s");
+
+    //编译错误信息的最大长度
+    private static final int MAX_DIAGNOSTIC_LENGTH = 16 * 1024;
+
+    private File artifactDir;
+
+    //编译器版本，编译器升级后产物不再命中
+    private String toolchainVersion = "";
+
+    private CompileCache compileCache;
+
+    //编译产物的引用数，在 compileCache 上同步，与缓存的读取和淘汰互斥
+    private final Map<File, Integer> artifactRefs = new HashMap<>();
+
+    //正在编译中的任务，相同代码同时提交时只编译一次
+    private final Map<String, CompletableFuture<CompileResult>> compiling = new ConcurrentHashMap<>();
+
+    private boolean available;
+
+    @PostConstruct
+    public void init() {
+        artifactDir = new File(langConfig.getArtifactDir(), getLanguage());
+        //内存中的缓存不跨进程，上次运行留下的产物直接清掉
+        FileUtil.del(artifactDir);
+        FileUtil.mkdir(artifactDir);
+        //淘汰时在缓存的锁内释放缓存持有的引用
+        compileCache = new CompileCache(langConfig.getCacheSize(), this::release);
+        available = isOnPath(getToolchain().getCommand());
+        if (!available) {
+            log.info("{} is not installed, language {} is disabled", getToolchain().getCommand(), getLanguage());
+            return;
+        }
+        toolchainVersion = readToolchainVersion();
+        warmUp();
+    }
+
+    /**
+     * 编译器或解释器配置
+     *
+     * @return
+     */
+    protected abstract Toolchain getToolchain();
+
+    /**
+     * 源码文件名
+     *
+     * @return
+     */
+    protected abstract String getSourceFileName();
+
+    /**
+     * 编译产物文件名，与源码文件名相同时表示只检查不生成新文件
+     *
+     * @return
+     */
+    protected abstract String getOutputFileName();
+
+    /**
+     * 在编译目录中执行的编译命令
+     *
+     * @return
+     */
+    protected abstract List<String> getCompileCommand();
+
+    /**
+     * 输出编译器版本的命令，取输出的第一行
+     *
+     * @return
+     */
+    protected List<String> getVersionCommand() {
+        return Arrays.asList(getToolchain().getCommand(), "--version");
+    }
+
+    /**
+     * 编译时额外的环境变量
+     *
+     * @return
+     */
+    protected Map<String, String> getCompileEnvironment() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * 隔离编译时额外的环境变量，编译器只能写编译目录，临时文件也放在编译目录中
+     *
+     * @param dir 编译目录
+     * @return
+     */
+    protected Map<String, String> getIsolatedCompileEnvironment(File dir) {
+        Map<String, String> environment = new HashMap<>(getCompileEnvironment());
+        environment.put("TMPDIR", dir.getAbsolutePath());
+        return environment;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Override
+    public CompileResult compile(String code) {
+        String key = cacheKey(code);
+        synchronized (compileCache) {
+            CompileResult cached = compileCache.get(key);
+            if (cached != null && retain(cached)) {
+                return cached;
+            }
+        }
+        CompletableFuture<CompileResult> future = new CompletableFuture<>();
+        CompletableFuture<CompileResult> running = compiling.putIfAbsent(key, future);
+        if (running != null) {
+            CompileResult compileResult = running.join();
+            boolean retained;
+            synchronized (compileCache) {
+                retained = retain(compileResult);
+            }
+            //等待期间产物已经被淘汰并删除时重新编译
+            return retained ? compileResult : compile(code);
+        }
+        try {
+            CompileResult compileResult = loadStored(key);
+            if (compileResult == null) {
+                compileResult = doCompile(code, key);
+                if (compileResult.isSuccess()) {
+                    artifactStore.put(getLanguage(), key, compileResult.getArtifact());
+                }
+            }
+            synchronized (compileCache) {
+                //超时可能是机器繁忙造成的，不缓存
+                if (!compileResult.isTimeout()) {
+                    cache(key, compileResult);
+                }
+                addRef(compileResult);
+            }
+            future.complete(compileResult);
+            return compileResult;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            compiling.remove(key);
+        }
+    }
+
+    @Override
+    public void release(CompileResult compileResult) {
+        File artifact = compileResult.getArtifact();
+        if (artifact == null) {
+            return;
+        }
+        synchronized (compileCache) {
+            Integer refs = artifactRefs.get(artifact);
+            if (refs == null) {
+                return;
+            }
+            if (refs > 1) {
+                artifactRefs.put(artifact, refs - 1);
+                return;
+            }
+            artifactRefs.remove(artifact);
+            FileUtil.del(artifact);
+        }
+    }
+
+    //放进缓存，缓存持有一个引用
+    private void cache(String key, CompileResult compileResult) {
+        synchronized (compileCache) {
+            compileCache.put(key, compileResult);
+            addRef(compileResult);
+        }
+    }
+
+    //产物还在时增加一个引用，已经被删除时返回 false
+    private boolean retain(CompileResult compileResult) {
+        File artifact = compileResult.getArtifact();
+        if (artifact == null) {
+            return true;
+        }
+        if (!artifactRefs.containsKey(artifact)) {
+            return false;
+        }
+        addRef(compileResult);
+        return true;
+    }
+
+    private void addRef(CompileResult compileResult) {
+        if (compileResult.getArtifact() != null) {
+            artifactRefs.merge(compileResult.getArtifact(), 1, Integer::sum);
+        }
+    }
+
+    @Override
+    public long getMemoryOverhead() {
+        return getToolchain().getMemoryOverhead();
+    }
+
+    @Override
+    public long getCpuOverhead() {
+        return getToolchain().getCpuOverhead();
+    }
+
+    public CompileCache getCompileCache() {
+        return compileCache;
+    }
+
+    protected File getArtifactDir() {
+        return artifactDir;
+    }
+
+    private String cacheKey(String code) {
+        Toolchain toolchain = getToolchain();
+        return DigestUtil.sha256Hex(toolchainVersion + "\u0000" + toolchain.getCommand() + " "
+                + String.join(" ", toolchain.getOptions()) + "\u0000" + code);
+    }
+
+    //从旧到新载入最近使用的产物，载入后在缓存中的先后与存储中一致
+    private void warmUp() {
+        List<String> keys = artifactStore.recentKeys(getLanguage(), Math.min(storeConfig.getWarmUpSize(), langConfig.getCacheSize()));
+        for (int i = keys.size() - 1; i >= 0; i--) {
+            CompileResult compileResult = loadStored(keys.get(i));
+            if (compileResult != null) {
+                cache(keys.get(i), compileResult);
+            }
+        }
+        if (!keys.isEmpty()) {
+            log.info("warm up {} compile cache, entries = {}", getLanguage(), compileCache.size());
+        }
+    }
+
+    //从存储中取回产物放进产物目录
+    private CompileResult loadStored(String key) {
+        File artifact = artifactFile(key);
+        if (!artifactStore.get(key, artifact)) {
+            return null;
+        }
+        artifact.setExecutable(true);
+        return new CompileResult(true, Collections.emptyMap(), "", artifact);
+    }
+
+    private File artifactFile(String key) {
+        return new File(artifactDir, key + "-" + getOutputFileName());
+    }
+
+    private String readToolchainVersion() {
+        try {
+            Process process = new ProcessBuilder(getVersionCommand()).redirectErrorStream(true).start();
+            if (!process.waitFor(langConfig.getCompileTimeout(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                return "";
+            }
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return output.isEmpty() ? "" : output.split("\n")[0].trim();
+        } catch (IOException e) {
+            log.warn("read {} version error", getToolchain().getCommand(), e);
+            return "";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "";
+        }
+    }
+
+    private CompileResult doCompile(String code, String key) {
+        try (Workspace workspace = workspaceManager.acquire()) {
+            File dir = workspace.getDir();
+            FileUtil.writeString(code, new File(dir, getSourceFileName()), StandardCharsets.UTF_8);
+            boolean isolated = namespaceIsolator.isEnabled();
+            CaseCgroup cgroup = null;
+            try {
+                List<String> compileCmd = getCompileCommand();
+                Map<String, String> environment = getCompileEnvironment();
+                if (isolated) {
+                    //编译目录可写，其余只有工具链且只读
+                    namespaceIsolator.handOver(dir);
+                    compileCmd = namespaceIsolator.wrap(compileCmd, dir, Collections.emptyList(), Collections.singletonList(dir));
+                    environment = getIsolatedCompileEnvironment(dir);
+                }
+                if (cgroupManager.isEnabled()) {
+                    cgroup = cgroupManager.create(langConfig.getCompileMemoryLimit());
+                    compileCmd = cgroup.wrap(compileCmd);
+                }
+                ProcessBuilder processBuilder = new ProcessBuilder(compileCmd).directory(dir);
+                processBuilder.environment().putAll(environment);
+                Process compileProcess = processBuilder.start();
+                Deadline deadline = deadlineManager.register(compileProcess, langConfig.getCompileTimeout());
+                ExecuteMessage executeMessage;
+                try {
+                    executeMessage = ProcessUtils.runProcessAndGetMessage(compileProcess, "编译");
+                } finally {
+                    deadline.cancel();
+                }
+                if (deadline.isExpired()) {
+                    return new CompileResult(false, Collections.emptyMap(), "编译超时", null, true);
+                }
+                if (cgroup != null && cgroup.isOomKilled()) {
+                    return new CompileResult(false, Collections.emptyMap(), "编译内存超限");
+                }
+                if (executeMessage.getExitValue() == null || executeMessage.getExitValue() != 0) {
+                    String message = StrUtil.isNotBlank(executeMessage.getErrorMessage())
+                            ? executeMessage.getErrorMessage()
+                            : executeMessage.getMessage();
+                    return new CompileResult(false, Collections.emptyMap(), filterDiagnostics(message, dir));
+                }
+            } finally {
+                if (cgroup != null) {
+                    cgroup.close();
+                }
+                if (isolated) {
+                    namespaceIsolator.takeBack(dir);
+                }
+            }
+            File artifact = artifactFile(key);
+            FileUtil.move(new File(dir, getOutputFileName()), artifact, true);
+            artifact.setExecutable(true);
+            return new CompileResult(true, Collections.emptyMap(), "", artifact);
+        } catch (IOException e) {
+            throw new RuntimeException("编译错误", e);
+        }
+    }
+
+    //去掉工作目录以外文件的诊断信息（如 #include 任意文件时编译器回显的内容），并限制长度
+    static String filterDiagnostics(String message, File dir) {
+        if (message == null) {
+            return null;
+        }
+        Path root = dir.toPath().toAbsolutePath().normalize();
+        List<String> kept = new ArrayList<>();
+        boolean keep = true;
+        boolean dropped = false;
+        for (String line : message.split("\n", -1)) {
+            Matcher matcher = DIAGNOSTIC_PATTERN.matcher(line);
+            if (matcher.find()) {
+                keep = root.resolve(matcher.group(1)).normalize().startsWith(root);
+            }
+            if (keep) {
+                kept.add(line);
+            } else {
+                dropped = true;
+            }
+        }
+        if (dropped) {
+            kept.add("（省略工作目录外文件的诊断信息）");
+        }
+        String filtered = String.join("\n", kept);
+        return filtered.length() > MAX_DIAGNOSTIC_LENGTH ? filtered.substring(0, MAX_DIAGNOSTIC_LENGTH) : filtered;
+    }
+
+    //命令是否可以执行：带路径时直接检查，否则在 PATH 中查找
+    private static boolean isOnPath(String command) {
+        if (command.contains(File.separator)) {
+            return new File(command).canExecute();
+        }
+        String path = System.getenv("PATH");
+        if (path == null) {
+            return false;
+        }
+        for (String dir : path.split(File.pathSeparator)) {
+            if (new File(dir, command).canExecute()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
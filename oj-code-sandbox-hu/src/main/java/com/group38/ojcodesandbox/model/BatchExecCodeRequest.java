@@ -0,0 +1,51 @@
+package com.group38.ojcodesandbox.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+//批量执行请求：同一道题的多份提交共用一组输入和限制，输入只传一次
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchExecCodeRequest {
+
+    private List<BatchSubmission> submissions; // 提交列表
+
+    private List<String> inputList; // 输入列表 <String>
+
+    private String inputMode; // 输入方式 stdin / args，为空时按 args 处理
+
+    private List<String> inputFileList; // 输入文件列表 <String>，相对沙箱测试数据目录
+
+    private Long memoryLimit; // 内存限制(kb)，为空时不限制
+
+    private Long timeLimit; // CPU 时间限制(ms)，为空时不限制
+
+    private Boolean stopOnFirstFailure; // 遇错即停，为空时执行全部用例
+
+    private List<String> expectedOutputList; // 期望输出列表 <String>，遇错即停或沙箱内比对时逐个用例检查
+
+    private Boolean compareOutput; // 沙箱内比对，只返回逐个用例的判题结果和差异片段
+
+    private List<String> expectedOutputDigestList; // 期望输出摘要列表 <String>，沙箱内比对且没有期望输出时使用
+
+    //转为共用的单次执行请求，用于整理输入
+    public ExecCodeRequest toExecCodeRequest() {
+        return ExecCodeRequest.builder()
+                .inputList(inputList)
+                .inputMode(inputMode)
+                .inputFileList(inputFileList)
+                .memoryLimit(memoryLimit)
+                .timeLimit(timeLimit)
+                .stopOnFirstFailure(stopOnFirstFailure)
+                .expectedOutputList(expectedOutputList)
+                .compareOutput(compareOutput)
+                .expectedOutputDigestList(expectedOutputDigestList)
+                .build();
+    }
+}
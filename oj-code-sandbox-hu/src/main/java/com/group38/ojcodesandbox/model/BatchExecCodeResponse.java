@@ -0,0 +1,22 @@
+package com.group38.ojcodesandbox.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchExecCodeResponse {
+
+    private String message; // 接口信息
+
+    private Integer status; // 状态码，1 表示整批已执行，各提交的结果见 resultList
+
+    private List<BatchExecResult> resultList; // 按提交顺序排列的结果
+
+}
@@ -0,0 +1,17 @@
+package com.group38.ojcodesandbox.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//批量执行中一份提交的结果
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchExecResult {
+
+    private String id; // 提交 id
+
+    private ExecCodeResponse result; // 执行结果，与单次执行的响应相同
+
+}
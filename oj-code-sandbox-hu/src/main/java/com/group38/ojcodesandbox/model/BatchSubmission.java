@@ -0,0 +1,19 @@
+package com.group38.ojcodesandbox.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//批量执行中的一份提交
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSubmission {
+
+    private String id; // 调用方的提交 id，原样返回
+
+    private String code; // 代码
+
+    private String lang; // 编程语言
+
+}
@@ -0,0 +1,39 @@
+package com.group38.ojcodesandbox.model;
+
+import lombok.Data;
+
+//单个用例的执行结果，异步执行时逐个推送
+@Data
+public class CaseResult {
+
+    private Integer index; // 用例下标
+
+    private Integer exitValue; // 退出码
+
+    private String output; // 标准输出
+
+    private String errorMessage; // 错误输出，异常退出时才有
+
+    private String verdict; // 沙箱直接给出的判题结果（如超时、内存超限）
+    private String diff; // 沙箱内比对时答案错误的差异片段
+
+    private Long time; // 墙钟时间(ms)
+
+    private Long cpuTime; // CPU 时间(ms)
+
+    private Long memory; // 峰值内存(kb)
+
+    public static CaseResult of(int index, ExecuteMessage executeMessage) {
+        CaseResult caseResult = new CaseResult();
+        caseResult.setIndex(index);
+        caseResult.setExitValue(executeMessage.getExitValue());
+        caseResult.setOutput(executeMessage.getMessage());
+        caseResult.setErrorMessage(executeMessage.getErrorMessage());
+        caseResult.setVerdict(executeMessage.getVerdict());
+        caseResult.setDiff(executeMessage.getDiff());
+        caseResult.setTime(executeMessage.getTime());
+        caseResult.setCpuTime(executeMessage.getCpuTime());
+        caseResult.setMemory(executeMessage.getMemory());
+        return caseResult;
+    }
+}
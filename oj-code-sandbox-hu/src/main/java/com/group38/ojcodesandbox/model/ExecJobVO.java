@@ -0,0 +1,24 @@
+package com.group38.ojcodesandbox.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+//异步执行任务的状态和结果
+@Data
+public class ExecJobVO {
+
+    private String jobId; // 任务 id
+
+    private String status; // 任务状态 queued / running / succeed / failed
+
+    private Integer totalCases; // 用例总数
+
+    private List<CaseResult> caseResults; // 已完成的用例，按完成顺序排列
+
+    private ExecCodeResponse result; // 全部完成后的执行结果，与同步接口的返回值一致
+
+    private Long createTime; // 提交时间
+
+    private Long finishTime; // 完成时间
+}
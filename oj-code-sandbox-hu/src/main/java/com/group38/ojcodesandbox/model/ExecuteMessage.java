@@ -11,5 +11,19 @@ public class ExecuteMessage {
 
     private String errorMessage;
 
+    //墙钟时间(ms)
     private Long time;
+
+    //CPU 时间(ms)，用户态与内核态之和
+    private Long cpuTime;
+
+    //峰值内存(kb)
+    private Long memory;
+
+    //沙箱直接给出的判题结果（如输出超限），正常执行时为空
+    private String verdict;
+    //沙箱内比对的结果，没有比对时为空
+    private Boolean outputMatched;
+    //输出与期望输出不一致时的差异片段
+    private String diff;
 }
@@ -16,7 +16,11 @@ public class JudgeInfo {
      */
     private Long memory;
     /*
-     *消耗时间(kb)
+     * 消耗 CPU 时间(ms)，用户态与内核态之和，与题目的时间限制比较
      */
     private Long time;
+    /*
+     * 墙钟时间(ms)
+     */
+    private Long wallTime;
 }
@@ -0,0 +1,35 @@
+package com.group38.ojcodesandbox.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.File;
+import java.util.List;
+
+//单个用例的输入和资源限制
+@Data
+@NoArgsConstructor
+public class RunInput {
+
+    private List<String> args; // 程序参数
+
+    private byte[] stdin; // 标准输入内容
+
+    private File stdinFile; // 标准输入文件，不为空时直接把文件接到程序的标准输入
+
+    private long memoryLimit; // 内存限制(kb)，不大于 0 时不限制
+
+    private long timeLimit; // CPU 时间限制(ms)，不大于 0 时不限制
+
+    private String expectedOutput; // 期望输出，遇错即停或沙箱内比对时用于检查，为空时只检查是否正常退出
+
+    private String expectedDigest; // 期望输出摘要，沙箱内比对且没有期望输出时使用
+
+    private boolean compareOutput; // 在沙箱内边读取边比对输出，不保存输出内容
+
+    public RunInput(List<String> args, byte[] stdin, File stdinFile) {
+        this.args = args;
+        this.stdin = stdin;
+        this.stdinFile = stdinFile;
+    }
+}
@@ -0,0 +1,38 @@
+package com.group38.ojcodesandbox.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+//沙箱节点的容量和状态，供调用方按实际余量分配请求
+@Data
+public class SandboxStatus {
+
+    private String nodeId; // 节点标识
+
+    private String url; // 调用方访问该节点的地址
+
+    private Integer cores; // CPU 核数
+
+    private Integer cpuBudget; // 同时执行的用例数上限
+
+    private Integer runningCases; // 正在执行的用例数
+
+    private Integer freeSlots; // 空闲的用例执行槽位数
+
+    private Integer maxInFlight; // 同时执行的请求数上限
+
+    private Integer inFlight; // 正在执行的请求数
+
+    private Integer queueDepth; // 排队等待的请求数
+
+    private Integer queueCapacity; // 排队等待的请求数上限
+
+    private Integer batchPending; // 批量执行中尚未完成的提交数
+
+    private Integer cachedArtifacts; // 缓存的编译结果数（所有语言）
+
+    private List<String> languages; // 支持的编程语言
+
+    private Long timestamp; // 生成时间
+}
@@ -0,0 +1,47 @@
+package com.group38.ojcodesandbox.model.enums;
+
+import cn.hutool.core.util.StrUtil;
+
+/**
+ * 测试输入的传递方式
+ */
+public enum InputModeEnum {
+
+    STDIN("标准输入", "stdin"),
+    ARGS("命令行参数", "args");
+
+    private final String text;
+
+    private final String value;
+
+    InputModeEnum(String text, String value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 根据 value 获取枚举
+     *
+     * @param value
+     * @return
+     */
+    public static InputModeEnum getEnumByValue(String value) {
+        if (StrUtil.isEmpty(value)) {
+            return null;
+        }
+        for (InputModeEnum anEnum : InputModeEnum.values()) {
+            if (anEnum.value.equals(value)) {
+                return anEnum;
+            }
+        }
+        return null;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getText() {
+        return text;
+    }
+}
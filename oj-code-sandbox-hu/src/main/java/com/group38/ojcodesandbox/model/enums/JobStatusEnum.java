@@ -0,0 +1,49 @@
+package com.group38.ojcodesandbox.model.enums;
+
+import cn.hutool.core.util.StrUtil;
+
+/**
+ * 异步执行任务的状态
+ */
+public enum JobStatusEnum {
+
+    QUEUED("排队中", "queued"),
+    RUNNING("执行中", "running"),
+    SUCCEED("已完成", "succeed"),
+    FAILED("失败", "failed");
+
+    private final String text;
+
+    private final String value;
+
+    JobStatusEnum(String text, String value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 根据 value 获取枚举
+     *
+     * @param value
+     * @return
+     */
+    public static JobStatusEnum getEnumByValue(String value) {
+        if (StrUtil.isEmpty(value)) {
+            return null;
+        }
+        for (JobStatusEnum anEnum : JobStatusEnum.values()) {
+            if (anEnum.value.equals(value)) {
+                return anEnum;
+            }
+        }
+        return null;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public String getText() {
+        return text;
+    }
+}
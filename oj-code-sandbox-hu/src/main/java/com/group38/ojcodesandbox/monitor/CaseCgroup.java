@@ -0,0 +1,136 @@
+package com.group38.ojcodesandbox.monitor;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单个用例独占的 cgroup v2 叶子节点
+ * <p>
+ * 进程在 exec 之前就加入该节点，用户代码从第一条指令开始就受内核限制和统计
+ */
+@Slf4j
+public class CaseCgroup implements AutoCloseable {
+
+    private final Path path;
+
+    CaseCgroup(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * 包装启动命令：先由 shell 把自身加入 cgroup，再 exec 真正的程序（pid 不变）
+     *
+     * @param command 原始命令
+     * @return
+     */
+    public List<String> wrap(List<String> command) {
+        List<String> wrapped = new ArrayList<>();
+        wrapped.add("/bin/sh");
+        wrapped.add("-c");
+        wrapped.add("echo $$ > \"$0/cgroup.procs\" && exec \"$@\"");
+        wrapped.add(path.toString());
+        wrapped.addAll(command);
+        return wrapped;
+    }
+
+    /**
+     * 把已经启动的进程加入 cgroup（如预先启动的解释器），加入前已占用的资源不计入
+     *
+     * @param pid
+     * @throws IOException
+     */
+    public void attach(long pid) throws IOException {
+        write(path.resolve("cgroup.procs"), String.valueOf(pid));
+    }
+
+    /**
+     * 峰值内存(kb)
+     *
+     * @return
+     */
+    public long getPeakMemory() {
+        String peak = read("memory.peak");
+        return peak == null ? 0 : Long.parseLong(peak.trim()) / 1024;
+    }
+
+    /**
+     * 是否因超过内存限制被内核结束
+     *
+     * @return
+     */
+    public boolean isOomKilled() {
+        return readKey("memory.events", "oom_kill") > 0;
+    }
+
+    /**
+     * 读取扁平键值文件（如 memory.events、cpu.stat）中的一项
+     *
+     * @param file 文件名
+     * @param key  键
+     * @return 不存在时返回 0
+     */
+    public long readKey(String file, String key) {
+        String content = read(file);
+        if (content == null) {
+            return 0;
+        }
+        for (String line : content.split("\n")) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length == 2 && parts[0].equals(key)) {
+                return Long.parseLong(parts[1]);
+            }
+        }
+        return 0;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    //结束节点内残留的进程并删除节点
+    @Override
+    public void close() {
+        Path kill = path.resolve("cgroup.kill");
+        if (Files.exists(kill)) {
+            try {
+                write(kill, "1");
+            } catch (IOException e) {
+                log.warn("kill cgroup error, path = {}", path, e);
+            }
+        }
+        for (int i = 0; i < 50; i++) {
+            try {
+                Files.delete(path);
+                return;
+            } catch (IOException e) {
+                //进程还没有完全退出，稍后重试
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        log.warn("remove cgroup error, path = {}", path);
+    }
+
+    private String read(String file) {
+        try {
+            return new String(Files.readAllBytes(path.resolve(file)), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static void write(Path file, String value) throws IOException {
+        Files.write(file, value.getBytes(StandardCharsets.UTF_8), StandardOpenOption.WRITE);
+    }
+}
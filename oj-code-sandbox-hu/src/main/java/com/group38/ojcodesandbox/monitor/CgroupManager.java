@@ -0,0 +1,85 @@
+package com.group38.ojcodesandbox.monitor;
+
+import com.group38.ojcodesandbox.config.MonitorConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+/**
+ * cgroup v2 管理
+ * <p>
+ * 启动时检查配置的 cgroup 目录是否可用，可用时每个用例在其下创建一个叶子节点，
+ * 由内核限制内存并统计峰值内存和 CPU 时间
+ */
+@Component
+@Slf4j
+public class CgroupManager {
+
+    private static final Path CGROUP2_CONTROLLERS = Paths.get("/sys/fs/cgroup/cgroup.controllers");
+
+    @Resource
+    private MonitorConfig monitorConfig;
+
+    private Path root;
+
+    private volatile boolean enabled;
+
+    @PostConstruct
+    public void init() {
+        if (!monitorConfig.isCgroupEnabled()) {
+            return;
+        }
+        if (!Files.exists(CGROUP2_CONTROLLERS)) {
+            log.info("cgroup v2 is not available, fall back to sampling /proc");
+            return;
+        }
+        try {
+            root = Paths.get(monitorConfig.getCgroupRoot());
+            Files.createDirectories(root);
+            //子节点需要 memory 控制器才能限制内存，cpu.stat 不依赖控制器
+            CaseCgroup.write(root.resolve("cgroup.subtree_control"), "+memory");
+            enabled = true;
+            log.info("cgroup v2 enabled, root = {}", root);
+        } catch (IOException e) {
+            log.warn("cgroup root {} is not usable, fall back to sampling /proc", monitorConfig.getCgroupRoot(), e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 为用例创建 cgroup
+     *
+     * @param memoryLimit 内存限制(kb)，不大于 0 时不限制
+     * @return
+     * @throws IOException
+     */
+    public CaseCgroup create(long memoryLimit) throws IOException {
+        Path path = root.resolve("case-" + UUID.randomUUID());
+        Files.createDirectory(path);
+        CaseCgroup cgroup = new CaseCgroup(path);
+        try {
+            if (memoryLimit > 0) {
+                CaseCgroup.write(path.resolve("memory.max"), String.valueOf(memoryLimit * 1024));
+                //不允许使用交换分区绕过内存限制，内核未开启 swap 统计时没有该文件
+                Path swapMax = path.resolve("memory.swap.max");
+                if (Files.exists(swapMax)) {
+                    CaseCgroup.write(swapMax, "0");
+                }
+            }
+        } catch (IOException e) {
+            cgroup.close();
+            throw e;
+        }
+        return cgroup;
+    }
+}
@@ -0,0 +1,233 @@
+package com.group38.ojcodesandbox.monitor;
+
+import com.group38.ojcodesandbox.config.MonitorConfig;
+import com.group38.ojcodesandbox.utils.ProcessUtils;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 进程资源采样
+ * <p>
+ * 所有用例共用采样线程池，线程数随同时执行的用例数增减，定期统计进程的 CPU 时间和峰值内存，超过限制时强制结束进程：
+ * 有 cgroup 时 CPU 时间取自 cpu.stat（内存由内核限制）；
+ * 否则读取进程及其子进程的 CPU 时间和 /proc/[pid]/status 中的 VmHWM（内核记录的峰值常驻内存），
+ * 每次采样只遍历一次子进程。停止采样时再读一次，进程已经退出、读不到时保留最后一次采样的值
+ */
+@Component
+public class ProcessSampler {
+
+    private static final Path PROC = Paths.get("/proc");
+
+    @Resource
+    private MonitorConfig monitorConfig;
+
+    private ScheduledThreadPoolExecutor timer;
+
+    //正在采样的用例数
+    private final AtomicInteger watching = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "process-sampler-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        //减少线程数后多出的线程空闲一段时间后退出
+        timer.setKeepAliveTime(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * 开始采样
+     *
+     * @param process     进程
+     * @param cgroup      进程所在的 cgroup，为空时按进程统计
+     * @param memoryLimit 内存限制(kb)，不大于 0 时只统计不限制
+     * @param cpuLimit    CPU 时间限制(ms)，不大于 0 时只统计不限制
+     * @return
+     */
+    public Sample watch(Process process, CaseCgroup cgroup, long memoryLimit, long cpuLimit) {
+        return watch(process, cgroup, memoryLimit, cpuLimit, 0);
+    }
+
+    /**
+     * 开始采样，进程是预先启动的（如 Python 解释器）时扣除启动占用的 CPU 时间
+     *
+     * @param process      进程
+     * @param cgroup       进程所在的 cgroup，为空时按进程统计
+     * @param memoryLimit  内存限制(kb)，不大于 0 时只统计不限制
+     * @param cpuLimit     CPU 时间限制(ms)，不大于 0 时只统计不限制
+     * @param startCpuTime 开始采样前进程已经占用的 CPU 时间(ms)，只在按进程统计时扣除
+     * @return
+     */
+    public Sample watch(Process process, CaseCgroup cgroup, long memoryLimit, long cpuLimit, long startCpuTime) {
+        Sample sample = new Sample(this, process, cgroup, memoryLimit, cpuLimit, startCpuTime);
+        resize(watching.incrementAndGet());
+        sample.future = timer.scheduleAtFixedRate(sample::sample, 0, monitorConfig.getSampleInterval(),
+                TimeUnit.MILLISECONDS);
+        return sample;
+    }
+
+    //按正在采样的用例数调整线程数
+    private void resize(int cases) {
+        int perThread = Math.max(1, monitorConfig.getCasesPerSamplerThread());
+        int threads = Math.max(1, Math.min(monitorConfig.getMaxSamplerThreads(), (cases + perThread - 1) / perThread));
+        synchronized (timer) {
+            if (timer.getCorePoolSize() != threads) {
+                timer.setCorePoolSize(threads);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        timer.shutdownNow();
+    }
+
+    //读取进程的峰值常驻内存(kb)，进程已退出时返回 0
+    static long readPeakRss(long pid) {
+        try {
+            String status = new String(Files.readAllBytes(PROC.resolve(pid + "/status")), StandardCharsets.UTF_8);
+            for (String line : status.split("\n")) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.substring("VmHWM:".length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            //进程已经退出
+        }
+        return 0;
+    }
+
+    //读取进程的 CPU 时间(ms)，进程已退出时返回 0
+    public static long readCpuTime(ProcessHandle handle) {
+        return handle.info().totalCpuDuration().map(Duration::toMillis).orElse(0L);
+    }
+
+    /**
+     * 一个进程的采样
+     */
+    public static class Sample {
+
+        private final ProcessSampler sampler;
+
+        private final Process process;
+
+        private final CaseCgroup cgroup;
+
+        private final long memoryLimit;
+
+        private final long cpuLimit;
+
+        private final long startCpuTime;
+
+        private volatile long peakMemory;
+
+        private volatile long cpuTime;
+
+        private volatile boolean memoryExceeded;
+
+        private volatile boolean cpuExceeded;
+
+        private ScheduledFuture<?> future;
+
+        private boolean stopped;
+
+        private Sample(ProcessSampler sampler, Process process, CaseCgroup cgroup, long memoryLimit, long cpuLimit,
+                       long startCpuTime) {
+            this.sampler = sampler;
+            this.process = process;
+            this.cgroup = cgroup;
+            this.memoryLimit = memoryLimit;
+            this.cpuLimit = cpuLimit;
+            this.startCpuTime = startCpuTime;
+        }
+
+        private synchronized void sample() {
+            ProcessHandle handle = process.toHandle();
+            long cpu;
+            if (cgroup != null) {
+                cpu = cgroup.readKey("cpu.stat", "usage_usec") / 1000;
+            } else {
+                //遍历子进程要扫描整个 /proc，每次采样只遍历一次
+                List<ProcessHandle> descendants = handle.descendants().collect(Collectors.toList());
+                long processCpu = readCpuTime(handle);
+                long memory = readPeakRss(handle.pid());
+                for (ProcessHandle descendant : descendants) {
+                    processCpu += readCpuTime(descendant);
+                    memory += readPeakRss(descendant.pid());
+                }
+                cpu = processCpu - startCpuTime;
+                peakMemory = Math.max(peakMemory, memory);
+                if (memoryLimit > 0 && memory > memoryLimit && !memoryExceeded) {
+                    memoryExceeded = true;
+                    ProcessUtils.destroyTree(process);
+                }
+            }
+            //进程退出后读不到 CPU 时间，保留最后一次采样的值
+            cpuTime = Math.max(cpuTime, cpu);
+            if (cpuLimit > 0 && cpu > cpuLimit && !cpuExceeded) {
+                cpuExceeded = true;
+                ProcessUtils.destroyTree(process);
+            }
+        }
+
+        /**
+         * 停止采样并补一次采样：有 cgroup 时拿到准确的 CPU 时间，按进程统计时进程还在（如墙钟超时）则拿到最新的值
+         */
+        public void stop() {
+            future.cancel(false);
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                stopped = true;
+            }
+            sampler.resize(sampler.watching.decrementAndGet());
+            sample();
+        }
+
+        /**
+         * 峰值内存(kb)，有 cgroup 时由 cgroup 统计
+         *
+         * @return
+         */
+        public long getPeakMemory() {
+            return peakMemory;
+        }
+
+        /**
+         * CPU 时间(ms)，用户态与内核态之和
+         *
+         * @return
+         */
+        public long getCpuTime() {
+            return cpuTime;
+        }
+
+        public boolean isMemoryExceeded() {
+            return memoryExceeded;
+        }
+
+        public boolean isCpuExceeded() {
+            return cpuExceeded;
+        }
+    }
+}
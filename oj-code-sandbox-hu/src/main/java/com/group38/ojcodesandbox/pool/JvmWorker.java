@@ -0,0 +1,171 @@
+package com.group38.ojcodesandbox.pool;
+
+import com.group38.ojcodesandbox.pool.WorkerProtocol.WorkerRequest;
+import com.group38.ojcodesandbox.pool.WorkerProtocol.WorkerResponse;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 一个常驻的执行进程
+ * <p>
+ * 通信走只有沙箱服务和该进程知道的 Unix 域套接字，进程的标准输出和标准错误被丢弃，用户代码无法伪造响应
+ */
+public class JvmWorker {
+
+    //等待执行进程连接的最长时间(ms)
+    private static final long START_TIMEOUT = 30000L;
+
+    private final Process process;
+
+    private final DataInputStream in;
+
+    private final DataOutputStream out;
+
+    //已执行次数
+    private int runs;
+
+    private JvmWorker(Process process, SocketChannel channel) {
+        this.process = process;
+        this.in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+    }
+
+    /**
+     * 启动执行进程并等待其就绪
+     * <p>
+     * 套接字放在只有当前用户可访问的临时目录中，路径作为参数传给执行进程，口令通过标准输入传过去后关闭；
+     * 执行进程连上后先回传就绪标记和口令，校验通过后删除套接字文件，之后其他进程无法再连接
+     *
+     * @param command 执行进程的启动命令，套接字路径追加在最后
+     * @return
+     */
+    public static JvmWorker start(List<String> command) throws IOException {
+        Path dir = Files.createTempDirectory("oj-worker",
+                PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        Path socket = dir.resolve("control.sock");
+        Process process = null;
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socket));
+            List<String> fullCommand = new ArrayList<>(command);
+            fullCommand.add(socket.toString());
+            ProcessBuilder processBuilder = new ProcessBuilder(fullCommand);
+            processBuilder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            processBuilder.redirectError(ProcessBuilder.Redirect.DISCARD);
+            process = processBuilder.start();
+            String token = UUID.randomUUID().toString();
+            try (OutputStream stdin = process.getOutputStream()) {
+                stdin.write((token + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            SocketChannel channel = accept(server);
+            JvmWorker worker = new JvmWorker(process, channel);
+            if (worker.in.readInt() != WorkerProtocol.READY || !token.equals(worker.in.readUTF())) {
+                throw new IOException("执行进程握手失败");
+            }
+            return worker;
+        } catch (IOException e) {
+            if (process != null) {
+                process.destroyForcibly();
+            }
+            throw e;
+        } finally {
+            Files.deleteIfExists(socket);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    //等待执行进程连接，超时视为启动失败
+    private static SocketChannel accept(ServerSocketChannel server) throws IOException {
+        server.configureBlocking(false);
+        try (Selector selector = Selector.open()) {
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            if (selector.select(START_TIMEOUT) == 0) {
+                throw new IOException("等待执行进程连接超时");
+            }
+        }
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            throw new IOException("等待执行进程连接超时");
+        }
+        channel.configureBlocking(true);
+        return channel;
+    }
+
+    /**
+     * 执行一次用户代码，进程异常退出时返回的响应中 recycle 为 true
+     *
+     * @param request 执行请求
+     * @return
+     */
+    public WorkerResponse execute(WorkerRequest request) {
+        runs++;
+        long start = System.currentTimeMillis();
+        try {
+            WorkerProtocol.writeRequest(out, request);
+            WorkerResponse response = WorkerProtocol.readResponse(in);
+            if (response.exitValue == WorkerProtocol.EXIT_UNKNOWN) {
+                //用户代码调用了 System.exit，退出码以进程为准
+                response.exitValue = process.waitFor();
+                response.recycle = true;
+            }
+            return response;
+        } catch (IOException | InterruptedException e) {
+            //进程被终止或崩溃
+            WorkerResponse response = new WorkerResponse();
+            response.exitValue = exitValueAfterDeath();
+            response.time = System.currentTimeMillis() - start;
+            response.recycle = true;
+            response.stdout = new byte[0];
+            response.stderr = new byte[0];
+            return response;
+        }
+    }
+
+    public void destroy() {
+        process.destroyForcibly();
+        try {
+            in.close();
+        } catch (IOException e) {
+            //进程已结束，忽略
+        }
+    }
+
+    public Process getProcess() {
+        return process;
+    }
+
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    private int exitValueAfterDeath() {
+        try {
+            return process.waitFor();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.group38.ojcodesandbox.pool;
+
+import cn.hutool.core.util.StrUtil;
+import com.group38.ojcodesandbox.cds.CdsArchiveManager;
+import com.group38.ojcodesandbox.config.WorkerPoolConfig;
+import com.group38.ojcodesandbox.pool.WorkerProtocol.WorkerRequest;
+import com.group38.ojcodesandbox.pool.WorkerProtocol.WorkerResponse;
+import com.group38.ojcodesandbox.scheduler.DeadlineManager;
+import com.group38.ojcodesandbox.scheduler.DeadlineManager.Deadline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 预热 JVM 执行进程池
+ * <p>
+ * 预先启动若干执行进程，每个用例借用一个进程执行，省去每个用例都要启动一次 JVM 的开销。
+ * 执行进程只在同一次提交的用例之间复用，提交结束后全部回收并补充新进程，一次提交留下的静态状态不会影响其他提交；
+ * 同一次提交中执行次数达到上限或发生超时、内存溢出等情况时也会提前回收。
+ * 补充进程的线程数与进程池大小相同，回收的进程并行补充；一时没有空闲进程时由调用方退回每个用例启动一个进程，不让提交失败
+ */
+@Component
+@Slf4j
+public class JvmWorkerPool {
+
+    @Resource
+    private WorkerPoolConfig workerPoolConfig;
+
+    @Resource
+    private DeadlineManager deadlineManager;
+
+    @Resource
+    private CdsArchiveManager cdsArchiveManager;
+
+    private final BlockingQueue<JvmWorker> idleWorkers = new LinkedBlockingQueue<>();
+
+    //负责启动新的执行进程，多个进程并行启动
+    private ExecutorService spawner;
+
+    private volatile boolean closed;
+
+    @PostConstruct
+    public void init() {
+        if (!workerPoolConfig.isEnabled()) {
+            return;
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        spawner = Executors.newFixedThreadPool(Math.max(1, workerPoolConfig.getSize()),
+                r -> daemon(r, "jvm-worker-spawner-" + threadIndex.incrementAndGet()));
+        for (int i = 0; i < workerPoolConfig.getSize(); i++) {
+            spawner.execute(this::spawnWorker);
+        }
+    }
+
+    public boolean isEnabled() {
+        return workerPoolConfig.isEnabled() && !closed;
+    }
+
+    /**
+     * 为一次提交打开一个会话，同一会话的用例复用执行进程，会话关闭时回收用过的进程
+     *
+     * @return
+     */
+    public Session openSession() {
+        return new Session();
+    }
+
+    //等待时间内没有空闲进程时返回 null
+    private JvmWorker borrow() {
+        try {
+            return idleWorkers.poll(workerPoolConfig.getBorrowTimeout(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待执行进程被中断", e);
+        }
+    }
+
+    //回收执行进程并补充新进程
+    private void recycle(JvmWorker worker) {
+        worker.destroy();
+        if (!closed) {
+            spawner.execute(this::spawnWorker);
+        }
+    }
+
+    private void spawnWorker() {
+        try {
+            JvmWorker worker = JvmWorker.start(buildWorkerCommand());
+            if (closed) {
+                worker.destroy();
+                return;
+            }
+            idleWorkers.offer(worker);
+        } catch (Exception e) {
+            log.error("start jvm worker error", e);
+        }
+    }
+
+    //每次补充进程时重新生成命令，归档生成后新启动的执行进程即可使用
+    private List<String> buildWorkerCommand() {
+        String javaBin = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String classPath;
+        try {
+            classPath = new File(WorkerMain.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("无法定位执行进程的 classpath", e);
+        }
+        List<String> command = new ArrayList<>();
+        command.add(javaBin);
+        command.addAll(cdsArchiveManager.getArchiveOptions());
+        command.addAll(StrUtil.splitTrim(workerPoolConfig.getJvmOptions(), ' '));
+        command.add("-Dfile.encoding=UTF-8");
+        command.add("-cp");
+        command.add(classPath);
+        command.add(WorkerMain.class.getName());
+        return command;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        closed = true;
+        if (spawner != null) {
+            spawner.shutdownNow();
+        }
+        JvmWorker worker;
+        while ((worker = idleWorkers.poll()) != null) {
+            worker.destroy();
+        }
+    }
+
+    /**
+     * 一次提交的执行会话，用例可以并发执行
+     */
+    public class Session implements AutoCloseable {
+
+        //本次提交用过且可以继续复用的执行进程
+        private final BlockingQueue<JvmWorker> workers = new LinkedBlockingQueue<>();
+
+        //遇错即停时会话关闭后可能还有用例在执行，这些用例用完的进程直接回收
+        private boolean sessionClosed;
+
+        private Session() {
+        }
+
+        /**
+         * 执行一个用例，优先使用本次提交已经用过的执行进程
+         *
+         * @param request   执行请求
+         * @param timeoutMs 超时时间
+         * @return 没有可用的执行进程时为 null，由调用方另行启动进程执行
+         */
+        public WorkerResponse execute(WorkerRequest request, long timeoutMs) {
+            JvmWorker worker = workers.poll();
+            if (worker == null) {
+                worker = borrow();
+            }
+            if (worker == null) {
+                return null;
+            }
+            boolean reusable = false;
+            Deadline deadline = deadlineManager.register(worker.getProcess(), timeoutMs);
+            try {
+                WorkerResponse response = worker.execute(request);
+                deadline.cancel();
+                reusable = !response.recycle && !deadline.isExpired();
+                if (deadline.isExpired()) {
+                    //墙钟超时被终止
+                    response.timeLimitExceeded = true;
+                }
+                return response;
+            } finally {
+                deadline.cancel();
+                giveBack(worker, reusable);
+            }
+        }
+
+        //放回会话，不可复用、达到执行次数上限或会话已关闭时回收
+        private void giveBack(JvmWorker worker, boolean reusable) {
+            synchronized (this) {
+                if (reusable && !sessionClosed && !closed && worker.isAlive()
+                        && worker.getRuns() < workerPoolConfig.getMaxRunsPerWorker()) {
+                    workers.offer(worker);
+                    return;
+                }
+            }
+            recycle(worker);
+        }
+
+        //提交结束，回收用过的执行进程
+        @Override
+        public void close() {
+            synchronized (this) {
+                sessionClosed = true;
+            }
+            JvmWorker worker;
+            while ((worker = workers.poll()) != null) {
+                recycle(worker);
+            }
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,394 @@
+package com.group38.ojcodesandbox.pool;
+
+import com.group38.ojcodesandbox.pool.WorkerProtocol.WorkerRequest;
+import com.group38.ojcodesandbox.pool.WorkerProtocol.WorkerResponse;
+import com.sun.management.OperatingSystemMXBean;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 常驻执行进程入口
+ * <p>
+ * 进程启动后通过 Unix 域套接字与沙箱服务通信，循环读取执行请求，每次用一个新的类加载器加载用户的 Main 并执行。
+ * 用户的标准输入输出被替换为内存缓冲区；进程本身的标准输入只用于启动时读取握手口令，随后就被关闭，标准输出被丢弃，
+ * 用户代码写 FileDescriptor.out 无法伪造响应。通信通道只保存在实例字段中，实例只被 JDK 内部的线程对象引用，
+ * 用户代码无法通过反射从静态字段找到它
+ */
+public class WorkerMain {
+
+    private final DataOutputStream controlOut;
+
+    //启动时的全局状态，每次执行后恢复，避免用户代码修改后影响后面的用例
+    private final Properties initialProperties;
+
+    private final Locale initialLocale = Locale.getDefault();
+
+    private final TimeZone initialTimeZone = TimeZone.getDefault();
+
+    //当前正在执行的用例，用户代码调用 System.exit 时由关闭钩子把已有输出发回去
+    private volatile RunState current;
+
+    private WorkerMain(DataOutputStream controlOut) {
+        this.controlOut = controlOut;
+        this.initialProperties = new Properties();
+        this.initialProperties.putAll(System.getProperties());
+    }
+
+    /**
+     * @param args 通信套接字的路径
+     */
+    public static void main(String[] args) throws IOException {
+        //握手口令由沙箱服务写入标准输入后关闭，用户代码运行时标准输入已经读完
+        String token = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)).readLine();
+        System.in.close();
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        channel.connect(UnixDomainSocketAddress.of(args[0]));
+        DataInputStream controlIn = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        DataOutputStream controlOut = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        controlOut.writeInt(WorkerProtocol.READY);
+        controlOut.writeUTF(token == null ? "" : token);
+        controlOut.flush();
+        new WorkerMain(controlOut).serve(controlIn);
+    }
+
+    private void serve(DataInputStream controlIn) throws IOException {
+        Runtime.getRuntime().addShutdownHook(new Thread(this::onExit));
+        Thread watchdog = new Thread(this::watchCpuTime, "cpu-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+
+        while (true) {
+            WorkerRequest request;
+            try {
+                request = WorkerProtocol.readRequest(controlIn);
+            } catch (EOFException e) {
+                //沙箱服务关闭了通道，正常退出
+                return;
+            }
+            //垃圾回收在开始计时之前进行，不计入用户代码的 CPU 时间
+            long heapBaseline = resetPeakHeap();
+            RunState state = new RunState(request.outputLimit, request.cpuLimit, heapBaseline);
+            synchronized (this) {
+                current = state;
+                notifyAll();
+            }
+            WorkerResponse response = runOnce(request, state);
+            respond(state, response);
+            current = null;
+            if (response.recycle) {
+                System.exit(0);
+            }
+            resetGlobalState();
+        }
+    }
+
+    //执行一次用户代码
+    private WorkerResponse runOnce(WorkerRequest request, RunState state) {
+        //输入文件直接作为标准输入，不经过通信通道
+        try (InputStream userIn = request.stdinFile != null
+                ? new BufferedInputStream(new FileInputStream(request.stdinFile))
+                : new ByteArrayInputStream(request.stdin)) {
+            return runOnce(request, state, userIn);
+        } catch (IOException e) {
+            WorkerResponse response = new WorkerResponse();
+            response.exitValue = 1;
+            response.stdout = new byte[0];
+            response.stderr = ("Error: " + e).getBytes(StandardCharsets.UTF_8);
+            return response;
+        }
+    }
+
+    private WorkerResponse runOnce(WorkerRequest request, RunState state, InputStream userIn) {
+        PrintStream userOut = new PrintStream(state.stdout, true);
+        PrintStream userErr = new PrintStream(state.stderr, true);
+        System.setOut(userOut);
+        System.setErr(userErr);
+        System.setIn(userIn);
+
+        //每次执行使用新的类加载器，父加载器为平台类加载器，用户代码看不到沙箱自身的类
+        ClassLoader parent = ClassLoader.getSystemClassLoader().getParent();
+        ByteClassLoader classLoader = new ByteClassLoader(request.classes, parent);
+        ThreadGroup group = new ThreadGroup("user-code");
+        int[] exitValue = {0};
+        boolean[] oom = {false};
+        Thread mainThread = new Thread(group, () -> {
+            try {
+                Class<?> mainClass = classLoader.loadClass("Main");
+                Method mainMethod = mainClass.getMethod("main", String[].class);
+                mainMethod.invoke(null, (Object) request.args.toArray(new String[0]));
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                oom[0] = cause instanceof OutOfMemoryError;
+                userErr.print("Exception in thread \"main\" ");
+                cause.printStackTrace(userErr);
+                exitValue[0] = 1;
+            } catch (Throwable e) {
+                oom[0] = e instanceof OutOfMemoryError;
+                userErr.print("Error: ");
+                e.printStackTrace(userErr);
+                exitValue[0] = 1;
+            }
+        }, "main");
+        mainThread.setContextClassLoader(classLoader);
+
+        long start = System.nanoTime();
+        mainThread.start();
+        boolean leftover = joinUserThreads(group);
+        long time = (System.nanoTime() - start) / 1000000L;
+        long cpuTime = cpuTime(state);
+        long memory = peakHeap(state.heapBaseline);
+
+        userOut.flush();
+        userErr.flush();
+        WorkerResponse response = new WorkerResponse();
+        response.exitValue = exitValue[0];
+        response.time = time;
+        response.cpuTime = cpuTime;
+        response.memory = memory;
+        //堆内存溢出或超过题目限制都判为内存超限
+        response.memoryLimitExceeded = oom[0] || (request.memoryLimit > 0 && memory > request.memoryLimit);
+        //内存溢出或残留后台线程的进程不再复用
+        response.recycle = oom[0] || leftover;
+        response.stdout = state.stdout.toByteArray();
+        response.stderr = state.stderr.toByteArray();
+        return response;
+    }
+
+    //恢复系统属性、默认语言环境和时区
+    private void resetGlobalState() {
+        Properties properties = new Properties();
+        properties.putAll(initialProperties);
+        System.setProperties(properties);
+        Locale.setDefault(initialLocale);
+        TimeZone.setDefault(initialTimeZone);
+    }
+
+    //执行进程是共用的，执行前先做一次完整的垃圾回收清掉之前执行留下的垃圾，返回回收后的堆内存用量作为基线(byte)
+    private static long resetPeakHeap() {
+        System.gc();
+        long baseline = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                baseline += pool.getUsage().getUsed();
+                pool.resetPeakUsage();
+            }
+        }
+        return baseline;
+    }
+
+    //本次执行使用的堆内存(kb)：执行期间的峰值减去执行前的基线
+    private static long peakHeap(long baseline) {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return Math.max(0, peak - baseline) / 1024;
+    }
+
+    //等待用户创建的所有非守护线程结束，返回是否还有残留的守护线程
+    private static boolean joinUserThreads(ThreadGroup group) {
+        while (true) {
+            Thread[] threads = new Thread[group.activeCount() + 1];
+            int count = group.enumerate(threads, true);
+            boolean waited = false;
+            boolean daemonAlive = false;
+            for (int i = 0; i < count; i++) {
+                Thread thread = threads[i];
+                if (thread.isDaemon()) {
+                    daemonAlive = true;
+                    continue;
+                }
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return true;
+                }
+                waited = true;
+            }
+            if (!waited) {
+                return daemonAlive;
+            }
+        }
+    }
+
+    //CPU 时间看门狗：当前执行超过 CPU 时间限制时判为超时并结束进程
+    //空闲时等待下一次执行；执行中按剩余的 CPU 时间除以核数等待，CPU 时间的增长不会快于此
+    private void watchCpuTime() {
+        int cores = Math.max(1, Runtime.getRuntime().availableProcessors());
+        while (true) {
+            try {
+                synchronized (this) {
+                    RunState state = current;
+                    if (state == null || state.cpuLimit <= 0) {
+                        wait();
+                        continue;
+                    }
+                    long remaining = state.cpuLimit - cpuTime(state);
+                    if (remaining >= 0) {
+                        wait(Math.max(1, remaining / cores));
+                        continue;
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            RunState state = current;
+            if (state != null) {
+                WorkerResponse response = abortedResponse(state, 0);
+                response.timeLimitExceeded = true;
+                respond(state, response);
+                Runtime.getRuntime().halt(0);
+            }
+        }
+    }
+
+    //输出超限：立即把已有输出发回给沙箱服务并结束进程，不再让用户代码继续执行
+    private void onOutputLimitExceeded(RunState state) {
+        WorkerResponse response = abortedResponse(state, 0);
+        response.outputLimitExceeded = true;
+        respond(state, response);
+        Runtime.getRuntime().halt(0);
+    }
+
+    //关闭钩子：用户调用 System.exit 时把已经产生的输出发回给沙箱服务
+    private void onExit() {
+        RunState state = current;
+        if (state == null) {
+            return;
+        }
+        respond(state, abortedResponse(state, WorkerProtocol.EXIT_UNKNOWN));
+    }
+
+    //执行被中途结束时的响应，执行进程随后退出
+    private static WorkerResponse abortedResponse(RunState state, int exitValue) {
+        WorkerResponse response = new WorkerResponse();
+        response.exitValue = exitValue;
+        response.time = (System.nanoTime() - state.start) / 1000000L;
+        response.cpuTime = cpuTime(state);
+        response.memory = peakHeap(state.heapBaseline);
+        response.recycle = true;
+        response.stdout = state.stdout.toByteArray();
+        response.stderr = state.stderr.toByteArray();
+        return response;
+    }
+
+    //进程的 CPU 时间(ns)，包含即时编译和垃圾回收线程
+    private static long processCpuTime() {
+        return ((OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+
+    //本次执行期间的 CPU 时间(ms)
+    private static long cpuTime(RunState state) {
+        return (processCpuTime() - state.cpuStart) / 1000000L;
+    }
+
+    private void respond(RunState state, WorkerResponse response) {
+        if (!state.responded.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            WorkerProtocol.writeResponse(controlOut, response);
+        } catch (IOException e) {
+            //通道已断开，沙箱服务会回收该进程
+        }
+    }
+
+    //单次执行的状态
+    private class RunState {
+        private final long start = System.nanoTime();
+        private final long cpuStart = processCpuTime();
+        private final long cpuLimit;
+        private final BoundedStream stdout;
+        private final BoundedStream stderr;
+        private final AtomicBoolean responded = new AtomicBoolean(false);
+        //执行前的堆内存基线(byte)
+        private final long heapBaseline;
+
+        RunState(long outputLimit, long cpuLimit, long heapBaseline) {
+            this.cpuLimit = cpuLimit;
+            this.heapBaseline = heapBaseline;
+            this.stdout = new BoundedStream(this, outputLimit);
+            this.stderr = new BoundedStream(this, outputLimit);
+        }
+    }
+
+    //有上限的输出缓冲区
+    private class BoundedStream extends ByteArrayOutputStream {
+
+        private final RunState state;
+
+        private final long limit;
+
+        BoundedStream(RunState state, long limit) {
+            this.state = state;
+            this.limit = limit;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            if (count + 1 > limit) {
+                onOutputLimitExceeded(state);
+            }
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            if (count + len > limit) {
+                super.write(b, off, (int) (limit - count));
+                onOutputLimitExceeded(state);
+            }
+            super.write(b, off, len);
+        }
+    }
+
+    //从内存字节码加载用户类
+    private static class ByteClassLoader extends ClassLoader {
+
+        private final Map<String, byte[]> classes;
+
+        ByteClassLoader(Map<String, byte[]> classes, ClassLoader parent) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.group38.ojcodesandbox.pool;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 沙箱服务与执行进程之间的通信协议（基于只有双方知道路径的 Unix 域套接字）
+ * <p>
+ * 请求：类数量、[类名、字节码]...、参数数量、[参数]...、标准输入、标准输入文件、内存限制(kb)、CPU 时间限制(ms)、输出上限
+ * 响应：退出码、耗时(ms)、CPU 时间(ms)、本次执行使用的堆内存(kb，峰值减去执行前垃圾回收后的基线)、是否需要回收、是否输出超限、是否内存超限、是否超时、标准输出、标准错误
+ * <p>
+ * 只依赖 JDK，执行进程的 classpath 中不需要任何第三方库
+ */
+public class WorkerProtocol {
+
+    /**
+     * 执行进程启动完成后发送的就绪标记，后面跟着启动时从标准输入读到的口令
+     */
+    public static final int READY = 0x4F4A5752;
+
+    /**
+     * 用户代码调用 System.exit 时无法得知退出码，由沙箱服务从进程退出码中获取
+     */
+    public static final int EXIT_UNKNOWN = Integer.MIN_VALUE;
+
+    public static void writeRequest(DataOutputStream out, WorkerRequest request) throws IOException {
+        out.writeInt(request.classes.size());
+        for (Map.Entry<String, byte[]> entry : request.classes.entrySet()) {
+            writeString(out, entry.getKey());
+            writeBytes(out, entry.getValue());
+        }
+        out.writeInt(request.args.size());
+        for (String arg : request.args) {
+            writeString(out, arg);
+        }
+        writeBytes(out, request.stdin);
+        writeString(out, request.stdinFile == null ? "" : request.stdinFile);
+        out.writeLong(request.memoryLimit);
+        out.writeLong(request.cpuLimit);
+        out.writeLong(request.outputLimit);
+        out.flush();
+    }
+
+    public static WorkerRequest readRequest(DataInputStream in) throws IOException {
+        WorkerRequest request = new WorkerRequest();
+        int classCount = in.readInt();
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        for (int i = 0; i < classCount; i++) {
+            String name = readString(in);
+            classes.put(name, readBytes(in));
+        }
+        request.classes = classes;
+        int argCount = in.readInt();
+        List<String> args = new ArrayList<>(argCount);
+        for (int i = 0; i < argCount; i++) {
+            args.add(readString(in));
+        }
+        request.args = args;
+        request.stdin = readBytes(in);
+        String stdinFile = readString(in);
+        request.stdinFile = stdinFile.isEmpty() ? null : stdinFile;
+        request.memoryLimit = in.readLong();
+        request.cpuLimit = in.readLong();
+        request.outputLimit = in.readLong();
+        return request;
+    }
+
+    public static void writeResponse(DataOutputStream out, WorkerResponse response) throws IOException {
+        out.writeInt(response.exitValue);
+        out.writeLong(response.time);
+        out.writeLong(response.cpuTime);
+        out.writeLong(response.memory);
+        out.writeBoolean(response.recycle);
+        out.writeBoolean(response.outputLimitExceeded);
+        out.writeBoolean(response.memoryLimitExceeded);
+        out.writeBoolean(response.timeLimitExceeded);
+        writeBytes(out, response.stdout);
+        writeBytes(out, response.stderr);
+        out.flush();
+    }
+
+    public static WorkerResponse readResponse(DataInputStream in) throws IOException {
+        WorkerResponse response = new WorkerResponse();
+        response.exitValue = in.readInt();
+        response.time = in.readLong();
+        response.cpuTime = in.readLong();
+        response.memory = in.readLong();
+        response.recycle = in.readBoolean();
+        response.outputLimitExceeded = in.readBoolean();
+        response.memoryLimitExceeded = in.readBoolean();
+        response.timeLimitExceeded = in.readBoolean();
+        response.stdout = readBytes(in);
+        response.stderr = readBytes(in);
+        return response;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    //执行请求
+    public static class WorkerRequest {
+        public Map<String, byte[]> classes;
+        public List<String> args;
+        public byte[] stdin;
+        //不为空时直接从该文件读取标准输入
+        public String stdinFile;
+        //内存限制(kb)，不大于 0 时不限制
+        public long memoryLimit;
+        //CPU 时间限制(ms)，不大于 0 时不限制
+        public long cpuLimit;
+        public long outputLimit;
+    }
+
+    //执行响应
+    public static class WorkerResponse {
+        public int exitValue;
+        public long time;
+        //本次执行期间进程的 CPU 时间(ms)
+        public long cpuTime;
+        //本次执行使用的堆内存(kb)，峰值减去执行前垃圾回收后的基线
+        public long memory;
+        public boolean recycle;
+        public boolean outputLimitExceeded;
+        public boolean memoryLimitExceeded;
+        public boolean timeLimitExceeded;
+        public byte[] stdout;
+        public byte[] stderr;
+    }
+}
@@ -0,0 +1,120 @@
+package com.group38.ojcodesandbox.scheduler;
+
+import com.group38.ojcodesandbox.utils.ProcessUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 统一的超时管理器
+ * <p>
+ * 所有执行进程共用一个调度线程登记截止时间，进程正常结束时取消登记，
+ * 到期时强制结束进程及其全部子进程
+ */
+@Component
+@Slf4j
+public class DeadlineManager {
+
+    private final ScheduledThreadPoolExecutor timer;
+
+    //当前登记中的截止时间数
+    private final AtomicLong active = new AtomicLong();
+
+    //累计到期（超时被终止）的次数
+    private final AtomicLong expired = new AtomicLong();
+
+    public DeadlineManager() {
+        timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "deadline-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        //取消的任务立即移出队列，避免大量已完成用例的定时任务堆积
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 为进程登记截止时间
+     *
+     * @param process   进程
+     * @param timeoutMs 超时时间
+     * @return
+     */
+    public Deadline register(Process process, long timeoutMs) {
+        Deadline deadline = new Deadline(process);
+        active.incrementAndGet();
+        deadline.future = timer.schedule(deadline::expire, timeoutMs, TimeUnit.MILLISECONDS);
+        return deadline;
+    }
+
+    public long getActiveCount() {
+        return active.get();
+    }
+
+    public long getExpiredCount() {
+        return expired.get();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * 一个进程的截止时间
+     */
+    public class Deadline {
+
+        private final Process process;
+
+        //完成或到期，只能发生一次
+        private final AtomicBoolean done = new AtomicBoolean(false);
+
+        private volatile boolean expiredFlag;
+
+        private volatile ScheduledFuture<?> future;
+
+        private Deadline(Process process) {
+            this.process = process;
+        }
+
+        /**
+         * 进程执行完成，取消登记
+         */
+        public void cancel() {
+            if (done.compareAndSet(false, true)) {
+                active.decrementAndGet();
+                if (future != null) {
+                    future.cancel(false);
+                }
+            }
+        }
+
+        /**
+         * 是否因超时被终止
+         */
+        public boolean isExpired() {
+            return expiredFlag;
+        }
+
+        private void expire() {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            expiredFlag = true;
+            active.decrementAndGet();
+            expired.incrementAndGet();
+            try {
+                ProcessUtils.destroyTree(process);
+            } catch (Exception e) {
+                log.error("destroy process tree error, pid = {}", process.pid(), e);
+            }
+        }
+    }
+}
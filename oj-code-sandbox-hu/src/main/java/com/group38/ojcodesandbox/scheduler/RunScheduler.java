@@ -0,0 +1,143 @@
+package com.group38.ojcodesandbox.scheduler;
+
+import com.group38.ojcodesandbox.config.SchedulerConfig;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * 节点级用例调度器
+ * <p>
+ * 同一次提交的多个用例并行执行，整个节点同时执行的用例数不超过 CPU 预算；
+ * 全局许可按先来先得分配，且每次提交同时排队的用例数有上限，大提交不会饿死其他提交
+ */
+@Component
+public class RunScheduler {
+
+    @Resource
+    private SchedulerConfig schedulerConfig;
+
+    //节点级 CPU 预算
+    private Semaphore cpuPermits;
+
+    private ExecutorService runExecutor;
+
+    private final AtomicInteger running = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        cpuPermits = new Semaphore(schedulerConfig.getCpuBudget(), true);
+        AtomicInteger threadIndex = new AtomicInteger();
+        runExecutor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "case-runner-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 并行执行一次提交的全部用例，结果按输入顺序返回
+     *
+     * @param tasks 每个用例的执行任务
+     * @param <T>
+     * @return
+     */
+    public <T> List<T> runAll(List<Callable<T>> tasks) {
+        return runAll(tasks, result -> false);
+    }
+
+    /**
+     * 并行执行一次提交的用例，某个用例的结果满足停止条件后不再启动它后面的用例
+     * <p>
+     * 它前面的用例照常执行完，已经在执行的后续用例不打断，结果按输入顺序截断到第一个满足条件的用例
+     *
+     * @param tasks    每个用例的执行任务
+     * @param stopWhen 停止条件
+     * @param <T>
+     * @return
+     */
+    public <T> List<T> runAll(List<Callable<T>> tasks, Predicate<T> stopWhen) {
+        Semaphore submissionPermits = new Semaphore(schedulerConfig.getMaxParallelPerSubmission());
+        //第一个满足停止条件的用例下标
+        AtomicInteger stopIndex = new AtomicInteger(Integer.MAX_VALUE);
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (int i = 0; i < tasks.size() && i <= stopIndex.get(); i++) {
+                int index = i;
+                Callable<T> task = tasks.get(i);
+                submissionPermits.acquire();
+                futures.add(runExecutor.submit(() -> {
+                    try {
+                        cpuPermits.acquire();
+                        running.incrementAndGet();
+                        try {
+                            //排队期间前面的用例已经满足停止条件
+                            if (index > stopIndex.get()) {
+                                return null;
+                            }
+                            T result = task.call();
+                            if (stopWhen.test(result)) {
+                                stopIndex.accumulateAndGet(index, Math::min);
+                            }
+                            return result;
+                        } finally {
+                            running.decrementAndGet();
+                            cpuPermits.release();
+                        }
+                    } finally {
+                        submissionPermits.release();
+                    }
+                }));
+            }
+            //等全部已提交的任务结束再返回，调用方随后会清理工作目录
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            int end = stopIndex.get();
+            return end < results.size() ? new ArrayList<>(results.subList(0, end + 1)) : results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new RuntimeException("用例执行被中断", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("执行错误", cause);
+        }
+    }
+
+    /**
+     * 正在执行的用例数
+     */
+    public int getRunning() {
+        return running.get();
+    }
+
+    /**
+     * 空闲的执行槽位数
+     */
+    public int getAvailableSlots() {
+        return cpuPermits.availablePermits();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        runExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,85 @@
+package com.group38.ojcodesandbox.status;
+
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import cn.hutool.json.JSONUtil;
+import com.group38.ojcodesandbox.config.HeartbeatConfig;
+import com.group38.ojcodesandbox.controller.Maincontroller;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 心跳注册
+ * <p>
+ * 定期把节点状态上报给后端，后端在一段时间内收不到心跳时认为节点下线；
+ * 上报失败只记录日志，后端恢复后下一次心跳会重新注册
+ */
+@Component
+@Slf4j
+public class HeartbeatReporter {
+
+    @Resource
+    private HeartbeatConfig heartbeatConfig;
+
+    @Resource
+    private SandboxStatusService sandboxStatusService;
+
+    private ScheduledExecutorService timer;
+
+    //连续失败时只记录第一次，避免后端不可用期间刷屏
+    private boolean failing;
+
+    @PostConstruct
+    public void init() {
+        if (!heartbeatConfig.isEnabled()) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "heartbeat-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleWithFixedDelay(this::report, 0, heartbeatConfig.getInterval(), TimeUnit.MILLISECONDS);
+        log.info("heartbeat enabled, backend = {}", heartbeatConfig.getBackendUrl());
+    }
+
+    private void report() {
+        try (HttpResponse httpResponse = HttpRequest.post(heartbeatConfig.getBackendUrl())
+                .header(Maincontroller.AUTH_REQUEST_HEADER, heartbeatConfig.getSecret())
+                .body(JSONUtil.toJsonStr(sandboxStatusService.getStatus()))
+                .timeout(heartbeatConfig.getTimeout())
+                .execute()) {
+            if (!httpResponse.isOk()) {
+                fail("status = " + httpResponse.getStatus(), null);
+                return;
+            }
+            if (failing) {
+                log.info("heartbeat recovered");
+                failing = false;
+            }
+        } catch (Exception e) {
+            fail(e.getMessage(), e);
+        }
+    }
+
+    private void fail(String message, Exception e) {
+        if (!failing) {
+            log.warn("heartbeat failed, {}", message, e);
+            failing = true;
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+}
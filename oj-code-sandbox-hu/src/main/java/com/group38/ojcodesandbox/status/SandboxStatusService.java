@@ -0,0 +1,106 @@
+package com.group38.ojcodesandbox.status;
+
+import cn.hutool.core.util.StrUtil;
+import com.group38.ojcodesandbox.admission.AdmissionController;
+import com.group38.ojcodesandbox.admission.AdmissionStats;
+import com.group38.ojcodesandbox.batch.BatchExecutor;
+import com.group38.ojcodesandbox.compile.InMemoryJavaCompiler;
+import com.group38.ojcodesandbox.config.HeartbeatConfig;
+import com.group38.ojcodesandbox.config.SchedulerConfig;
+import com.group38.ojcodesandbox.lang.LanguageRunner;
+import com.group38.ojcodesandbox.lang.LanguageRunnerRegistry;
+import com.group38.ojcodesandbox.lang.ToolchainRunner;
+import com.group38.ojcodesandbox.model.SandboxStatus;
+import com.group38.ojcodesandbox.scheduler.RunScheduler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 汇总节点的容量和状态
+ */
+@Component
+@Slf4j
+public class SandboxStatusService {
+
+    @Value("${server.port:8090}")
+    private int port;
+
+    @Resource
+    private HeartbeatConfig heartbeatConfig;
+
+    @Resource
+    private SchedulerConfig schedulerConfig;
+
+    @Resource
+    private RunScheduler runScheduler;
+
+    @Resource
+    private AdmissionController admissionController;
+
+    @Resource
+    private BatchExecutor batchExecutor;
+
+    @Resource
+    private InMemoryJavaCompiler inMemoryJavaCompiler;
+
+    @Resource
+    private LanguageRunnerRegistry languageRunnerRegistry;
+
+    @Resource
+    private List<LanguageRunner> languageRunners;
+
+    private String url;
+
+    private String nodeId;
+
+    @PostConstruct
+    public void init() {
+        url = StrUtil.isNotBlank(heartbeatConfig.getAdvertisedUrl())
+                ? heartbeatConfig.getAdvertisedUrl()
+                : "http://" + localAddress() + ":" + port;
+        nodeId = StrUtil.isNotBlank(heartbeatConfig.getNodeId()) ? heartbeatConfig.getNodeId() : url;
+    }
+
+    public SandboxStatus getStatus() {
+        SandboxStatus status = new SandboxStatus();
+        status.setNodeId(nodeId);
+        status.setUrl(url);
+        status.setCores(Runtime.getRuntime().availableProcessors());
+        status.setCpuBudget(schedulerConfig.getCpuBudget());
+        status.setRunningCases(runScheduler.getRunning());
+        status.setFreeSlots(runScheduler.getAvailableSlots());
+        AdmissionStats admissionStats = admissionController.getStats();
+        status.setMaxInFlight(admissionStats.getMaxInFlight());
+        status.setInFlight(admissionStats.getInFlight());
+        status.setQueueDepth(admissionStats.getQueueDepth());
+        status.setQueueCapacity(admissionStats.getQueueCapacity());
+        status.setBatchPending(batchExecutor.getPending());
+        int cachedArtifacts = inMemoryJavaCompiler.getCompileCache().size();
+        for (LanguageRunner languageRunner : languageRunners) {
+            if (languageRunner instanceof ToolchainRunner) {
+                cachedArtifacts += ((ToolchainRunner) languageRunner).getCompileCache().size();
+            }
+        }
+        status.setCachedArtifacts(cachedArtifacts);
+        status.setLanguages(new ArrayList<>(languageRunnerRegistry.getLanguages()));
+        status.setTimestamp(System.currentTimeMillis());
+        return status;
+    }
+
+    private static String localAddress() {
+        try {
+            return InetAddress.getLocalHost().getHostAddress();
+        } catch (UnknownHostException e) {
+            log.warn("get local address error", e);
+            return "localhost";
+        }
+    }
+}
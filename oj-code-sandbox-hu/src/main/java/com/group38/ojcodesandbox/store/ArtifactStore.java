@@ -0,0 +1,472 @@
+package com.group38.ojcodesandbox.store;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.HexUtil;
+import com.group38.ojcodesandbox.config.StoreConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 编译产物持久化存储
+ * <p>
+ * 产物按键（源码、编译参数与编译器版本的 SHA-256）保存为 objects 下的文件，沙箱重启后不需要重新编译；
+ * 索引是内存映射的开放寻址哈希表，查找只读一两个槽位；总大小或条目数超出上限时按最近访问时间批量淘汰。
+ * 先写产物文件再写索引，启动时清理索引中产物已丢失的条目和不在索引中的产物文件。
+ * 索引只由本进程的锁保护，存储目录不能由多个沙箱进程同时使用
+ */
+@Component
+@Slf4j
+public class ArtifactStore {
+
+    private static final int MAGIC = 0x4F4A4153;
+
+    private static final int FORMAT_VERSION = 1;
+
+    //槽位：键(32) 大小(8) 最近访问时间(8) 语言(15) 状态(1)
+    private static final int SLOT_SIZE = 64;
+
+    private static final int HEADER_SIZE = SLOT_SIZE;
+
+    private static final int KEY_LENGTH = 32;
+
+    private static final int SIZE_OFFSET = 32;
+
+    private static final int ACCESS_OFFSET = 40;
+
+    private static final int LANGUAGE_OFFSET = 48;
+
+    private static final int LANGUAGE_LENGTH = 15;
+
+    private static final int STATE_OFFSET = 63;
+
+    private static final byte STATE_USED = 1;
+
+    //条目数超过槽位数的该比例时淘汰，保证探测距离短
+    private static final double MAX_LOAD = 0.75;
+
+    //淘汰到上限的该比例，避免每次写入都淘汰
+    private static final double LOW_WATER = 0.9;
+
+    @Resource
+    private StoreConfig storeConfig;
+
+    private File objectDir;
+
+    private RandomAccessFile indexFile;
+
+    private MappedByteBuffer index;
+
+    private int capacity;
+
+    private int count;
+
+    private long totalSize;
+
+    //最近访问时间，单调递增，同一毫秒内的多次访问也能区分先后
+    private long clock;
+
+    private volatile boolean enabled;
+
+    @PostConstruct
+    public void init() {
+        if (!storeConfig.isEnabled()) {
+            return;
+        }
+        try {
+            File dir = FileUtil.mkdir(storeConfig.getDir());
+            objectDir = FileUtil.mkdir(new File(dir, "objects"));
+            openIndex(new File(dir, "index"));
+            recover();
+            enabled = true;
+            log.info("artifact store = {}, entries = {}, size = {}", dir, count, totalSize);
+        } catch (IOException e) {
+            log.warn("artifact store {} is not usable, compile results are kept in memory only", storeConfig.getDir(), e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 读取产物内容，不存在时返回 null
+     *
+     * @param key 十六进制 SHA-256
+     * @return
+     */
+    public synchronized byte[] get(String key) {
+        File object = touch(key);
+        if (object == null) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(object.toPath());
+        } catch (IOException e) {
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * 把产物放到指定位置（同一文件系统时为硬链接），不存在时返回 false
+     *
+     * @param key
+     * @param target
+     * @return
+     */
+    public synchronized boolean get(String key, File target) {
+        File object = touch(key);
+        if (object == null) {
+            return false;
+        }
+        try {
+            link(object.toPath(), target.toPath());
+            return true;
+        } catch (IOException e) {
+            log.warn("read artifact error, key = {}", key, e);
+            return false;
+        }
+    }
+
+    /**
+     * 保存产物内容
+     *
+     * @param language
+     * @param key
+     * @param data
+     */
+    public synchronized void put(String language, String key, byte[] data) {
+        if (!enabled || find(key) >= 0) {
+            return;
+        }
+        try {
+            Path tmp = Files.createTempFile(objectDir.toPath(), "put-", ".tmp");
+            Files.write(tmp, data);
+            add(language, key, tmp, data.length);
+        } catch (IOException e) {
+            log.warn("store artifact error, key = {}", key, e);
+        }
+    }
+
+    /**
+     * 保存产物文件（同一文件系统时为硬链接，原文件之后可以单独删除）
+     *
+     * @param language
+     * @param key
+     * @param file
+     */
+    public synchronized void put(String language, String key, File file) {
+        if (!enabled || find(key) >= 0) {
+            return;
+        }
+        try {
+            Path tmp = objectDir.toPath().resolve("put-" + System.nanoTime() + ".tmp");
+            link(file.toPath(), tmp);
+            add(language, key, tmp, Files.size(tmp));
+        } catch (IOException e) {
+            log.warn("store artifact error, key = {}", key, e);
+        }
+    }
+
+    /**
+     * 某种语言最近使用的产物，最近的在前，用于启动时预热内存缓存（按从旧到新的顺序读取可以保持原来的先后）
+     *
+     * @param language
+     * @param limit
+     * @return
+     */
+    public synchronized List<String> recentKeys(String language, int limit) {
+        List<Integer> slots = new ArrayList<>();
+        if (enabled) {
+            for (int slot = 0; slot < capacity; slot++) {
+                if (isUsed(slot) && language.equals(readLanguage(slot))) {
+                    slots.add(slot);
+                }
+            }
+        }
+        slots.sort(Comparator.comparingLong(this::readAccess).reversed());
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, slots.size()); i++) {
+            keys.add(readKey(slots.get(i)));
+        }
+        return keys;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public synchronized long getTotalSize() {
+        return totalSize;
+    }
+
+    @PreDestroy
+    public synchronized void destroy() {
+        if (index == null) {
+            return;
+        }
+        index.force();
+        try {
+            indexFile.close();
+        } catch (IOException e) {
+            log.warn("close artifact index error", e);
+        }
+        enabled = false;
+    }
+
+    //打开索引，槽位数或格式与配置不一致时清空重建
+    private void openIndex(File file) throws IOException {
+        capacity = storeConfig.getIndexCapacity();
+        long length = HEADER_SIZE + (long) capacity * SLOT_SIZE;
+        boolean exists = file.isFile() && file.length() == length;
+        indexFile = new RandomAccessFile(file, "rw");
+        if (exists) {
+            index = indexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+            if (index.getInt(0) == MAGIC && index.getInt(4) == FORMAT_VERSION && index.getInt(8) == capacity) {
+                return;
+            }
+        }
+        log.info("create artifact index, capacity = {}", capacity);
+        indexFile.setLength(0);
+        indexFile.setLength(length);
+        index = indexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+        index.putInt(0, MAGIC);
+        index.putInt(4, FORMAT_VERSION);
+        index.putInt(8, capacity);
+        //旧的产物没有索引，由 recover 清理
+    }
+
+    //统计条目数和总大小，清理不一致的条目和产物文件
+    private void recover() {
+        List<String> missing = new ArrayList<>();
+        for (int slot = 0; slot < capacity; slot++) {
+            if (!isUsed(slot)) {
+                continue;
+            }
+            count++;
+            totalSize += readSize(slot);
+            clock = Math.max(clock, readAccess(slot));
+            if (!objectFile(readKey(slot)).isFile()) {
+                missing.add(readKey(slot));
+            }
+        }
+        for (String key : missing) {
+            remove(key);
+        }
+        File[] dirs = objectDir.listFiles();
+        if (dirs == null) {
+            return;
+        }
+        for (File dir : dirs) {
+            File[] objects = dir.isDirectory() ? dir.listFiles() : new File[]{dir};
+            for (File object : objects == null ? new File[0] : objects) {
+                //写到一半的临时文件、不在索引中的产物
+                if (object.isDirectory() || !isKey(object.getName()) || find(object.getName()) < 0) {
+                    FileUtil.del(object);
+                }
+            }
+        }
+    }
+
+    //命中时更新最近访问时间并返回产物文件
+    private File touch(String key) {
+        if (!enabled) {
+            return null;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        File object = objectFile(key);
+        if (!object.isFile()) {
+            remove(key);
+            return null;
+        }
+        index.putLong(offset(slot) + ACCESS_OFFSET, tick());
+        return object;
+    }
+
+    private void add(String language, String key, Path tmp, long size) throws IOException {
+        evict(size);
+        File object = objectFile(key);
+        FileUtil.mkParentDirs(object);
+        Files.move(tmp, object.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        byte[] keyBytes = HexUtil.decodeHex(key);
+        int slot = home(keyBytes);
+        while (isUsed(slot)) {
+            slot = (slot + 1) % capacity;
+        }
+        int offset = offset(slot);
+        for (int i = 0; i < KEY_LENGTH; i++) {
+            index.put(offset + i, keyBytes[i]);
+        }
+        index.putLong(offset + SIZE_OFFSET, size);
+        index.putLong(offset + ACCESS_OFFSET, tick());
+        byte[] languageBytes = Arrays.copyOf(language.getBytes(StandardCharsets.US_ASCII), LANGUAGE_LENGTH);
+        for (int i = 0; i < LANGUAGE_LENGTH; i++) {
+            index.put(offset + LANGUAGE_OFFSET + i, languageBytes[i]);
+        }
+        //状态最后写，写到一半时该槽位仍是空的
+        index.put(offset + STATE_OFFSET, STATE_USED);
+        count++;
+        totalSize += size;
+    }
+
+    //写入前按最近访问时间淘汰，直到放得下新产物
+    private void evict(long incoming) {
+        long maxSize = storeConfig.getMaxSize();
+        int maxCount = (int) (capacity * MAX_LOAD);
+        if (totalSize + incoming <= maxSize && count + 1 <= maxCount) {
+            return;
+        }
+        List<Integer> slots = new ArrayList<>();
+        for (int slot = 0; slot < capacity; slot++) {
+            if (isUsed(slot)) {
+                slots.add(slot);
+            }
+        }
+        slots.sort(Comparator.comparingLong(this::readAccess));
+        List<String> victims = new ArrayList<>();
+        long size = totalSize;
+        int remaining = count;
+        for (int slot : slots) {
+            if (size + incoming <= maxSize * LOW_WATER && remaining + 1 <= maxCount * LOW_WATER) {
+                break;
+            }
+            victims.add(readKey(slot));
+            size -= readSize(slot);
+            remaining--;
+        }
+        for (String key : victims) {
+            remove(key);
+        }
+    }
+
+    //删除条目和产物文件，后面同一探测链上的条目前移，不留删除标记
+    private void remove(String key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return;
+        }
+        count--;
+        totalSize -= readSize(slot);
+        FileUtil.del(objectFile(key));
+        int hole = slot;
+        int next = (hole + 1) % capacity;
+        while (isUsed(next)) {
+            int home = home(readKeyBytes(next));
+            //next 的起始槽位不在 (hole, next] 之间时前移到 hole
+            boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+            if (movable) {
+                copySlot(next, hole);
+                hole = next;
+            }
+            next = (next + 1) % capacity;
+        }
+        index.put(offset(hole) + STATE_OFFSET, (byte) 0);
+    }
+
+    private long tick() {
+        clock = Math.max(clock + 1, System.currentTimeMillis());
+        return clock;
+    }
+
+    private int find(String key) {
+        byte[] keyBytes = HexUtil.decodeHex(key);
+        int slot = home(keyBytes);
+        for (int i = 0; i < capacity && isUsed(slot); i++) {
+            if (Arrays.equals(keyBytes, readKeyBytes(slot))) {
+                return slot;
+            }
+            slot = (slot + 1) % capacity;
+        }
+        return -1;
+    }
+
+    private int home(byte[] keyBytes) {
+        long hash = 0;
+        for (int i = 0; i < 8; i++) {
+            hash = (hash << 8) | (keyBytes[i] & 0xFF);
+        }
+        return (int) Long.remainderUnsigned(hash, capacity);
+    }
+
+    private void copySlot(int from, int to) {
+        int fromOffset = offset(from);
+        int toOffset = offset(to);
+        for (int i = 0; i < SLOT_SIZE; i++) {
+            index.put(toOffset + i, index.get(fromOffset + i));
+        }
+    }
+
+    private int offset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private boolean isUsed(int slot) {
+        return index.get(offset(slot) + STATE_OFFSET) == STATE_USED;
+    }
+
+    private byte[] readKeyBytes(int slot) {
+        byte[] keyBytes = new byte[KEY_LENGTH];
+        index.get(offset(slot), keyBytes);
+        return keyBytes;
+    }
+
+    private String readKey(int slot) {
+        return HexUtil.encodeHexStr(readKeyBytes(slot));
+    }
+
+    private long readSize(int slot) {
+        return index.getLong(offset(slot) + SIZE_OFFSET);
+    }
+
+    private long readAccess(int slot) {
+        return index.getLong(offset(slot) + ACCESS_OFFSET);
+    }
+
+    private String readLanguage(int slot) {
+        byte[] languageBytes = new byte[LANGUAGE_LENGTH];
+        index.get(offset(slot) + LANGUAGE_OFFSET, languageBytes);
+        int length = 0;
+        while (length < LANGUAGE_LENGTH && languageBytes[length] != 0) {
+            length++;
+        }
+        return new String(languageBytes, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private static boolean isKey(String name) {
+        return name.length() == KEY_LENGTH * 2 && name.chars().allMatch(c -> Character.digit(c, 16) >= 0);
+    }
+
+    private File objectFile(String key) {
+        return new File(new File(objectDir, key.substring(0, 2)), key);
+    }
+
+    //同一文件系统时建硬链接，否则复制；目标已存在时覆盖
+    private static void link(Path source, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, source);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+}
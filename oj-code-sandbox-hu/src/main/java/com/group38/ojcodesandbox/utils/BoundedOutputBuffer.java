@@ -0,0 +1,82 @@
+package com.group38.ojcodesandbox.utils;
+
+import com.group38.ojcodesandbox.compare.OutputMatcher;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 有上限的输出缓冲区，超出上限后不再保存，只继续读空管道
+ * <p>
+ * 指定了输出比对器时不保存输出，读到的内容直接交给比对器，只统计字节数用于判断输出超限
+ */
+public class BoundedOutputBuffer {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final long limit;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    private final OutputMatcher matcher;
+
+    private long size;
+
+    private volatile boolean exceeded;
+
+    public BoundedOutputBuffer(long limit) {
+        this(limit, null);
+    }
+
+    public BoundedOutputBuffer(long limit, OutputMatcher matcher) {
+        this.limit = limit;
+        this.matcher = matcher;
+    }
+
+    /**
+     * 读取输入流直到结束，进程被强制结束导致管道关闭时保留已读取的内容
+     *
+     * @param in         进程输出
+     * @param onExceeded 第一次超出上限时的回调（一般用于结束进程）
+     */
+    public void drain(InputStream in, Runnable onExceeded) {
+        byte[] chunk = new byte[CHUNK_SIZE];
+        int len;
+        try {
+            while ((len = in.read(chunk)) != -1) {
+                if (size + len > limit) {
+                    write(chunk, (int) (limit - size));
+                    exceeded = true;
+                    onExceeded.run();
+                    return;
+                }
+                write(chunk, len);
+            }
+        } catch (IOException e) {
+            //进程被强制结束（超时或输出超限）时管道会被关闭
+        }
+    }
+
+    private void write(byte[] chunk, int len) {
+        size += len;
+        if (matcher != null) {
+            matcher.update(chunk, 0, len);
+        } else {
+            buffer.write(chunk, 0, len);
+        }
+    }
+
+    public boolean isExceeded() {
+        return exceeded;
+    }
+
+    public byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+    public String toText() {
+        return ProcessUtils.normalizeOutput(new String(buffer.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
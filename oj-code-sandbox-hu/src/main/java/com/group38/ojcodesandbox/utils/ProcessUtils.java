@@ -1,72 +1,146 @@
 package com.group38.ojcodesandbox.utils;
 
 import cn.hutool.core.date.StopWatch;
+import com.group38.ojcodesandbox.compare.OutputMatcher;
 import com.group38.ojcodesandbox.model.ExecuteMessage;
+import com.group38.ojcodesandbox.model.enums.JudgeInfoMessageEnum;
+import lombok.extern.slf4j.Slf4j;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 //进程工具类
 
+@Slf4j
 public class ProcessUtils {
-    //执行进程并获取信息
 
+    //默认输出上限
+    public static final long DEFAULT_OUTPUT_LIMIT = 8 * 1024 * 1024L;
+
+    //写标准输入、读标准错误的线程，标准输出在调用线程上读取
+    private static final ExecutorService PUMP_EXECUTOR;
+
+    static {
+        AtomicInteger threadIndex = new AtomicInteger();
+        PUMP_EXECUTOR = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "process-pump-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //执行进程并获取信息
     public static ExecuteMessage runProcessAndGetMessage(Process runProcess, String opName) {
+        return runProcessAndGetMessage(runProcess, opName, new byte[0], DEFAULT_OUTPUT_LIMIT);
+    }
+
+    /**
+     * 执行进程并获取信息
+     * <p>
+     * 进程运行期间同时写入标准输入、读取标准输出和标准错误，避免输入输出写满管道后进程阻塞；
+     * 任一输出超过上限时立即结束进程，并判为输出超限
+     *
+     * @param runProcess  进程
+     * @param opName      操作名称
+     * @param stdin       标准输入内容（标准输入已重定向到文件时传空数组）
+     * @param outputLimit 标准输出/标准错误各自的最大字节数
+     * @return
+     */
+    public static ExecuteMessage runProcessAndGetMessage(Process runProcess, String opName, byte[] stdin,
+                                                         long outputLimit) {
+        return runProcessAndGetMessage(runProcess, opName, stdin, outputLimit, null);
+    }
+
+    /**
+     * 执行进程并获取信息，指定了输出比对器时标准输出边读取边比对，不保存输出内容
+     *
+     * @param runProcess  进程
+     * @param opName      操作名称
+     * @param stdin       标准输入内容（标准输入已重定向到文件时传空数组）
+     * @param outputLimit 标准输出/标准错误各自的最大字节数
+     * @param matcher     输出比对器，为空时保存标准输出
+     * @return
+     */
+    public static ExecuteMessage runProcessAndGetMessage(Process runProcess, String opName, byte[] stdin,
+                                                         long outputLimit, OutputMatcher matcher) {
         ExecuteMessage executeMessage = new ExecuteMessage();
 
         try {
             StopWatch stopWatch = new StopWatch();
             stopWatch.start();
+            BoundedOutputBuffer outputBuffer = new BoundedOutputBuffer(outputLimit, matcher);
+            BoundedOutputBuffer errorBuffer = new BoundedOutputBuffer(outputLimit);
+            Runnable killProcess = () -> destroyTree(runProcess);
+
+            //并发写入标准输入、读取标准输出和标准错误
+            PUMP_EXECUTOR.execute(() -> writeStdin(runProcess, stdin));
+            Future<?> errorPump = PUMP_EXECUTOR.submit(() -> errorBuffer.drain(runProcess.getErrorStream(), killProcess));
+            outputBuffer.drain(runProcess.getInputStream(), killProcess);
+            errorPump.get();
+
             //等待执行程序，获取错误码
             int exitValue = runProcess.waitFor();
+            stopWatch.stop();
             executeMessage.setExitValue(exitValue);
+            executeMessage.setTime(stopWatch.getLastTaskTimeMillis());
+            if (matcher == null) {
+                executeMessage.setMessage(outputBuffer.toText());
+            } else {
+                matcher.finish();
+            }
 
-            if (exitValue == 0) {
+            if (outputBuffer.isExceeded() || errorBuffer.isExceeded()) {
+                log.debug("{}输出超限", opName);
+                executeMessage.setVerdict(JudgeInfoMessageEnum.OUTPUT_LIMIT_EXCEEDED.getValue());
+            } else if (exitValue == 0) {
                 //正常退出
-                System.out.println(opName + "成功");
-
-                //分批获取进程的正常输出
-                BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(runProcess.getInputStream()));
-                StringBuilder compileOutputStringBuilder = new StringBuilder();
-
-                //逐行获取
-                String compileOutputLine;
-                while ((compileOutputLine = bufferedReader.readLine()) != null) {
-                    compileOutputStringBuilder.append(compileOutputLine);
-                }
-                executeMessage.setMessage(compileOutputStringBuilder.toString());
+                log.debug("{}成功", opName);
             } else {
                 //异常退出
-                System.out.println(opName + "失败， 错误码：" + exitValue);
-
-                //分批获取进程的正常输出
-                BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(runProcess.getInputStream()));
-                StringBuilder compileOutputStringBuilder = new StringBuilder();
-
-                //逐行获取
-                String compileOutputLine;
-                while ((compileOutputLine = bufferedReader.readLine()) != null) {
-                    compileOutputStringBuilder.append(compileOutputLine);
-                }
-                executeMessage.setMessage(compileOutputStringBuilder.toString());
-
-                //分批获取程序的正常输出
-                BufferedReader errorbufferedReader = new BufferedReader(new InputStreamReader(runProcess.getErrorStream()));
-                StringBuilder errorcompileOutputStringBuilder = new StringBuilder();
-
-                //逐行获取
-                String errorcompileOutputLine;
-                while ((errorcompileOutputLine = errorbufferedReader.readLine()) != null) {
-                    errorcompileOutputStringBuilder.append(errorcompileOutputLine);
-                }
-                executeMessage.setErrorMessage(errorcompileOutputStringBuilder.toString());
+                log.debug("{}失败， 错误码：{}", opName, exitValue);
+                executeMessage.setErrorMessage(errorBuffer.toText());
             }
-            stopWatch.stop();
-            executeMessage.setTime(stopWatch.getLastTaskTimeMillis());
-
+        } catch (InterruptedException e) {
+            destroyTree(runProcess);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待" + opName + "进程被中断", e);
         } catch (Exception e) {
-            e.printStackTrace();
+            //读取输出出错时拿不到完整的结果，不能当作正常退出，由调用方判为系统错误
+            log.error("{}进程读取输出错误", opName, e);
+            destroyTree(runProcess);
+            throw new RuntimeException(opName + "错误", e);
         }
         return executeMessage;
     }
+
+    /**
+     * 规范化程序输出：统一换行符并去掉末尾的换行，保留行结构
+     *
+     * @param output
+     * @return
+     */
+    public static String normalizeOutput(String output) {
+        return output.replace("\r\n", "\n").replaceAll("\n+$", "");
+    }
+
+    //写入标准输入后关闭，程序读到输入结束；程序提前退出时忽略管道断开
+    private static void writeStdin(Process process, byte[] stdin) {
+        try (OutputStream outputStream = process.getOutputStream()) {
+            if (stdin.length > 0) {
+                outputStream.write(stdin);
+            }
+        } catch (IOException e) {
+            //程序没有读完输入就退出了
+        }
+    }
+
+    //强制结束进程及其子进程
+    public static void destroyTree(Process process) {
+        process.toHandle().descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
 }
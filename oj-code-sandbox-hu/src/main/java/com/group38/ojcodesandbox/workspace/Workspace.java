@@ -0,0 +1,27 @@
+package com.group38.ojcodesandbox.workspace;
+
+import java.io.File;
+
+/**
+ * 一次执行借用的工作目录，用完后归还给 {@link WorkspaceManager}
+ */
+public class Workspace implements AutoCloseable {
+
+    private final WorkspaceManager manager;
+
+    private final File dir;
+
+    Workspace(WorkspaceManager manager, File dir) {
+        this.manager = manager;
+        this.dir = dir;
+    }
+
+    public File getDir() {
+        return dir;
+    }
+
+    @Override
+    public void close() {
+        manager.release(this);
+    }
+}
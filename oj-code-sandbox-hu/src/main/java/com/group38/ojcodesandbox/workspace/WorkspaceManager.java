@@ -0,0 +1,267 @@
+package com.group38.ojcodesandbox.workspace;
+
+import cn.hutool.core.io.FileUtil;
+import com.group38.ojcodesandbox.config.WorkspaceConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 工作目录管理
+ * <p>
+ * 工作目录预先在内存文件系统中创建，执行完成后清空内容放回空闲队列复用。
+ * 根目录可能被多个沙箱进程共用，每个进程只在自己的子目录下创建工作目录，并在进程存活期间锁住其中的锁文件；
+ * 定时清理自己子目录下既不空闲也不在使用中的孤儿目录（如删除失败留下的），以及锁文件已经没有进程持有的其他进程子目录（进程异常退出留下的）
+ */
+@Component
+@Slf4j
+public class WorkspaceManager {
+
+    private static final String DIR_PREFIX = "ws-";
+
+    private static final String PROCESS_DIR_PREFIX = "proc-";
+
+    private static final String LOCK_FILE_NAME = ".lock";
+
+    @Resource
+    private WorkspaceConfig workspaceConfig;
+
+    //共用的根目录
+    private File baseRoot;
+
+    //本进程的子目录
+    private File root;
+
+    //进程存活期间一直持有，其他进程据此判断子目录是否还有主人
+    private FileChannel lockChannel;
+
+    private final Queue<File> idle = new ConcurrentLinkedQueue<>();
+
+    private final Set<File> inUse = ConcurrentHashMap.newKeySet();
+
+    //目录在空闲队列和使用中集合之间转移、清理线程判断孤儿目录时都持有该锁，避免转移途中的目录被当成孤儿删除
+    private final Object lock = new Object();
+
+    //累计清理的孤儿目录数
+    private final AtomicLong swept = new AtomicLong();
+
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    public void init() {
+        baseRoot = FileUtil.mkdir(Paths.get(workspaceConfig.getRoot()).toAbsolutePath().toFile());
+        root = createProcessDir();
+        //清理已退出的进程留下的子目录
+        sweep();
+        for (int i = 0; i < workspaceConfig.getPoolSize(); i++) {
+            idle.offer(FileUtil.mkdir(newDir()));
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "workspace-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = workspaceConfig.getSweepInterval();
+        sweeper.scheduleWithFixedDelay(this::sweep, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("workspace root = {}, pool size = {}", root, workspaceConfig.getPoolSize());
+    }
+
+    //先在临时名称下创建子目录并锁住锁文件，再改为正式名称，其他进程看到的子目录总是已经上锁的
+    private File createProcessDir() {
+        String name = PROCESS_DIR_PREFIX + ProcessHandle.current().pid() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        Path creating = baseRoot.toPath().resolve("." + name);
+        Path dir = baseRoot.toPath().resolve(name);
+        try {
+            Files.createDirectories(creating);
+            lockChannel = FileChannel.open(creating.resolve(LOCK_FILE_NAME), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            lockChannel.lock();
+            Files.move(creating, dir, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("无法创建工作目录 " + dir, e);
+        }
+        return dir.toFile();
+    }
+
+    /**
+     * 借用一个空的工作目录
+     *
+     * @return
+     */
+    public Workspace acquire() {
+        File dir;
+        boolean created = false;
+        synchronized (lock) {
+            dir = idle.poll();
+            if (dir == null) {
+                //空闲目录用完时临时创建，先登记再创建，避免被清理线程当成孤儿目录
+                dir = newDir();
+                created = true;
+            }
+            inUse.add(dir);
+        }
+        if (created) {
+            FileUtil.mkdir(dir);
+        }
+        return new Workspace(this, dir);
+    }
+
+    //归还工作目录：清空后放回空闲队列，空闲目录已满或清空失败时删除，删除失败的留给清理线程
+    void release(Workspace workspace) {
+        File dir = workspace.getDir();
+        boolean reusable = clean(dir);
+        synchronized (lock) {
+            if (reusable && idle.size() < workspaceConfig.getPoolSize()) {
+                idle.offer(dir);
+                inUse.remove(dir);
+                return;
+            }
+        }
+        if (!FileUtil.del(dir)) {
+            log.error("delete workspace error, dir = {}", dir);
+        }
+        inUse.remove(dir);
+    }
+
+    /**
+     * 清理本进程的孤儿目录和已退出进程的子目录
+     */
+    public void sweep() {
+        File[] children = root.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                if (child.getName().equals(LOCK_FILE_NAME)) {
+                    continue;
+                }
+                //工作目录名不会重复使用，判断为孤儿后不会再被借出，在锁外删除
+                synchronized (lock) {
+                    if (inUse.contains(child) || idle.contains(child)) {
+                        continue;
+                    }
+                }
+                delete(child);
+            }
+        }
+        File[] processDirs = baseRoot.listFiles((dir, name) -> name.startsWith(PROCESS_DIR_PREFIX));
+        if (processDirs != null) {
+            for (File processDir : processDirs) {
+                if (!processDir.equals(root)) {
+                    sweepProcessDir(processDir);
+                }
+            }
+        }
+    }
+
+    //锁文件能锁住说明主人进程已经退出，持有锁删除整个子目录；同一 JVM 中的其他实例持有的锁会抛出 OverlappingFileLockException
+    private void sweepProcessDir(File processDir) {
+        try (FileChannel channel = FileChannel.open(processDir.toPath().resolve(LOCK_FILE_NAME), StandardOpenOption.WRITE)) {
+            FileLock fileLock = channel.tryLock();
+            if (fileLock != null) {
+                delete(processDir);
+            }
+        } catch (NoSuchFileException | OverlappingFileLockException e) {
+            //其他进程正在删除，或由本 JVM 中的其他实例持有
+        } catch (IOException e) {
+            log.warn("sweep workspace error, dir = {}", processDir, e);
+        }
+    }
+
+    private void delete(File dir) {
+        if (FileUtil.del(dir)) {
+            swept.incrementAndGet();
+        } else {
+            log.warn("sweep workspace error, dir = {}", dir);
+        }
+    }
+
+    /**
+     * 统计工作目录的磁盘和 inode 使用情况
+     *
+     * @return
+     */
+    public WorkspaceStats getStats() {
+        WorkspaceStats stats = new WorkspaceStats();
+        stats.setRoot(root.getAbsolutePath());
+        stats.setIdle(idle.size());
+        stats.setInUse(inUse.size());
+        stats.setSweptCount(swept.get());
+        Path rootPath = root.toPath();
+        try (Stream<Path> paths = Files.walk(rootPath)) {
+            long[] usage = new long[2];
+            paths.filter(path -> !path.equals(rootPath)).forEach(path -> {
+                usage[0] += path.toFile().length();
+                usage[1]++;
+            });
+            stats.setUsedBytes(usage[0]);
+            stats.setUsedInodes(usage[1]);
+            FileStore fileStore = Files.getFileStore(rootPath);
+            stats.setTotalSpace(fileStore.getTotalSpace());
+            stats.setUsableSpace(fileStore.getUsableSpace());
+        } catch (IOException | UncheckedIOException e) {
+            //统计期间目录被归还或删除，忽略
+            log.debug("workspace stats error", e);
+        }
+        return stats;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+        File dir;
+        while ((dir = idle.poll()) != null) {
+            FileUtil.del(dir);
+        }
+        //释放锁，还在使用中的目录由其他进程或下次启动时清理
+        if (lockChannel != null) {
+            try {
+                lockChannel.close();
+            } catch (IOException e) {
+                log.warn("release workspace lock error", e);
+            }
+        }
+    }
+
+    private File newDir() {
+        return new File(root, DIR_PREFIX + UUID.randomUUID());
+    }
+
+    //删除目录下的全部内容，保留目录本身
+    private boolean clean(File dir) {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return false;
+        }
+        boolean success = true;
+        for (File child : children) {
+            success &= FileUtil.del(child);
+        }
+        return success;
+    }
+}
@@ -0,0 +1,26 @@
+package com.group38.ojcodesandbox.workspace;
+
+import lombok.Data;
+
+/**
+ * 工作目录使用情况
+ */
+@Data
+public class WorkspaceStats {
+
+    private String root; // 根目录
+
+    private int idle; // 空闲的工作目录数
+
+    private int inUse; // 使用中的工作目录数
+
+    private long sweptCount; // 累计清理的孤儿目录数
+
+    private long usedBytes; // 工作目录占用的字节数
+
+    private long usedInodes; // 工作目录占用的文件和目录数
+
+    private long totalSpace; // 所在文件系统的总空间(字节)
+
+    private long usableSpace; // 所在文件系统的可用空间(字节)
+}
@@ -0,0 +1,343 @@
+package com.group38.ojcodesandbox;
+
+import cn.hutool.core.io.FileUtil;
+import com.group38.ojcodesandbox.compare.OutputMatcher;
+import com.group38.ojcodesandbox.compile.CompileResult;
+import com.group38.ojcodesandbox.compile.InMemoryJavaCompiler;
+import com.group38.ojcodesandbox.model.ExecCodeRequest;
+import com.group38.ojcodesandbox.model.ExecCodeResponse;
+import com.group38.ojcodesandbox.pool.JvmWorker;
+import com.group38.ojcodesandbox.pool.JvmWorkerPool;
+import com.group38.ojcodesandbox.scheduler.DeadlineManager;
+import com.group38.ojcodesandbox.workspace.Workspace;
+import com.group38.ojcodesandbox.workspace.WorkspaceManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.annotation.Resource;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest
+class JavaSandBoxTest {
+
+    @Resource
+    private JavaSandBox javaSandBox;
+
+    @Resource
+    private InMemoryJavaCompiler inMemoryJavaCompiler;
+
+    @Resource
+    private DeadlineManager deadlineManager;
+
+    @Resource
+    private WorkspaceManager workspaceManager;
+
+    @Resource
+    private JvmWorkerPool jvmWorkerPool;
+
+    @Test
+    void execCode() {
+        String code = "public class Main {\n" +
+                "    public static void main(String[] args) {\n" +
+                "        int a = Integer.parseInt(args[0]);\n" +
+                "        int b = Integer.parseInt(args[1]);\n" +
+                "        System.out.println(a + b);\n" +
+                "    }\n" +
+                "}\n";
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code(code)
+                .lang("java")
+                .inputList(Arrays.asList("1 2", "3 4"))
+                .build();
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals(1, execCodeResponse.getStatus());
+        Assertions.assertEquals(Arrays.asList("3", "7"), execCodeResponse.getOutputList());
+        Assertions.assertTrue(execCodeResponse.getJudgeInfo().getMemory() > 0);
+    }
+
+    @Test
+    void execCodeWithMemoryLimitExceeded() {
+        String code = "public class Main {\n" +
+                "    public static void main(String[] args) {\n" +
+                "        byte[] bytes = new byte[64 * 1024 * 1024];\n" +
+                "        System.out.println(bytes.length);\n" +
+                "    }\n" +
+                "}\n";
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code(code)
+                .lang("java")
+                .memoryLimit(16 * 1024L)
+                .inputList(Arrays.asList("1"))
+                .build();
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals(3, execCodeResponse.getStatus());
+        Assertions.assertEquals("Memory Limit Exceeded", execCodeResponse.getJudgeInfo().getMessage());
+        Assertions.assertTrue(execCodeResponse.getJudgeInfo().getMemory() > 16 * 1024L);
+    }
+
+    @Test
+    void execCodeWithStdin() {
+        String code = "import java.util.Scanner;\n" +
+                "public class Main {\n" +
+                "    public static void main(String[] args) {\n" +
+                "        Scanner scanner = new Scanner(System.in);\n" +
+                "        int a = scanner.nextInt();\n" +
+                "        int b = scanner.nextInt();\n" +
+                "        System.out.println(a + b);\n" +
+                "    }\n" +
+                "}\n";
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code(code)
+                .lang("java")
+                .inputMode("stdin")
+                .inputList(Arrays.asList("1 2\n", "3\n4"))
+                .build();
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals(1, execCodeResponse.getStatus());
+        Assertions.assertEquals(Arrays.asList("3", "7"), execCodeResponse.getOutputList());
+    }
+
+    @Test
+    void execCodeWithSystemExit() {
+        String code = "public class Main {\n" +
+                "    public static void main(String[] args) {\n" +
+                "        System.out.println(args[0]);\n" +
+                "        System.exit(0);\n" +
+                "    }\n" +
+                "}\n";
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code(code)
+                .lang("java")
+                .inputList(Arrays.asList("a", "b", "c"))
+                .build();
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals(Arrays.asList("a", "b", "c"), execCodeResponse.getOutputList());
+    }
+
+    @Test
+    void execCodeWithCompileError() {
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code("public class Main { int x = ; }")
+                .lang("java")
+                .inputList(Arrays.asList("1"))
+                .build();
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals(3, execCodeResponse.getStatus());
+        Assertions.assertEquals("Compile Error", execCodeResponse.getJudgeInfo().getMessage());
+    }
+
+    @Test
+    void compileCache() {
+        String code = "public class Main { public static void main(String[] args) { System.out.println(\"cache\"); } }";
+        CompileResult first = inMemoryJavaCompiler.compile(code);
+        long hits = inMemoryJavaCompiler.getCompileCache().getHits();
+        CompileResult second = inMemoryJavaCompiler.compile(code);
+        Assertions.assertTrue(first.isSuccess());
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(hits + 1, inMemoryJavaCompiler.getCompileCache().getHits());
+    }
+
+    @Test
+    void execCodeWithTimeout() {
+        String code = "public class Main { public static void main(String[] args) throws Exception { Thread.sleep(60000L); } }";
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code(code)
+                .lang("java")
+                .inputList(Arrays.asList("1"))
+                .build();
+        long expired = deadlineManager.getExpiredCount();
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals("Time Limit Exceeded", execCodeResponse.getJudgeInfo().getMessage());
+        Assertions.assertTrue(execCodeResponse.getJudgeInfo().getWallTime() >= 5000L);
+        Assertions.assertEquals(expired + 1, deadlineManager.getExpiredCount());
+        Assertions.assertEquals(0, deadlineManager.getActiveCount());
+    }
+
+    @Test
+    void execCodeWithCpuTimeLimitExceeded() {
+        String code = "public class Main { public static void main(String[] args) { long x = 0; while (true) { x++; } } }";
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code(code)
+                .lang("java")
+                .timeLimit(100L)
+                .inputList(Arrays.asList("1"))
+                .build();
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals("Time Limit Exceeded", execCodeResponse.getJudgeInfo().getMessage());
+        //按 CPU 时间判定超时，不需要等到墙钟超时
+        Assertions.assertTrue(execCodeResponse.getJudgeInfo().getWallTime() < 5000L);
+        Assertions.assertTrue(execCodeResponse.getJudgeInfo().getTime() > 100L);
+    }
+
+    @Test
+    void execCodeWithOutputLimitExceeded() {
+        String code = "public class Main { public static void main(String[] args) { while (true) { System.out.println(\"0123456789\"); } } }";
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code(code)
+                .lang("java")
+                .inputList(Arrays.asList("1"))
+                .build();
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals(3, execCodeResponse.getStatus());
+        Assertions.assertEquals("Output Limit Exceeded", execCodeResponse.getJudgeInfo().getMessage());
+    }
+
+    @Test
+    void execCodeKeepsLines() {
+        String code = "public class Main { public static void main(String[] args) { System.out.println(args[0]); System.out.println(args[1]); } }";
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code(code)
+                .lang("java")
+                .inputList(Arrays.asList("1 2"))
+                .build();
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals(Arrays.asList("1\n2"), execCodeResponse.getOutputList());
+    }
+
+    @Test
+    void execCodeWithStopOnFirstFailure() {
+        String code = "public class Main { public static void main(String[] args) { System.out.println(\"2\".equals(args[0]) ? \"x\" : args[0]); } }";
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code(code)
+                .lang("java")
+                .inputList(Arrays.asList("1", "2", "3", "4", "5", "6", "7", "8"))
+                .expectedOutputList(Arrays.asList("1", "2", "3", "4", "5", "6", "7", "8"))
+                .stopOnFirstFailure(true)
+                .build();
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals(3, execCodeResponse.getStatus());
+        Assertions.assertEquals("Wrong Answer", execCodeResponse.getJudgeInfo().getMessage());
+        Assertions.assertEquals(Arrays.asList("1"), execCodeResponse.getOutputList());
+
+        //不开启时执行全部用例，由调用方比对输出
+        execCodeRequest.setStopOnFirstFailure(null);
+        execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals(1, execCodeResponse.getStatus());
+        Assertions.assertEquals(8, execCodeResponse.getOutputList().size());
+    }
+
+    @Test
+    void stopOnFirstFailureIgnoresTrailingWhitespace() {
+        //遇错即停时的检查与沙箱内比对规则一致：忽略行末空白和末尾空行
+        String code = "public class Main { public static void main(String[] args) { System.out.println(args[0] + \" \"); } }";
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code(code)
+                .lang("java")
+                .inputList(Arrays.asList("1", "2"))
+                .expectedOutputList(Arrays.asList("1\n", "2 \n\n"))
+                .stopOnFirstFailure(true)
+                .build();
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals(1, execCodeResponse.getStatus());
+        Assertions.assertEquals(2, execCodeResponse.getOutputList().size());
+    }
+
+    @Test
+    void execCodeWithCompareOutput() {
+        String code = "public class Main { public static void main(String[] args) { System.out.println(\"2\".equals(args[0]) ? \"x \" : args[0] + \"  \"); } }";
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code(code)
+                .lang("java")
+                .inputList(Arrays.asList("1", "2", "3"))
+                .expectedOutputList(Arrays.asList("1", "2", "3\n"))
+                .compareOutput(true)
+                .build();
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals(3, execCodeResponse.getStatus());
+        Assertions.assertEquals("Wrong Answer", execCodeResponse.getJudgeInfo().getMessage());
+        //不返回输出，只返回逐个用例的判题结果和差异片段
+        Assertions.assertTrue(execCodeResponse.getOutputList().isEmpty());
+        Assertions.assertEquals(Arrays.asList("Accepted", "Wrong Answer", "Accepted"), execCodeResponse.getVerdictList());
+        Assertions.assertEquals("第 1 行不一致\n期望：2\n实际：x ", execCodeResponse.getDiff());
+
+        //只发送期望输出的摘要
+        execCodeRequest.setExpectedOutputList(null);
+        execCodeRequest.setExpectedOutputDigestList(Arrays.asList(
+                OutputMatcher.digest("1"), OutputMatcher.digest("x"), OutputMatcher.digest("3")));
+        execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals(1, execCodeResponse.getStatus());
+        Assertions.assertEquals(Arrays.asList("Accepted", "Accepted", "Accepted"), execCodeResponse.getVerdictList());
+        Assertions.assertNull(execCodeResponse.getDiff());
+
+        //缺少期望输出的用例无法比对，按参数错误处理
+        execCodeRequest.setExpectedOutputDigestList(Arrays.asList(OutputMatcher.digest("1"), OutputMatcher.digest("x")));
+        execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals(2, execCodeResponse.getStatus());
+        Assertions.assertNull(execCodeResponse.getVerdictList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fallBackToForkWithoutIdleWorker() {
+        //执行进程全部被占用时每个用例单独启动 java 进程，提交不失败
+        BlockingQueue<JvmWorker> idleWorkers = (BlockingQueue<JvmWorker>) ReflectionTestUtils.getField(jvmWorkerPool, "idleWorkers");
+        List<JvmWorker> taken = new ArrayList<>();
+        idleWorkers.drainTo(taken);
+        try {
+            String code = "public class Main { public static void main(String[] args) { System.out.println(args[0]); } }";
+            ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                    .code(code)
+                    .lang("java")
+                    .inputList(Arrays.asList("1", "2", "3"))
+                    .build();
+            ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+            Assertions.assertEquals(1, execCodeResponse.getStatus());
+            Assertions.assertEquals(Arrays.asList("1", "2", "3"), execCodeResponse.getOutputList());
+        } finally {
+            idleWorkers.addAll(taken);
+        }
+    }
+
+    @Test
+    void compileExternallyWhenThreadsAbandoned() {
+        //编译线程全部被超时的编译占住时改用外部 javac 进程，结果与进程内编译一致
+        AtomicInteger abandoned = (AtomicInteger) ReflectionTestUtils.getField(inMemoryJavaCompiler, "abandoned");
+        abandoned.addAndGet(Integer.MAX_VALUE / 2);
+        try {
+            //代码中带上时间，不命中之前运行留下的缓存和存储
+            String code = "public class Main { static class Inner {} public static void main(String[] args) { System.out.println(\"external\"); } }\n//" + System.nanoTime();
+            CompileResult compileResult = inMemoryJavaCompiler.compile(code);
+            Assertions.assertTrue(compileResult.isSuccess());
+            Assertions.assertEquals(new HashSet<>(Arrays.asList("Main", "Main$Inner")), compileResult.getClasses().keySet());
+
+            CompileResult errorResult = inMemoryJavaCompiler.compile("public class Main { int x = y; }\n//" + System.nanoTime());
+            Assertions.assertFalse(errorResult.isSuccess());
+            Assertions.assertTrue(errorResult.getMessage().contains("Main.java"));
+        } finally {
+            abandoned.addAndGet(-Integer.MAX_VALUE / 2);
+        }
+    }
+
+    @Test
+    void workspaceRecycle() {
+        File dir;
+        try (Workspace workspace = workspaceManager.acquire()) {
+            dir = workspace.getDir();
+            FileUtil.writeUtf8String("1", new File(dir, "Main.class"));
+        }
+        //归还后清空内容复用
+        Assertions.assertTrue(dir.isDirectory());
+        Assertions.assertEquals(0, dir.listFiles().length);
+
+        //既不空闲也不在使用中的目录被清理
+        File root = new File(workspaceManager.getStats().getRoot());
+        File orphan = FileUtil.mkdir(new File(root, "orphan"));
+        //锁文件没有进程持有的其他进程子目录被清理，本进程的子目录保留
+        File deadProcessDir = FileUtil.mkdir(new File(root.getParentFile(), "proc-0-dead"));
+        FileUtil.touch(new File(deadProcessDir, ".lock"));
+        long swept = workspaceManager.getStats().getSweptCount();
+        workspaceManager.sweep();
+        Assertions.assertFalse(orphan.exists());
+        Assertions.assertFalse(deadProcessDir.exists());
+        Assertions.assertTrue(dir.isDirectory());
+        Assertions.assertEquals(swept + 2, workspaceManager.getStats().getSweptCount());
+    }
+}
@@ -0,0 +1,79 @@
+package com.group38.ojcodesandbox.admission;
+
+import com.group38.ojcodesandbox.config.AdmissionConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class AdmissionControllerTest {
+
+    private AdmissionController newController(int maxInFlight, int queueCapacity, long maxWait) {
+        AdmissionConfig admissionConfig = new AdmissionConfig();
+        admissionConfig.setMaxInFlight(maxInFlight);
+        admissionConfig.setQueueCapacity(queueCapacity);
+        admissionConfig.setMaxWait(maxWait);
+        AdmissionController admissionController = new AdmissionController();
+        ReflectionTestUtils.setField(admissionController, "admissionConfig", admissionConfig);
+        admissionController.init();
+        return admissionController;
+    }
+
+    @Test
+    void rejectWhenQueueFull() throws Exception {
+        AdmissionController admissionController = newController(1, 1, 10000);
+        AdmissionController.Permit running = admissionController.admit();
+
+        //第二个请求进入队列等待
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch admitted = new CountDownLatch(1);
+        executor.execute(() -> {
+            try (AdmissionController.Permit permit = admissionController.admit()) {
+                admitted.countDown();
+            }
+        });
+        while (admissionController.getQueueDepth() == 0) {
+            Thread.sleep(10);
+        }
+
+        //队列已满，第三个请求立即被拒绝
+        AdmissionRejectedException e = Assertions.assertThrows(AdmissionRejectedException.class, admissionController::admit);
+        Assertions.assertTrue(e.getRetryAfter() >= 1);
+        Assertions.assertEquals(1, admissionController.getStats().getRejectedCount());
+
+        running.close();
+        Assertions.assertTrue(admitted.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        AdmissionStats stats = admissionController.getStats();
+        Assertions.assertEquals(2, stats.getAdmittedCount());
+        Assertions.assertEquals(0, stats.getInFlight());
+        Assertions.assertTrue(stats.getMaxWaitTime() > 0);
+    }
+
+    @Test
+    void rejectWhenWaitTimeout() {
+        AdmissionController admissionController = newController(1, 10, 50);
+        try (AdmissionController.Permit running = admissionController.admit()) {
+            Assertions.assertThrows(AdmissionRejectedException.class, admissionController::admit);
+            Assertions.assertEquals(0, admissionController.getQueueDepth());
+        }
+    }
+
+    @Test
+    void internalAcquireIsBounded() throws Exception {
+        AdmissionController admissionController = newController(1, 0, 50);
+        try (AdmissionController.Permit running = admissionController.admit()) {
+            //内部任务同样占用排队名额，队列已满时被拒绝而不是无限等待
+            Assertions.assertThrows(AdmissionRejectedException.class, admissionController::acquire);
+            Assertions.assertEquals(0, admissionController.getQueueDepth());
+        }
+        try (AdmissionController.Permit permit = admissionController.acquire()) {
+            Assertions.assertEquals(1, admissionController.getStats().getInFlight());
+        }
+    }
+}
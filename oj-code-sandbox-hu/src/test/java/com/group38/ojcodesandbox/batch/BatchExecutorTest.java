@@ -0,0 +1,51 @@
+package com.group38.ojcodesandbox.batch;
+
+import com.group38.ojcodesandbox.model.BatchExecCodeRequest;
+import com.group38.ojcodesandbox.model.BatchExecCodeResponse;
+import com.group38.ojcodesandbox.model.BatchSubmission;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+
+@SpringBootTest
+class BatchExecutorTest {
+
+    @Resource
+    private BatchExecutor batchExecutor;
+
+    @Test
+    void execute() {
+        String doubleCode = "public class Main {\n" +
+                "    public static void main(String[] args) {\n" +
+                "        System.out.println(Integer.parseInt(args[0]) * 2);\n" +
+                "    }\n" +
+                "}\n";
+        String squareCode = "public class Main {\n" +
+                "    public static void main(String[] args) {\n" +
+                "        int a = Integer.parseInt(args[0]);\n" +
+                "        System.out.println(a * a);\n" +
+                "    }\n" +
+                "}\n";
+        BatchExecCodeRequest batchExecCodeRequest = BatchExecCodeRequest.builder()
+                .inputList(Arrays.asList("1", "2", "3"))
+                .submissions(Arrays.asList(
+                        new BatchSubmission("a", doubleCode, "java"),
+                        new BatchSubmission("b", "public class Main {", "java"),
+                        new BatchSubmission("c", squareCode, "java")))
+                .build();
+        BatchExecCodeResponse batchExecCodeResponse = batchExecutor.execute(batchExecCodeRequest);
+        Assertions.assertEquals(1, batchExecCodeResponse.getStatus());
+        Assertions.assertEquals(3, batchExecCodeResponse.getResultList().size());
+        Assertions.assertEquals("a", batchExecCodeResponse.getResultList().get(0).getId());
+        Assertions.assertEquals(Arrays.asList("2", "4", "6"),
+                batchExecCodeResponse.getResultList().get(0).getResult().getOutputList());
+        //编译失败只影响自己的结果
+        Assertions.assertEquals(3, batchExecCodeResponse.getResultList().get(1).getResult().getStatus());
+        Assertions.assertEquals(Arrays.asList("1", "4", "9"),
+                batchExecCodeResponse.getResultList().get(2).getResult().getOutputList());
+        Assertions.assertEquals(0, batchExecutor.getPending());
+    }
+}
@@ -0,0 +1,46 @@
+package com.group38.ojcodesandbox.cds;
+
+import com.group38.ojcodesandbox.compile.CompileResult;
+import com.group38.ojcodesandbox.lang.JavaRunner;
+import com.group38.ojcodesandbox.model.RunInput;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.annotation.Resource;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@SpringBootTest
+class CdsArchiveManagerTest {
+
+    @Resource
+    private CdsArchiveManager cdsArchiveManager;
+
+    @Resource
+    private JavaRunner javaRunner;
+
+    @Test
+    void ensureArchive() throws Exception {
+        Assertions.assertTrue(cdsArchiveManager.ensureArchive());
+        List<String> archiveOptions = cdsArchiveManager.getArchiveOptions();
+        Assertions.assertEquals(2, archiveOptions.size());
+
+        //-Xshare:on 时归档不可用会直接启动失败
+        List<String> command = new ArrayList<>();
+        command.add(cdsArchiveManager.getJavaCommand());
+        command.add(archiveOptions.get(1));
+        command.add("-Xshare:on");
+        command.add("-version");
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Assertions.assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, process.exitValue());
+
+        List<String> runCommand = javaRunner.getRunCommand(new File("."), new CompileResult(),
+                new RunInput(new ArrayList<>(), null, null));
+        Assertions.assertTrue(runCommand.containsAll(archiveOptions));
+        Assertions.assertTrue(runCommand.contains("-XX:+UseSerialGC"));
+    }
+}
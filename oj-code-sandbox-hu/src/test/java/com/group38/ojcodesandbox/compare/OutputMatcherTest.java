@@ -0,0 +1,59 @@
+package com.group38.ojcodesandbox.compare;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+class OutputMatcherTest {
+
+    @Test
+    void streamingCompare() {
+        String expected = "1 2\n\n3\n";
+        //行末空白、\r\n 和末尾空行都忽略
+        Assertions.assertTrue(match(new StreamingOutputComparator(expected), "1 2  \r\n\r\n3\n\n\n", 1));
+        Assertions.assertTrue(match(new StreamingOutputComparator(expected), "1 2\n\n3", 3));
+        //行内空白和中间的空行不能省略
+        Assertions.assertFalse(match(new StreamingOutputComparator(expected), "1  2\n\n3", 2));
+        Assertions.assertFalse(match(new StreamingOutputComparator(expected), "1 2\n3", 2));
+        Assertions.assertTrue(match(new StreamingOutputComparator(""), " \n\n", 1));
+        Assertions.assertFalse(match(new StreamingOutputComparator(""), "\n0", 1));
+    }
+
+    @Test
+    void streamingDiff() {
+        OutputMatcher matcher = new StreamingOutputComparator("1\n2\n3");
+        match(matcher, "1\n5 6\n3\n", 1);
+        Assertions.assertEquals("第 2 行不一致\n期望：2\n实际：5 6", matcher.getDiff());
+
+        matcher = new StreamingOutputComparator("1\n2");
+        match(matcher, "1\n", 1);
+        Assertions.assertEquals("第 2 行不一致\n期望：2\n实际：（无）", matcher.getDiff());
+
+        matcher = new StreamingOutputComparator("1");
+        match(matcher, "1\n" + "x".repeat(100), 7);
+        Assertions.assertEquals("第 2 行不一致\n期望：（无）\n实际：" + "x".repeat(64) + "...", matcher.getDiff());
+    }
+
+    @Test
+    void digestCompare() {
+        String expected = "1 2\n\n3\n";
+        String digest = OutputMatcher.digest(expected);
+        Assertions.assertTrue(match(new DigestOutputMatcher(digest), "1 2  \r\n\r\n3\n\n\n", 1));
+        Assertions.assertTrue(match(new DigestOutputMatcher(digest), "1 2" + " ".repeat(200) + "\n\n3", 5));
+        Assertions.assertTrue(match(new DigestOutputMatcher(digest.toUpperCase()), "1 2\n\n3", 2));
+        Assertions.assertFalse(match(new DigestOutputMatcher(digest), "1 2\n3", 1));
+        Assertions.assertFalse(match(new DigestOutputMatcher(digest), "1" + " ".repeat(200) + "2\n\n3", 3));
+        Assertions.assertNull(new DigestOutputMatcher(digest).getDiff());
+    }
+
+    //按指定大小分段送入，检查跨段的状态
+    private boolean match(OutputMatcher matcher, String output, int chunkSize) {
+        byte[] bytes = output.getBytes(StandardCharsets.UTF_8);
+        for (int off = 0; off < bytes.length; off += chunkSize) {
+            matcher.update(bytes, off, Math.min(chunkSize, bytes.length - off));
+        }
+        matcher.finish();
+        return matcher.isMatched();
+    }
+}
@@ -0,0 +1,130 @@
+package com.group38.ojcodesandbox.isolation;
+
+import com.group38.ojcodesandbox.JavaSandBox;
+import com.group38.ojcodesandbox.config.IsolationConfig;
+import com.group38.ojcodesandbox.lang.LanguageRunnerRegistry;
+import com.group38.ojcodesandbox.model.ExecCodeRequest;
+import com.group38.ojcodesandbox.model.ExecCodeResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.Collections;
+
+@SpringBootTest(properties = "sandbox.isolation.enabled=true")
+class NamespaceIsolatorTest {
+
+    @Resource
+    private JavaSandBox javaSandBox;
+
+    @Resource
+    private NamespaceIsolator namespaceIsolator;
+
+    @Resource
+    private IsolationConfig isolationConfig;
+
+    @Resource
+    private LanguageRunnerRegistry languageRunnerRegistry;
+
+    @Test
+    void execCodeInNamespaces() {
+        Assumptions.assumeTrue(namespaceIsolator.isEnabled());
+        //用户程序是新 PID 命名空间中的 1 号进程，工作目录只读，没有可用的网络，/tmp 可写
+        String code = "import java.io.*;\n" +
+                "import java.net.*;\n" +
+                "public class Main {\n" +
+                "    public static void main(String[] args) throws Exception {\n" +
+                "        System.out.println(ProcessHandle.current().pid());\n" +
+                "        try (FileOutputStream out = new FileOutputStream(\"Main.class\")) {\n" +
+                "            System.out.println(\"writable\");\n" +
+                "        } catch (IOException e) {\n" +
+                "            System.out.println(\"read-only\");\n" +
+                "        }\n" +
+                "        try (Socket socket = new Socket()) {\n" +
+                "            socket.connect(new InetSocketAddress(\"1.1.1.1\", 80), 1000);\n" +
+                "            System.out.println(\"network\");\n" +
+                "        } catch (IOException e) {\n" +
+                "            System.out.println(\"no network\");\n" +
+                "        }\n" +
+                "        File tmp = File.createTempFile(\"case\", \".txt\");\n" +
+                "        System.out.println(tmp.delete());\n" +
+                "    }\n" +
+                "}\n";
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code(code)
+                .lang("java")
+                .inputList(Collections.singletonList(""))
+                .build();
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals(1, execCodeResponse.getStatus());
+        Assertions.assertEquals(Arrays.asList("1\nread-only\nno network\ntrue"), execCodeResponse.getOutputList());
+    }
+
+    @Test
+    void cannotRemountOrWriteOutsideWorkspace() {
+        Assumptions.assumeTrue(namespaceIsolator.isEnabled());
+        //以非特权用户执行，重新挂载根目录和工作目录都失败，工作目录外写不了，宿主机的其他目录不可见
+        String code = "import java.io.*;\n" +
+                "import java.nio.file.*;\n" +
+                "public class Main {\n" +
+                "    public static void main(String[] args) throws Exception {\n" +
+                "        for (String line : Files.readAllLines(Paths.get(\"/proc/self/status\"))) {\n" +
+                "            if (line.startsWith(\"Uid:\")) {\n" +
+                "                System.out.println(line.split(\"\\\\s+\")[1]);\n" +
+                "            }\n" +
+                "        }\n" +
+                "        for (String dir : new String[]{\"/\", System.getProperty(\"user.dir\")}) {\n" +
+                "            Process mount = new ProcessBuilder(\"mount\", \"-o\", \"remount,rw\", dir)\n" +
+                "                    .redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();\n" +
+                "            System.out.println(mount.waitFor() == 0 ? \"remounted\" : \"remount failed\");\n" +
+                "        }\n" +
+                "        for (String path : new String[]{\"Main.class\", \"/escape\", \"/usr/escape\"}) {\n" +
+                "            try (FileOutputStream out = new FileOutputStream(path)) {\n" +
+                "                System.out.println(\"writable\");\n" +
+                "            } catch (IOException e) {\n" +
+                "                System.out.println(\"read-only\");\n" +
+                "            }\n" +
+                "        }\n" +
+                "        System.out.println(new File(\"/var\").exists());\n" +
+                "    }\n" +
+                "}\n";
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code(code)
+                .lang("java")
+                .inputList(Collections.singletonList(""))
+                .build();
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        //非 root 启动时仍是用户命名空间中的 0 号用户，但没有任何能力
+        String uid = "root".equals(System.getProperty("user.name")) ? String.valueOf(isolationConfig.getRunUid()) : "0";
+        Assertions.assertEquals(1, execCodeResponse.getStatus());
+        Assertions.assertEquals(Collections.singletonList(uid + "\nremount failed\nremount failed\n" +
+                "read-only\nread-only\nread-only\nfalse"), execCodeResponse.getOutputList());
+    }
+
+    @Test
+    void compileInNamespaces() {
+        Assumptions.assumeTrue(namespaceIsolator.isEnabled() && languageRunnerRegistry.getRunner("c") != null);
+        //编译器同样在隔离的根目录中执行，宿主机的文件不可见
+        ExecCodeRequest leakRequest = ExecCodeRequest.builder()
+                .code("#include \"/etc/passwd\"\nint main() { return 0; }\n")
+                .lang("c")
+                .inputList(Collections.singletonList(""))
+                .build();
+        ExecCodeResponse leakResponse = javaSandBox.execCode(leakRequest);
+        Assertions.assertEquals(3, leakResponse.getStatus());
+        Assertions.assertTrue(leakResponse.getMessage().contains("No such file"));
+
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code("#include <stdio.h>\nint main() { int a, b; scanf(\"%d %d\", &a, &b); printf(\"%d\\n\", a + b); return 0; }\n")
+                .lang("c")
+                .inputMode("stdin")
+                .inputList(Collections.singletonList("1 2"))
+                .build();
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(execCodeRequest);
+        Assertions.assertEquals(1, execCodeResponse.getStatus());
+        Assertions.assertEquals(Collections.singletonList("3"), execCodeResponse.getOutputList());
+    }
+}
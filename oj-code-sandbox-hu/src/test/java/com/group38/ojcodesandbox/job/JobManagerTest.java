@@ -0,0 +1,44 @@
+package com.group38.ojcodesandbox.job;
+
+import com.group38.ojcodesandbox.model.ExecCodeRequest;
+import com.group38.ojcodesandbox.model.ExecJobVO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+
+@SpringBootTest
+class JobManagerTest {
+
+    @Resource
+    private JobManager jobManager;
+
+    @Test
+    void submitAndPoll() throws Exception {
+        String code = "public class Main {\n" +
+                "    public static void main(String[] args) {\n" +
+                "        System.out.println(Integer.parseInt(args[0]) * 2);\n" +
+                "    }\n" +
+                "}\n";
+        ExecCodeRequest execCodeRequest = ExecCodeRequest.builder()
+                .code(code)
+                .lang("java")
+                .inputList(Arrays.asList("1", "2", "3"))
+                .build();
+        ExecJob job = jobManager.submit(execCodeRequest);
+        Assertions.assertSame(job, jobManager.getJob(job.getId()));
+
+        long deadline = System.currentTimeMillis() + 30000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        ExecJobVO execJobVO = job.toVO();
+        Assertions.assertEquals("succeed", execJobVO.getStatus());
+        Assertions.assertEquals(3, execJobVO.getTotalCases());
+        Assertions.assertEquals(3, execJobVO.getCaseResults().size());
+        Assertions.assertEquals(Arrays.asList("2", "4", "6"), execJobVO.getResult().getOutputList());
+        Assertions.assertNotNull(execJobVO.getFinishTime());
+    }
+}
@@ -0,0 +1,145 @@
+package com.group38.ojcodesandbox.lang;
+
+import cn.hutool.core.io.FileUtil;
+import com.group38.ojcodesandbox.JavaSandBox;
+import com.group38.ojcodesandbox.config.RunConfig;
+import com.group38.ojcodesandbox.model.ExecCodeRequest;
+import com.group38.ojcodesandbox.model.ExecCodeResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.annotation.Resource;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+@SpringBootTest
+class LanguageRunnerTest {
+
+    @Resource
+    private JavaSandBox javaSandBox;
+
+    @Resource
+    private LanguageRunnerRegistry languageRunnerRegistry;
+
+    @Resource
+    private CRunner cRunner;
+
+    @Resource
+    private RunConfig runConfig;
+
+    @Test
+    void execC() {
+        Assumptions.assumeTrue(languageRunnerRegistry.getRunner("c") != null);
+        String code = "#include <stdio.h>\n" +
+                "int main() {\n" +
+                "    int a, b;\n" +
+                "    scanf(\"%d %d\", &a, &b);\n" +
+                "    printf(\"%d\\n\", a + b);\n" +
+                "    return 0;\n" +
+                "}\n";
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(request("c", code));
+        Assertions.assertEquals(1, execCodeResponse.getStatus());
+        Assertions.assertEquals(Arrays.asList("3", "7"), execCodeResponse.getOutputList());
+
+        //相同代码直接使用缓存的可执行文件
+        long hits = cRunner.getCompileCache().getHits();
+        javaSandBox.execCode(request("c", code));
+        Assertions.assertEquals(hits + 1, cRunner.getCompileCache().getHits());
+    }
+
+    @Test
+    void execCpp() {
+        Assumptions.assumeTrue(languageRunnerRegistry.getRunner("cpp") != null);
+        String code = "#include <iostream>\n" +
+                "int main() {\n" +
+                "    int a, b;\n" +
+                "    std::cin >> a >> b;\n" +
+                "    std::cout << a + b << std::endl;\n" +
+                "    return 0;\n" +
+                "}\n";
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(request("cpp", code));
+        Assertions.assertEquals(1, execCodeResponse.getStatus());
+        Assertions.assertEquals(Arrays.asList("3", "7"), execCodeResponse.getOutputList());
+    }
+
+    @Test
+    void execCppWithCompileError() {
+        Assumptions.assumeTrue(languageRunnerRegistry.getRunner("cpp") != null);
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(request("cpp", "int main() { return x; }"));
+        Assertions.assertEquals(3, execCodeResponse.getStatus());
+        Assertions.assertEquals("Compile Error", execCodeResponse.getJudgeInfo().getMessage());
+        Assertions.assertTrue(execCodeResponse.getMessage().contains("main.cpp"));
+    }
+
+    @Test
+    void execCWithHostFileIncluded() {
+        Assumptions.assumeTrue(languageRunnerRegistry.getRunner("c") != null);
+        //编译错误中不回显工作目录以外文件的内容
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(request("c", "#include \"/etc/passwd\"\nint main() { return 0; }\n"));
+        Assertions.assertEquals(3, execCodeResponse.getStatus());
+        Assertions.assertFalse(execCodeResponse.getMessage().contains("root:"));
+    }
+
+    @Test
+    void execPython() {
+        Assumptions.assumeTrue(languageRunnerRegistry.getRunner("python") != null);
+        String code = "a, b = map(int, input().split())\n" +
+                "print(a + b)\n";
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(request("python", code));
+        Assertions.assertEquals(1, execCodeResponse.getStatus());
+        Assertions.assertEquals(Arrays.asList("3", "7"), execCodeResponse.getOutputList());
+    }
+
+    @Test
+    void execPythonWithInputFile() throws Exception {
+        Assumptions.assumeTrue(languageRunnerRegistry.getRunner("python") != null);
+        //输入文件由预先启动的解释器自己打开
+        File inputFile = new File(runConfig.getTestDataDir(), "python-" + UUID.randomUUID() + ".in");
+        FileUtil.writeString("5 6\n", inputFile, StandardCharsets.UTF_8);
+        try {
+            String code = "import sys\n" +
+                    "a, b = map(int, sys.stdin.read().split())\n" +
+                    "print(a + b)\n";
+            ExecCodeResponse execCodeResponse = javaSandBox.execCode(ExecCodeRequest.builder()
+                    .code(code)
+                    .lang("python")
+                    .inputFileList(Collections.singletonList(inputFile.getName()))
+                    .build());
+            Assertions.assertEquals(1, execCodeResponse.getStatus());
+            Assertions.assertEquals(Collections.singletonList("11"), execCodeResponse.getOutputList());
+        } finally {
+            FileUtil.del(inputFile);
+        }
+    }
+
+    @Test
+    void execPythonWithError() {
+        Assumptions.assumeTrue(languageRunnerRegistry.getRunner("python") != null);
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(request("python", "print(1"));
+        Assertions.assertEquals("Compile Error", execCodeResponse.getJudgeInfo().getMessage());
+
+        execCodeResponse = javaSandBox.execCode(request("python", "raise ValueError('boom')\n"));
+        Assertions.assertEquals(3, execCodeResponse.getStatus());
+        Assertions.assertTrue(execCodeResponse.getMessage().contains("ValueError"));
+    }
+
+    @Test
+    void execUnsupportedLanguage() {
+        ExecCodeResponse execCodeResponse = javaSandBox.execCode(request("brainfuck", "+"));
+        Assertions.assertEquals(2, execCodeResponse.getStatus());
+    }
+
+    private ExecCodeRequest request(String lang, String code) {
+        return ExecCodeRequest.builder()
+                .code(code)
+                .lang(lang)
+                .inputMode("stdin")
+                .inputList(Arrays.asList("1 2", "3 4"))
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.group38.ojcodesandbox.status;
+
+import com.group38.ojcodesandbox.model.SandboxStatus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.annotation.Resource;
+
+@SpringBootTest
+class SandboxStatusServiceTest {
+
+    @Resource
+    private SandboxStatusService sandboxStatusService;
+
+    @Test
+    void getStatus() {
+        SandboxStatus status = sandboxStatusService.getStatus();
+        Assertions.assertNotNull(status.getNodeId());
+        Assertions.assertTrue(status.getUrl().endsWith(":8090"));
+        Assertions.assertEquals(Runtime.getRuntime().availableProcessors(), status.getCores());
+        Assertions.assertEquals(status.getCpuBudget() - status.getRunningCases(), status.getFreeSlots());
+        Assertions.assertTrue(status.getLanguages().contains("java"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.group38.ojcodesandbox.store;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.group38.ojcodesandbox.config.StoreConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+class ArtifactStoreTest {
+
+    private File dir;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dir = Files.createTempDirectory("artifact-store").toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        FileUtil.del(dir);
+    }
+
+    @Test
+    void reopen() {
+        ArtifactStore store = open(1024 * 1024, 64);
+        store.put("java", key("a"), bytes("classes"));
+        File artifact = FileUtil.writeUtf8String("binary", new File(dir, "main"));
+        artifact.setExecutable(true);
+        store.put("c", key("b"), artifact);
+        store.destroy();
+
+        //重启后索引和产物都还在
+        ArtifactStore reopened = open(1024 * 1024, 64);
+        Assertions.assertEquals(2, reopened.size());
+        Assertions.assertArrayEquals(bytes("classes"), reopened.get(key("a")));
+        File target = new File(dir, "restored");
+        Assertions.assertTrue(reopened.get(key("b"), target));
+        Assertions.assertEquals("binary", FileUtil.readUtf8String(target));
+        Assertions.assertTrue(target.canExecute());
+        Assertions.assertEquals(List.of(key("b")), reopened.recentKeys("c", 10));
+        Assertions.assertNull(reopened.get(key("missing")));
+        reopened.destroy();
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() {
+        ArtifactStore store = open(100, 64);
+        store.put("java", key("a"), new byte[40]);
+        store.put("java", key("b"), new byte[40]);
+        //访问 a 后 b 是最久未使用的
+        Assertions.assertNotNull(store.get(key("a")));
+        store.put("java", key("c"), new byte[40]);
+        Assertions.assertNull(store.get(key("b")));
+        Assertions.assertNotNull(store.get(key("a")));
+        Assertions.assertNotNull(store.get(key("c")));
+        Assertions.assertEquals(80, store.getTotalSize());
+        store.destroy();
+    }
+
+    @Test
+    void evictWhenIndexIsFull() {
+        ArtifactStore store = open(1024 * 1024, 8);
+        for (int i = 0; i < 20; i++) {
+            store.put("java", key(String.valueOf(i)), bytes(String.valueOf(i)));
+        }
+        Assertions.assertTrue(store.size() <= 6);
+        //删除后前移的条目仍然能找到
+        List<String> keys = store.recentKeys("java", 100);
+        Assertions.assertEquals(store.size(), keys.size());
+        Assertions.assertEquals(key("19"), keys.get(0));
+        for (String key : keys) {
+            Assertions.assertNotNull(store.get(key));
+        }
+        store.destroy();
+    }
+
+    private ArtifactStore open(long maxSize, int indexCapacity) {
+        StoreConfig storeConfig = new StoreConfig();
+        storeConfig.setDir(new File(dir, "store").getAbsolutePath());
+        storeConfig.setMaxSize(maxSize);
+        storeConfig.setIndexCapacity(indexCapacity);
+        ArtifactStore store = new ArtifactStore();
+        ReflectionTestUtils.setField(store, "storeConfig", storeConfig);
+        store.init();
+        return store;
+    }
+
+    private static String key(String value) {
+        return DigestUtil.sha256Hex(value);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -3,6 +3,7 @@
 /* tslint:disable */
 /* eslint-disable */
 export type JudgeConfig = {
+    inputMode?: string;
     memoryLimit?: number;
     stackLimit?: number;
     timeLimit?: number;
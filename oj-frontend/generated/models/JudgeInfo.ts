@@ -3,8 +3,10 @@
 /* tslint:disable */
 /* eslint-disable */
 export type JudgeInfo = {
+    diff?: string;
     memory?: number;
     message?: string;
     time?: number;
+    wallTime?: number;
 };
 